@@ -0,0 +1,181 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ForkJoinPool;
+
+// JMH refuses benchmark classes in the default package, and named packages can't import the
+// game classes (which live there). These constant method handles bridge the gap; the JIT inlines
+// them, so the measured code is the same as a direct call.
+final class Bacteria {
+    private static final MethodHandle NEW_LOGIC;
+    private static final MethodHandle STEP;
+    private static final MethodHandle LOAD;
+    private static final MethodHandle SET_MAX_ROUNDS;
+    private static final MethodHandle GENERATE_NEW_GEN;
+    private static final MethodHandle GENERATE_INITIAL_GEN;
+    private static final MethodHandle CHECK_NEIGHBOURS;
+    private static final MethodHandle CHECK_STABLE_GEN;
+    private static final MethodHandle NEW_PARALLEL_STEPPER;
+    private static final MethodHandle SET_PARALLEL_STEPPER;
+    private static final MethodHandle SET_VECTOR_ENABLED;
+    private static final MethodHandle CHECKPOINT;
+    private static final MethodHandle RESUME;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> logic = Class.forName("BacteriaLifeLogic");
+            Class<?> parallel = Class.forName("ParallelStepper");
+            Class<?> checkpoint = Class.forName("Checkpoint");
+            NEW_LOGIC = lookup.findConstructor(logic, MethodType.methodType(void.class, int.class))
+                    .asType(MethodType.methodType(Object.class, int.class));
+            STEP = lookup.findVirtual(logic, "step", MethodType.methodType(boolean.class))
+                    .asType(MethodType.methodType(boolean.class, Object.class));
+            LOAD = lookup.findVirtual(logic, "load", MethodType.methodType(void.class, int[][].class))
+                    .asType(MethodType.methodType(void.class, Object.class, int[][].class));
+            SET_MAX_ROUNDS = lookup.findVirtual(logic, "setMaxRounds", MethodType.methodType(void.class, int.class))
+                    .asType(MethodType.methodType(void.class, Object.class, int.class));
+            GENERATE_NEW_GEN = lookup.findVirtual(logic, "generateNewGen",
+                            MethodType.methodType(int[][].class, int[][].class, int[][].class))
+                    .asType(MethodType.methodType(int[][].class, Object.class, int[][].class, int[][].class));
+            GENERATE_INITIAL_GEN = lookup.findVirtual(logic, "generateInitialGen",
+                            MethodType.methodType(int[][].class, long.class, double.class))
+                    .asType(MethodType.methodType(int[][].class, Object.class, long.class, double.class));
+            CHECK_NEIGHBOURS = lookup.findStatic(logic, "checkNeighbours",
+                    MethodType.methodType(int.class, int[][].class, int.class, int.class));
+            CHECK_STABLE_GEN = lookup.findStatic(logic, "checkStableGen",
+                    MethodType.methodType(boolean.class, int[][].class, int[][].class));
+            NEW_PARALLEL_STEPPER = lookup.findConstructor(parallel,
+                            MethodType.methodType(void.class, ForkJoinPool.class, int.class))
+                    .asType(MethodType.methodType(Object.class, ForkJoinPool.class, int.class));
+            SET_PARALLEL_STEPPER = lookup.findVirtual(logic, "setParallelStepper",
+                            MethodType.methodType(void.class, parallel))
+                    .asType(MethodType.methodType(void.class, Object.class, Object.class));
+            SET_VECTOR_ENABLED = lookup.findStatic(Class.forName("VectorSupport"), "setEnabled",
+                    MethodType.methodType(void.class, boolean.class));
+            CHECKPOINT = lookup.findVirtual(logic, "checkpoint", MethodType.methodType(checkpoint))
+                    .asType(MethodType.methodType(Object.class, Object.class));
+            RESUME = lookup.findVirtual(logic, "resume", MethodType.methodType(void.class, checkpoint))
+                    .asType(MethodType.methodType(void.class, Object.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private Bacteria() {
+    }
+
+    static Object newLogic(int size) {
+        try {
+            return NEW_LOGIC.invokeExact(size);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static boolean step(Object logic) {
+        try {
+            return (boolean) STEP.invokeExact(logic);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static void load(Object logic, int[][] gen) {
+        try {
+            LOAD.invokeExact(logic, gen);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static void setMaxRounds(Object logic, int maxRounds) {
+        try {
+            SET_MAX_ROUNDS.invokeExact(logic, maxRounds);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    // Snapshot of the run, to go back to it with restart
+    static Object checkpoint(Object logic) {
+        try {
+            return CHECKPOINT.invokeExact(logic);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    // Back to a snapshot: same cells and round, and the cycle history of then. Allocates nothing,
+    // unlike a new logic, and unlike load it forgets the hashes of the generations stepped since
+    static void restart(Object logic, Object checkpoint) {
+        try {
+            RESUME.invokeExact(logic, checkpoint);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static int[][] generateNewGen(Object logic, int[][] gen, int[][] newGen) {
+        try {
+            return (int[][]) GENERATE_NEW_GEN.invokeExact(logic, gen, newGen);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static int[][] generateInitialGen(Object logic, long seed, double density) {
+        try {
+            return (int[][]) GENERATE_INITIAL_GEN.invokeExact(logic, seed, density);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static int checkNeighbours(int[][] gen, int row, int col) {
+        try {
+            return (int) CHECK_NEIGHBOURS.invokeExact(gen, row, col);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static boolean checkStableGen(int[][] oldGen, int[][] newGen) {
+        try {
+            return (boolean) CHECK_STABLE_GEN.invokeExact(oldGen, newGen);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    // Parallel stepping on the given pool, without the size threshold
+    static void useParallelStepper(Object logic, ForkJoinPool pool) {
+        try {
+            Object stepper = NEW_PARALLEL_STEPPER.invokeExact(pool, 0);
+            SET_PARALLEL_STEPPER.invokeExact(logic, stepper);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    // SIMD step on or off (throws when the JVM lacks jdk.incubator.vector)
+    static void setVectorEnabled(boolean on) {
+        try {
+            SET_VECTOR_ENABLED.invokeExact(on);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable t) {
+        if (t instanceof RuntimeException) {
+            return (RuntimeException) t;
+        }
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+        return new IllegalStateException(t);
+    }
+}
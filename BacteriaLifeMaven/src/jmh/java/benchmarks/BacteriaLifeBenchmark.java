@@ -0,0 +1,130 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// Hot path benchmarks for BacteriaLifeLogic (called through Bacteria, see there why). Run from BacteriaLifeMaven with:
+//   mvn -P jmh verify
+// "cells" in the results is the cells per second processed (JMH reports it next to ops/s),
+// the gc profiler adds the allocation rate (gc.alloc.rate.norm = bytes per operation).
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BacteriaLifeBenchmark {
+    // Generations timed per invocation of step, from a fresh soup every time. A soup reloaded only
+    // once per iteration settles into still lifes within it, the tiles get skipped and the rate
+    // no longer measures a live grid
+    static final int STEPS = 16;
+
+    @State(Scope.Thread)
+    public static class Grid {
+        @Param({"30", "512", "4096"})
+        int size;
+
+        @Param({"0.1", "0.5"})
+        double density;
+
+        Object logic;
+        int[][] gen;
+        int[][] copy;
+        int[][] spare;
+
+        @Setup(Level.Trial)
+        public void create() {
+            logic = Bacteria.newLogic(size);
+            gen = Bacteria.generateInitialGen(logic, 42, density);
+            copy = Bacteria.generateInitialGen(logic, 42, density);
+            spare = new int[size][size];
+        }
+    }
+
+    // The grid of step, back to the first soup before every invocation (outside the timed part)
+    @State(Scope.Thread)
+    public static class Soup {
+        Object logic;
+        Object start;
+
+        @Setup(Level.Trial)
+        public void create(Grid grid) {
+            logic = Bacteria.newLogic(grid.size);
+            Bacteria.setMaxRounds(logic, Integer.MAX_VALUE);
+            Bacteria.load(logic, grid.gen);
+            start = Bacteria.checkpoint(logic);
+        }
+
+        @Setup(Level.Invocation)
+        public void reload() {
+            Bacteria.restart(logic, start);
+        }
+    }
+
+    // Cells processed, reported as a rate next to ops/s
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Cells {
+        public long cells;
+    }
+
+    // STEPS generations in the internal double buffer, ops/s counts generations
+    @Benchmark
+    @OperationsPerInvocation(STEPS)
+    public boolean step(Grid grid, Soup soup, Cells cells) {
+        cells.cells += (long) grid.size * grid.size * STEPS;
+        boolean more = true;
+        for (int i = 0; i < STEPS; i++) {
+            more &= Bacteria.step(soup.logic);
+        }
+        return more;
+    }
+
+    // One generation through the int[][] adapter, writing into a reused buffer. grid.gen is never the
+    // array the logic returned, so every call loads it first (all tiles dirty, hash and population
+    // counted again): the cost for a foreign array. Callers swapping the two buffers skip the load
+    @Benchmark
+    public int[][] generateNewGen(Grid grid, Cells cells) {
+        cells.cells += (long) grid.size * grid.size;
+        return Bacteria.generateNewGen(grid.logic, grid.gen, grid.spare);
+    }
+
+    // Scalar neighbour count over the whole grid
+    @Benchmark
+    public void checkNeighbours(Grid grid, Cells cells, Blackhole hole) {
+        cells.cells += (long) grid.size * grid.size;
+        int[][] gen = grid.gen;
+        for (int i = 0; i < gen.length; i++) {
+            for (int j = 0; j < gen.length; j++) {
+                hole.consume(Bacteria.checkNeighbours(gen, i, j));
+            }
+        }
+    }
+
+    // Full comparison of two equal grids (the worst case)
+    @Benchmark
+    public boolean checkStableGen(Grid grid, Cells cells) {
+        cells.cells += (long) grid.size * grid.size;
+        return Bacteria.checkStableGen(grid.gen, grid.copy);
+    }
+
+    @Benchmark
+    public int[][] generateInitialGen(Grid grid, Cells cells) {
+        cells.cells += (long) grid.size * grid.size;
+        return Bacteria.generateInitialGen(grid.logic, 7, grid.density);
+    }
+}
@@ -0,0 +1,78 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+// Scaling of the fork/join row-band stepper from 1 to N cores. Compare "cells" across threads:
+//   mvn -P jmh verify -Djmh.args="ParallelStepBenchmark -p threads=1,2,4,8,16"
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ParallelStepBenchmark {
+    @Param({"4096"})
+    int size;
+
+    @Param({"1", "2", "4", "8"})
+    int threads;
+
+    private ForkJoinPool pool;
+    private Object logic;
+    private Object start;
+
+    @Setup(Level.Trial)
+    public void create() {
+        pool = new ForkJoinPool(threads);
+        logic = Bacteria.newLogic(size);
+        Bacteria.useParallelStepper(logic, pool);
+        Bacteria.setMaxRounds(logic, Integer.MAX_VALUE);
+        Bacteria.load(logic, Bacteria.generateInitialGen(logic, 42, 0.5));
+        start = Bacteria.checkpoint(logic);
+    }
+
+    // A fresh soup for every batch, outside the timed part (see BacteriaLifeBenchmark.STEPS)
+    @Setup(Level.Invocation)
+    public void reload() {
+        Bacteria.restart(logic, start);
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Cells {
+        public long cells;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BacteriaLifeBenchmark.STEPS)
+    public boolean step(Cells cells) {
+        cells.cells += (long) size * size * BacteriaLifeBenchmark.STEPS;
+        boolean more = true;
+        for (int i = 0; i < BacteriaLifeBenchmark.STEPS; i++) {
+            more &= Bacteria.step(logic);
+        }
+        return more;
+    }
+}
@@ -0,0 +1,64 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Scalar vs Vector API step on one core. The SIMD width is the widest the CPU has
+// (8 longs on AVX-512, 4 on AVX2); force a narrower one to compare both on the same host:
+//   mvn -P jmh verify -Djmh.args="VectorStepBenchmark -jvmArgsAppend -Dbacteria.vector.bits=256"
+// SIMD runs at every width here, VectorSupport.DEFAULT_MIN_WORDS comes from these numbers
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules=jdk.incubator.vector", "-Dbacteria.vector.minWords=1"})
+@State(Scope.Thread)
+public class VectorStepBenchmark {
+    @Param({"512", "1024", "2048", "4096"})
+    int size;
+
+    @Param({"scalar", "simd"})
+    String engine;
+
+    private Object logic;
+    private Object start;
+
+    @Setup(Level.Trial)
+    public void create() {
+        Bacteria.setVectorEnabled(engine.equals("simd"));
+        logic = Bacteria.newLogic(size);
+        Bacteria.setMaxRounds(logic, Integer.MAX_VALUE);
+        Bacteria.load(logic, Bacteria.generateInitialGen(logic, 42, 0.5));
+        start = Bacteria.checkpoint(logic);
+    }
+
+    // A fresh soup for every batch, outside the timed part (see BacteriaLifeBenchmark.STEPS)
+    @Setup(Level.Invocation)
+    public void reload() {
+        Bacteria.restart(logic, start);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BacteriaLifeBenchmark.STEPS)
+    public boolean step(ParallelStepBenchmark.Cells cells) {
+        cells.cells += (long) size * size * BacteriaLifeBenchmark.STEPS;
+        boolean more = true;
+        for (int i = 0; i < BacteriaLifeBenchmark.STEPS; i++) {
+            more &= Bacteria.step(logic);
+        }
+        return more;
+    }
+}
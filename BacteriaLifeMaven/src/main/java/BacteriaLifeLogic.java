@@ -1,10 +1,62 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.util.Arrays;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 public class BacteriaLifeLogic {
     private final int DIMENSION;
     private int round = 0;
     private static final int MAX_ROUNDS = 300;
+    // Generation limit of this instance
+    private int maxRounds = MAX_ROUNDS;
+    // Two reusable generation buffers, swapped every round
+    private BitGrid current;
+    private BitGrid next;
+    // Parallel stepping mode, null means sequential
+    private ParallelStepper parallel;
+    // Changes made by the last step, filled while stepping
+    private final StepStats stats = new StepStats();
+    // Still areas are skipped, only tiles near last step's changes are recomputed
+    private TileTracker tiles;
+    // The int[][] the loaded gen was last exported to, null once either changed. generateNewGen
+    // goes on from the double buffer instead of loading it again
+    private int[][] exported;
+    private long population;
+    // Oscillator detection: hash of the current gen, recent hashes and the cycle found (period 0 = none)
+    private final CycleDetector history = new CycleDetector();
+    private long hash;
+    private int cyclePeriod = 0;
+    private int cycleStart = -1;
+    // Buffers to confirm a hash hit by stepping a copy of the gen
+    private BitGrid probe;
+    private BitGrid probeNext;
+    private final StepStats probeStats = new StepStats();
+    // Birth and survival rule, compiled once. The default is the original B3/S23
+    private Rule rule = Rule.CONWAY;
+    // Dead edges by default, or a torus through the BitGrid halo
+    private Boundary boundary = Boundary.DEAD;
+    // Optional history file every generation is streamed to
+    private GenerationRecorder recorder;
+    // The recorder's last generation is the one before this step: its delta comes from the step's log
+    private boolean recorderFollows;
+    // Optional periodic checkpoints, every checkpointInterval rounds
+    private CheckpointWriter checkpoints;
+    private int checkpointInterval;
+    // Optional in-memory history to step back through
+    private RewindBuffer rewind;
+    // Optional stream of what every step changed
+    private DeltaPublisher deltas;
+    // Where loadRandom started the run, kept in checkpoints. NaN density: loaded some other way
+    private long seed;
+    private double density = Double.NaN;
+    // Optional per-step metrics. Steps are only timed when there is a listener or a JFR recording
+    private StepListener listener;
+    // The limit was reported already: steps past it only return false. A load, resume or new limit clears it
+    private boolean limitReported;
+    // Per-thread allocation counter, null when the JVM has none
+    private static final com.sun.management.ThreadMXBean ALLOCATION = allocationCounter();
     private static final int[][] DIRECTIONS = {
             {-1, -1}, {-1, 0}, {-1, 1},
             {0, -1}, {0, 1},
@@ -16,61 +68,378 @@ public class BacteriaLifeLogic {
         this.DIMENSION = dimension;
     }
 
-    // Generate initial generation, random positions
+    // Generate initial generation, random positions (half of the cells alive, new seed every time)
     public int[][] generateInitialGen() {
-        Random rand = new Random();
-        int[][] genTable = new int[DIMENSION][DIMENSION];
+        return generateInitialGen(new SplittableRandom().nextLong(), 0.5);
+    }
 
-        for (int i = 0; i < DIMENSION; i++) {
-            for (int j = 0; j < DIMENSION; j++) {
-                genTable[i][j] = rand.nextInt(2);
-            }
+    // Reproducible initial generation: same seed, same grid, whatever the number of threads.
+    // Each cell is alive with probability density
+    public int[][] generateInitialGen(long seed, double density) {
+        return generateInitialGrid(seed, density).toGen();
+    }
+
+    // Same grid as generateInitialGen(seed, density), bit-packed
+    public BitGrid generateInitialGrid(long seed, double density) {
+        BitGrid grid = new BitGrid(DIMENSION, DIMENSION);
+        fillRandom(grid, seed, density);
+        return grid;
+    }
+
+    // Same grid as generateInitialGen(seed, density), generated straight into the bit-packed buffer
+    // and loaded. No int[][] on the way, for grids too large to hold as one
+    public void loadRandom(long seed, double density) {
+        BitGrid.densityThreshold(density);
+        resize(DIMENSION, DIMENSION);
+        fillRandom(current, seed, density);
+        loaded();
+        this.seed = seed;
+        this.density = density;
+    }
+
+    // On the parallel stepper's pool when there is one
+    private void fillRandom(BitGrid grid, long seed, double density) {
+        if (parallel != null) {
+            parallel.fillRandom(grid, seed, density);
+        } else {
+            grid.fillRandom(seed, density);
         }
-        return genTable;
     }
 
     // Generating a new gen until it's stable
     public int[][] generateNewGen(int[][] gen) {
+        return generateNewGen(gen, new int[gen.length][gen[0].length]);
+    }
+
+    // Same as generateNewGen but writes into a caller owned buffer, so a caller
+    // swapping two int[][] buffers steps without allocating. gen is loaded first (O(grid): every tile
+    // dirty, hash and population counted again) unless it is the array this logic returned last,
+    // which must not have been changed since. Callers that don't need the int[][] should use step()
+    public int[][] generateNewGen(int[][] gen, int[][] newGen) {
+        if (gen != exported) {
+            load(gen);
+        }
+        if (!step()) {
+            exported = gen;
+            return gen;
+        }
+        current.exportTo(newGen);
+        exported = newGen;
+        return newGen;
+    }
+
+    // Load a generation into the double buffer (only allocates when the size changes)
+    public void load(int[][] gen) {
+        resize(gen.length, gen[0].length);
+        current.load(gen);
+        loaded();
+    }
+
+    // Same, from a bit-packed grid (copied)
+    public void loadGrid(BitGrid grid) {
+        resize(grid.getRows(), grid.getCols());
+        current.copyFrom(grid);
+        loaded();
+    }
+
+    // Load generation g of a recording and go on from there (the round becomes g)
+    public void load(GenerationReplay replay, long generation) {
+        resize(replay.getRows(), replay.getCols());
+        replay.read(generation, current);
+        round = (int) generation;
+        loaded();
+    }
+
+    private void resize(int rows, int cols) {
+        if (current == null || current.getRows() != rows || current.getCols() != cols) {
+            current = new BitGrid(rows, cols);
+            next = new BitGrid(rows, cols);
+            probe = new BitGrid(rows, cols);
+            probeNext = new BitGrid(rows, cols);
+            tiles = new TileTracker(current);
+            tiles.setWrapped(boundary == Boundary.TORUS);
+            history.clear();
+        }
+    }
+
+    private void loaded() {
+        exported = null;
+        seed = 0;
+        density = Double.NaN;
+        // The other buffer is stale now, everything has to be computed once
+        tiles.markAllDirty();
+        population = current.population();
+        // The int[][] format has to be read whole anyway, the hash comes with it
+        hash = current.hash();
+        cyclePeriod = 0;
+        cycleStart = -1;
+        history.record(hash, round);
+        limitReported = false;
+        recorderFollows = false;
+        // The starting gen opens the recording, later loads of the same run are not repeated
+        if (recorder != null && recorder.getGenerationCount() == 0) {
+            record();
+        }
+        if (rewind != null) {
+            rewind.record(round, current);
+        }
+    }
+
+    // Advance the loaded generation one round and swap the buffers. Allocation free
+    public boolean step() {
+        exported = null;
         round++;
         // To prevent stack overflow, it wasn't in the assignment but just in case
-        if (round > MAX_ROUNDS) {
-            System.out.println("Can't get a stable gen.");
-            return gen;
+        if (round > maxRounds) {
+            if (!limitReported) {
+                limitReported = true;
+                roundLimitReached();
+            }
+            return false;
         }
-        int rows = gen.length;
-        int cols = gen[0].length;
-        int[][] newGen = new int[rows][cols];
-        // Check each position
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
+        StepEvent event = StepEvent.TYPE.isEnabled() ? new StepEvent() : null;
+        boolean measured = listener != null || event != null;
+        long allocatedBefore = measured ? allocatedBytes() : 0;
+        long start = measured ? System.nanoTime() : 0;
+        if (event != null) {
+            event.begin();
+        }
+
+        stats.reset();
+        // The changed words are only kept while someone wants the deltas, the recording or the rewind window
+        boolean publishing = deltas != null && deltas.hasSubscribers();
+        boolean logging = publishing || recorder != null || rewind != null;
+        if (stats.isLogging() != logging) {
+            stats.setLogging(logging);
+        }
+        tiles.prepare();
+        boolean torus = boundary == Boundary.TORUS;
+        if (torus) {
+            current.wrapHalo();
+        }
+        if (parallel != null) {
+            parallel.step(current, next, tiles, rule, stats);
+        } else {
+            tiles.step(current, next, rule, stats);
+        }
+        if (torus) {
+            current.clearHalo();
+        }
+        population += stats.getBirths() - stats.getDeaths();
+        BitGrid swap = current;
+        current = next;
+        next = swap;
+        hash ^= stats.getHashDelta();
+        detectCycle();
+        if (recorder != null) {
+            record();
+        }
+        if (rewind != null) {
+            rewind.record(round, current, stats);
+        }
+        if (publishing) {
+            deltas.publish(GenerationDelta.of(round, current.getCols(), stats));
+        }
+        if (checkpoints != null && round % checkpointInterval == 0) {
+            // Only the copy happens here, the file is written on the writer's thread
+            checkpoints.submit(checkpoint());
+        }
+
+        if (measured) {
+            long nanos = System.nanoTime() - start;
+            long allocated = allocatedBefore < 0 ? -1 : allocatedBytes() - allocatedBefore;
+            stepped(event, nanos, allocated);
+        }
+        return true;
+    }
 
-                int bacteria = gen[i][j];
-                int neighbours = checkNeighbours(gen, i, j);
-
-                // Apply rules
-                if (bacteria == 0 && neighbours == 3) {
-                    newGen[i][j] = 1; // Nacimiento
-                } else if (bacteria == 1 && (neighbours == 0 || neighbours == 1)) {
-                    newGen[i][j] = 0; // Muerte por soledad
-                } else if (bacteria == 1 && neighbours > 3) {
-                    newGen[i][j] = 0; // Muerte por asfixia
-                } else {
-                    newGen[i][j] = bacteria; // Nothing changes, supervivencia
-                }
+    private void stepped(StepEvent event, long nanos, long allocated) {
+        if (listener != null) {
+            listener.stepped(round, nanos, population, stats.getBirths(), stats.getDeaths(), allocated);
+        }
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.round = round;
+                event.population = population;
+                event.births = stats.getBirths();
+                event.deaths = stats.getDeaths();
+                event.allocated = allocated;
+                event.commit();
             }
         }
+    }
 
-        // In BacteriaLifeLogic
-        if (round > MAX_ROUNDS) {
-            System.out.println("Can't get a stable gen.");
-            return gen;
+    // Reported as an event, not printed: headless output stays machine readable
+    private void roundLimitReached() {
+        if (listener != null) {
+            listener.roundLimitReached(maxRounds, population);
+        }
+        if (RoundLimitEvent.TYPE.isEnabled()) {
+            RoundLimitEvent event = new RoundLimitEvent();
+            if (event.shouldCommit()) {
+                event.maxRounds = maxRounds;
+                event.population = population;
+                event.commit();
+            }
         }
+    }
 
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) threads;
+            if (counter.isThreadAllocatedMemorySupported() && counter.isThreadAllocatedMemoryEnabled()) {
+                return counter;
+            }
+        }
+        return null;
+    }
 
-        return newGen;
+    // Bytes allocated so far by the calling thread, -1 if unknown
+    private static long allocatedBytes() {
+        return ALLOCATION != null ? ALLOCATION.getCurrentThreadAllocatedBytes() : -1;
+    }
+
+    private void record() {
+        try {
+            recorder.record(current, recorderFollows ? stats : null);
+            recorderFollows = true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't record generation " + round, e);
+        }
+    }
+
+    // Look the new hash up in the recent history. A hit is only trusted after stepping
+    // a copy of the gen that many rounds and finding the same cells again
+    private void detectCycle() {
+        if (!stats.hasChanged()) {
+            cyclePeriod = 1;
+            cycleStart = round - 1;
+        } else if (cyclePeriod == 0) {
+            int seen = history.findRound(hash);
+            if (seen >= 0 && repeatsAfter(round - seen)) {
+                cyclePeriod = round - seen;
+                cycleStart = seen;
+            }
+        }
+        history.record(hash, round);
+    }
+
+    private boolean repeatsAfter(int period) {
+        probe.copyFrom(current);
+        for (int i = 0; i < period; i++) {
+            probeStats.reset();
+            if (boundary == Boundary.TORUS) {
+                probe.wrapHalo();
+            }
+            BitGrid.step(probe, probeNext, rule, probeStats);
+            probe.clearHalo();
+            BitGrid swap = probe;
+            probe = probeNext;
+            probeNext = swap;
+        }
+        return probe.sameCells(current);
+    }
+
+    // Snapshot of the run: the cells are copied, so stepping can go on while it is written
+    public Checkpoint checkpoint() {
+        long[] words = new long[current.getRows() * current.getWords()];
+        current.exportWords(words);
+        long[] hashes = new long[history.size()];
+        int[] rounds = new int[hashes.length];
+        history.export(hashes, rounds);
+        return new Checkpoint(current.getRows(), current.getCols(), round, maxRounds, rule, boundary, seed, density,
+                cyclePeriod, cycleStart, hashes, rounds, words);
+    }
+
+    // Go on exactly where the checkpoint was taken: same cells, round, limit, rule, boundary and
+    // cycle history, so the following steps give what the original run would have given
+    public void resume(Checkpoint checkpoint) {
+        rule = checkpoint.getRule();
+        setBoundary(checkpoint.getBoundary());
+        maxRounds = checkpoint.getMaxRounds();
+        resize(checkpoint.getRows(), checkpoint.getCols());
+        checkpoint.loadInto(current);
+        round = checkpoint.getRound();
+        tiles.markAllDirty();
+        stats.reset();
+        population = current.population();
+        hash = current.hash();
+        history.clear();
+        long[] hashes = checkpoint.getHistoryHashes();
+        int[] rounds = checkpoint.getHistoryRounds();
+        for (int i = 0; i < hashes.length; i++) {
+            history.record(hashes[i], rounds[i]);
+        }
+        cyclePeriod = checkpoint.getCyclePeriod();
+        cycleStart = checkpoint.getCycleStart();
+        seed = checkpoint.getSeed();
+        density = checkpoint.getDensity();
+        exported = null;
+        limitReported = false;
+        recorderFollows = false;
+        if (rewind != null) {
+            rewind.record(round, current);
+        }
+    }
+
+    // Copy the loaded generation into an existing int[][]
+    public void exportGen(int[][] gen) {
+        current.exportTo(gen);
+    }
+
+    // Current generation in bit-packed form (owned by the logic, valid until the next step)
+    public BitGrid getCurrentGrid() {
+        return current;
+    }
+
+    // Reference stepper, one cell at a time. Kept to check the bit-packed engine against it
+    public static int[][] stepReference(int[][] gen) {
+        return stepReference(gen, Rule.CONWAY);
+    }
 
+    // Same under any rule. The 3x3 neighbourhood of each cell is kept as 9 bits while walking the
+    // row and looked up in the rule table, so there is no branch on the cell values
+    public static int[][] stepReference(int[][] gen, Rule rule) {
+        return stepReference(gen, rule, Boundary.DEAD);
     }
 
+    // Same with the given edges. The gen is copied into a grid with a ring of ghost cells (dead, or
+    // the opposite edge on a torus), so the walk itself never checks bounds
+    public static int[][] stepReference(int[][] gen, Rule rule, Boundary boundary) {
+        int rows = gen.length;
+        int cols = gen[0].length;
+        int[][] padded = new int[rows + 2][cols + 2];
+        for (int i = 0; i < rows; i++) {
+            System.arraycopy(gen[i], 0, padded[i + 1], 1, cols);
+            if (boundary == Boundary.TORUS) {
+                padded[i + 1][0] = gen[i][cols - 1];
+                padded[i + 1][cols + 1] = gen[i][0];
+            }
+        }
+        if (boundary == Boundary.TORUS) {
+            padded[0] = padded[rows].clone();
+            padded[rows + 1] = padded[1].clone();
+        }
+
+        int[][] newGen = new int[rows][cols];
+        for (int i = 0; i < rows; i++) {
+            int[] above = padded[i];
+            int[] row = padded[i + 1];
+            int[] below = padded[i + 2];
+            // Column j-1 in bits 0/3/6, column j in 1/4/7, column j+1 in 2/5/8 (padded column j+2)
+            int window = (above[0] | row[0] << 3 | below[0] << 6) << 1
+                    | (above[1] | row[1] << 3 | below[1] << 6) << 2;
+            for (int j = 0; j < cols; j++) {
+                // Slide one column left, dropping column j-2
+                window = (window >>> 1) & 0b011011011;
+                window |= (above[j + 2] | row[j + 2] << 3 | below[j + 2] << 6) << 2;
+                newGen[i][j] = rule.next(window);
+            }
+        }
+        return newGen;
+    }
 
     // Count the neighbours
     public static int checkNeighbours(int[][] gen, int row, int col) {
@@ -94,10 +463,161 @@ public class BacteriaLifeLogic {
                 col >= 0 && col < gen[0].length;
     }
 
+    // Play under another rule from the next step on. The old cycle history no longer applies
+    public void setRule(Rule rule) {
+        this.rule = rule;
+        history.clear();
+        cyclePeriod = 0;
+        cycleStart = -1;
+        if (tiles != null) {
+            tiles.markAllDirty();
+        }
+    }
+
+    public Rule getRule() {
+        return rule;
+    }
+
+    // Dead edges or a torus from the next step on. Cells near the edges now see other neighbours,
+    // so everything is recomputed and the cycle history starts again
+    public void setBoundary(Boundary boundary) {
+        this.boundary = boundary;
+        history.clear();
+        cyclePeriod = 0;
+        cycleStart = -1;
+        if (tiles != null) {
+            tiles.setWrapped(boundary == Boundary.TORUS);
+            tiles.markAllDirty();
+        }
+    }
+
+    public Boundary getBoundary() {
+        return boundary;
+    }
+
+    // Stream the loaded gen and every following one to a history file, null stops recording.
+    // The caller closes the recorder
+    public void setRecorder(GenerationRecorder recorder) {
+        this.recorder = recorder;
+        recorderFollows = false;
+    }
+
+    public GenerationRecorder getRecorder() {
+        return recorder;
+    }
+
+    // Submit a checkpoint to the writer every interval rounds, null stops. The caller closes the writer
+    public void setCheckpointWriter(CheckpointWriter writer, int interval) {
+        if (writer != null && interval <= 0) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive: " + interval);
+        }
+        this.checkpoints = writer;
+        this.checkpointInterval = interval;
+    }
+
+    public CheckpointWriter getCheckpointWriter() {
+        return checkpoints;
+    }
+
+    // Keep the loaded gen and every following one in the buffer, null stops. Grids of another size
+    // than the buffer's are rejected when recorded
+    public void setRewindBuffer(RewindBuffer rewind) {
+        this.rewind = rewind;
+    }
+
+    public RewindBuffer getRewindBuffer() {
+        return rewind;
+    }
+
+    // Publish the births and deaths of every step, null stops. The caller closes the publisher
+    public void setDeltaPublisher(DeltaPublisher deltas) {
+        this.deltas = deltas;
+    }
+
+    public DeltaPublisher getDeltaPublisher() {
+        return deltas;
+    }
+
+    // Per-step numbers (latency, births, deaths, allocation) for the listener, null turns it off.
+    // StepMetrics keeps a summary. The same numbers go to JFR as bacteria.Step events when recorded
+    public void setStepListener(StepListener listener) {
+        this.listener = listener;
+    }
+
+    public StepListener getStepListener() {
+        return listener;
+    }
+
+    // Select parallel stepping for this instance (null goes back to sequential)
+    public void setParallelStepper(ParallelStepper parallel) {
+        this.parallel = parallel;
+    }
+
+    public ParallelStepper getParallelStepper() {
+        return parallel;
+    }
+
+    // Generation limit, MAX_ROUNDS unless changed
+    public void setMaxRounds(int maxRounds) {
+        this.maxRounds = maxRounds;
+        limitReported = false;
+    }
+
+    public int getMaxRounds() {
+        return maxRounds;
+    }
+
+    public int getDimension() {
+        return DIMENSION;
+    }
+
     public int getRound() {
         return round;
     }
 
+    // Stable if the last step didn't change any cell. Known when the step ends, no comparison pass
+    public boolean isStable() {
+        return !stats.hasChanged();
+    }
+
+    // Live cells in the current gen
+    public long getPopulation() {
+        return population;
+    }
+
+    // Tiles recomputed in the last step, out of getTileCount()
+    public int getActiveTiles() {
+        return tiles.getActiveTiles();
+    }
+
+    public int getTileCount() {
+        return tiles.getTileCount();
+    }
+
+    // Births, deaths and changed cells of the last step
+    public StepStats getStepStats() {
+        return stats;
+    }
+
+    // An oscillator (or still life, period 1) was found, the run can end here
+    public boolean isCycling() {
+        return cyclePeriod > 0;
+    }
+
+    public int getCyclePeriod() {
+        return cyclePeriod;
+    }
+
+    // Round of the first gen of the cycle, -1 if none was found
+    public int getCycleStart() {
+        return cycleStart;
+    }
+
+    // Zobrist hash of the current gen
+    public long getGenHash() {
+        return hash;
+    }
+
     // Check if the gen hasn't changed (if it's stable)
     public static boolean checkStableGen(int[][] oldGen, int[][] newGen) {
         return Arrays.deepEquals(oldGen, newGen);
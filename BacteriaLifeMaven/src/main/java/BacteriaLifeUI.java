@@ -1,6 +1,6 @@
 import javax.swing.*;
 import java.awt.*;
-import java.util.Arrays;
+import java.util.SplittableRandom;
 
 public class BacteriaLifeUI {
     // Constants
@@ -8,90 +8,44 @@ public class BacteriaLifeUI {
     private static final int BACTERIA_SIZE = 10;
     private static final Color BG_COLOR = new Color(141, 69, 220);
     private static final int DIMENSION = 30;
-    private final JPanel genPanel;
+    private static final int BACTERIA_GAP = 3;
+    // Larger grids are shown in a pan and zoom viewport instead of one fixed image of the whole grid
+    public static final int MAX_CANVAS_DIMENSION = 100;
+    private final int dimension;
+    private final GridCanvas gridCanvas;       // Null on large grids
+    private final GridViewport gridViewport;   // Null on small grids
     // Components promoted for testing
     private JFrame frame;
     private JButton startButton;
+    private JButton backButton;
+    private JSlider rewindSlider;
     private JLabel roundLabel;
-    private Timer timer; // Reference to timer to stop it if needed
-    // Current active gen
+    private JLabel rateLabel;
+    private Timer timer; // Render timer, only draws the frames the simulation thread publishes
+    private SimulationRunner runner; // Computes generations off the EDT, created by the start button
+    // Recording being played, see startReplay
+    private GenerationReplay replay;
+    private BitGrid replayGrid;
+    private long replayGeneration;
+    // Checkpoint the start button goes on from, see resume
+    private Checkpoint resumeFrom;
+    // Recent generations of the run, scrubbed through while paused or done. Null on large grids
+    private final RewindBuffer rewind;
+    private final BitGrid rewindGrid;
+    // Gen currently on screen (bacteriaGrid instead on large grids)
     private int[][] bacteriaGen;
+    private BitGrid bacteriaGrid;
 
-    // Circle class for rounded objects (bacteria)
-    static class Circle extends JButton {
-        private Color color;
-        private final int diameter;
-
-        public Circle(Color color) {
-            this.color = color;
-            this.diameter = BACTERIA_SIZE;
-            setContentAreaFilled(false);
-            setBorderPainted(false);
-            setFocusPainted(false);
-            setOpaque(false);
-            setEnabled(false);
-        }
-
-        @Override
-        protected void paintComponent(Graphics g) {
-            g.setColor(color);
-            g.fillOval(0, 0, diameter, diameter); // use diameter instead of getWidth()/getHeight() if you want consistent circles
-            super.paintComponent(g);
-        }
-
-        @Override
-        public Dimension getPreferredSize() {
-            return new Dimension(diameter, diameter);
-        }
-
-        public void setCircleColor(Color c) {
-            this.color = c;
-            repaint();
-        }
-
-        public Color getColor() {
-            return color;
-        }
-    }
-
-    // Generate a generation
-    private JPanel generateGen() {
-        JPanel gen = new JPanel();
-        gen.setLayout(new GridLayout(DIMENSION, DIMENSION, 3, 3));
-        gen.setBorder(BorderFactory.createEmptyBorder(30, 30, 30, 30));
-        gen.setBackground(BG_COLOR);
-        // Row
-        for (int i = 0; i < DIMENSION; i++) {
-            // Column
-            for (int j = 0; j < DIMENSION; j++) {
-                Color color = Color.WHITE;
-                if (bacteriaGen[i][j] == 1) {
-                    color = Color.BLACK;
-                }
-                Circle bacteria = new Circle(color);
-                gen.add(bacteria);
-            }
-        }
-        return gen;
-    }
-
-    // Refresh the grid after generating a new round
+    // Refresh the grid after generating a new round, only the changed cells are redrawn
     private void refreshGenPanel() {
-        genPanel.removeAll();
-        genPanel.setLayout(new GridLayout(DIMENSION, DIMENSION, 3, 3));
-
-        for (int i = 0; i < DIMENSION; i++) {
-            for (int j = 0; j < DIMENSION; j++) {
-                Color color = (bacteriaGen[i][j] == 1) ? Color.BLACK : Color.WHITE;
-                genPanel.add(new Circle(color));
-            }
+        if (gridViewport != null) {
+            gridViewport.setGrid(bacteriaGrid);
+        } else {
+            gridCanvas.setGen(bacteriaGen);
         }
-
-        genPanel.revalidate(); // To avoid bugs
-        genPanel.repaint();
     }
 
-    // A bottom panel with a round label and a start button
+    // A bottom panel with a round label, the generation rates and a start button
     private JPanel bottomPanel() {
         JPanel bottomPanel = new JPanel(new BorderLayout());
         bottomPanel.setBackground(BG_COLOR);
@@ -99,62 +53,230 @@ public class BacteriaLifeUI {
         this.roundLabel = new JLabel();
         roundLabel.setText("Round: " + LOGIC.getRound());
 
-        this.startButton = getStartButton(roundLabel);
+        this.rateLabel = new JLabel();
+        rateLabel.setHorizontalAlignment(SwingConstants.CENTER);
+        updateRateLabel(SimulationRunner.DEFAULT_TARGET_RATE, 0);
+
+        this.startButton = createStartButton();
 
-        startButton.setPreferredSize(new Dimension(70, 50));
+        startButton.setPreferredSize(new Dimension(90, 50));
         startButton.setBackground(Color.WHITE);
         startButton.setContentAreaFilled(true);
         startButton.setBorderPainted(false);
         startButton.setFocusPainted(false);
 
+        bottomPanel.add(rewindPanel(), BorderLayout.NORTH);
         bottomPanel.add(roundLabel, BorderLayout.WEST);   // Left side
+        bottomPanel.add(rateLabel, BorderLayout.CENTER);
         bottomPanel.add(startButton, BorderLayout.EAST);  // Right side
 
         return bottomPanel;
     }
-    // Extracted logic for testing. This represents ONE tick of the timer.
-    void performEvolutionStep() {
-        int[][] oldGen = deepCopy(bacteriaGen);
-        int[][] newGen = LOGIC.generateNewGen(oldGen);
 
-        if (BacteriaLifeLogic.checkStableGen(oldGen, newGen)) {
+    // A back button and a slider over the rewind window, only enabled while the run is paused or done
+    private JPanel rewindPanel() {
+        JPanel rewindPanel = new JPanel(new BorderLayout());
+        rewindPanel.setBackground(BG_COLOR);
+
+        this.rewindSlider = new JSlider(0, 0, 0);
+        rewindSlider.setBackground(BG_COLOR);
+        rewindSlider.setEnabled(false);
+        rewindSlider.addChangeListener(e -> {
+            if (rewindSlider.isEnabled()) rewindTo(rewindSlider.getValue());
+        });
+
+        this.backButton = new JButton("Back");
+        backButton.setEnabled(false);
+        backButton.addActionListener(e -> rewindSlider.setValue(rewindSlider.getValue() - 1));
+
+        rewindPanel.add(backButton, BorderLayout.WEST);
+        rewindPanel.add(rewindSlider, BorderLayout.CENTER);
+        return rewindPanel;
+    }
+
+    // Let the slider scrub through what the buffer holds now, starting at the newest generation
+    private void enableRewind() {
+        if (rewind == null || rewind.isEmpty()) return;
+        rewindSlider.setEnabled(false); // No rewindTo while the range changes
+        rewindSlider.setMinimum(rewind.getFirstRound());
+        rewindSlider.setMaximum(rewind.getLastRound());
+        rewindSlider.setValue(rewind.getLastRound());
+        rewindSlider.setEnabled(true);
+        backButton.setEnabled(true);
+    }
+
+    private void disableRewind() {
+        rewindSlider.setEnabled(false);
+        backButton.setEnabled(false);
+    }
+
+    // Show a generation of the rewind window. False if it is not there (any more)
+    boolean rewindTo(int round) {
+        if (rewind == null || !rewind.contains(round)) return false;
+        rewind.read(round, rewindGrid);
+        if (bacteriaGrid != null) {
+            bacteriaGrid.copyFrom(rewindGrid);
+        } else {
+            rewindGrid.exportTo(bacteriaGen);
+        }
+        refreshGenPanel();
+        roundLabel.setText("Round: " + round + " (rewind)");
+        return true;
+    }
+
+    private void updateRateLabel(double target, double achieved) {
+        rateLabel.setText(String.format("Target: %.0f gen/s  Actual: %.1f gen/s", target, achieved));
+    }
+
+    // Extracted logic for testing. This represents ONE tick of the render timer:
+    // draw the latest frame, the ones published in between are skipped.
+    // After a pause the step in flight may still publish: its frame is drawn, and the rewind controls
+    // only take over once the runner has parked, so the window includes that round
+    void renderLatestFrame() {
+        if (runner == null) return;
+        updateRateLabel(runner.getTargetRate(), runner.getAchievedRate());
+        // Read before polling: once parked, the last frame of the run is already published
+        boolean settled = runner.isPaused() && (runner.isParked() || !runner.isRunning());
+        SimulationRunner.Frame latest = runner.poll();
+        if (latest != null) {
+            // While scrubbing nothing replaces the generation on screen
+            if (!rewindSlider.isEnabled()) showFrame(latest);
+            runner.release(latest);
+            // Stable, cycling or out of rounds: nothing else will come
+            if (latest.isFinished()) {
+                if (timer != null) timer.stop();
+                startButton.setText("Done");
+                startButton.setEnabled(false);
+                if (!rewindSlider.isEnabled()) enableRewind();
+                return;
+            }
+        }
+        if (settled && !rewindSlider.isEnabled()) enableRewind();
+    }
+
+    // Copy the frame, it goes back to the simulation thread once drawn
+    private void showFrame(SimulationRunner.Frame latest) {
+        if (latest.getGrid() != null && bacteriaGrid != null) {
+            bacteriaGrid.copyFrom(latest.getGrid());
+        } else if (latest.getGrid() != null) {
+            // A resumed run on the small window
+            latest.getGrid().exportTo(bacteriaGen);
+        } else {
+            int[][] gen = latest.getGen();
+            for (int i = 0; i < gen.length; i++) {
+                System.arraycopy(gen[i], 0, bacteriaGen[i], 0, gen[i].length);
+            }
+        }
+        refreshGenPanel();
+        roundLabel.setText("Round: " + latest.getRound());
+    }
+
+    // Show a checkpoint; the start button then goes on with that run instead of a new one
+    void resume(Checkpoint checkpoint) {
+        if (checkpoint.getRows() != dimension || checkpoint.getCols() != dimension) {
+            throw new IllegalArgumentException("Checkpoint is " + checkpoint.getRows() + "x" + checkpoint.getCols()
+                    + ", the window shows " + dimension + "x" + dimension);
+        }
+        if (runner != null) {
+            throw new IllegalStateException("The simulation already started");
+        }
+        this.resumeFrom = checkpoint;
+        BitGrid grid = checkpoint.toBitGrid();
+        if (bacteriaGrid != null) {
+            bacteriaGrid.copyFrom(grid);
+        } else {
+            grid.exportTo(bacteriaGen);
+        }
+        refreshGenPanel();
+        roundLabel.setText("Round: " + checkpoint.getRound());
+    }
+
+    // Play a recorded run instead of simulating, one generation per tick like the old timer
+    void startReplay(GenerationReplay replay) {
+        if (replay.getRows() != dimension || replay.getCols() != dimension) {
+            throw new IllegalArgumentException("Recording is " + replay.getRows() + "x" + replay.getCols()
+                    + ", the window shows " + dimension + "x" + dimension);
+        }
+        if (runner != null) runner.stop();
+        if (timer != null) timer.stop();
+        startButton.setText("Replay");
+        startButton.setEnabled(false);
+
+        this.replay = replay;
+        this.replayGrid = new BitGrid(dimension, dimension);
+        this.replayGeneration = 0;
+        this.timer = new Timer(100, ev -> showReplayStep());
+        timer.start();
+    }
+
+    // Extracted logic for testing. One tick of the replay timer
+    void showReplayStep() {
+        if (replayGeneration >= replay.getGenerationCount()) {
             if (timer != null) timer.stop();
+            startButton.setText("Done");
             return;
         }
-
-        // Move forward
-        bacteriaGen = newGen;
+        replay.read(replayGeneration, replayGrid);
+        if (bacteriaGrid != null) {
+            bacteriaGrid.copyFrom(replayGrid);
+        } else {
+            replayGrid.exportTo(bacteriaGen);
+        }
         refreshGenPanel();
-        roundLabel.setText("Round: " + LOGIC.getRound());
+        roundLabel.setText("Round: " + replayGeneration);
+        replayGeneration++;
     }
-    // Start button
-    private JButton getStartButton(JLabel roundLabel) {
+
+    // Start button, then pause / resume. None of them waits for the simulation thread
+    private JButton createStartButton() {
         JButton startButton = new JButton("Start");
 
         startButton.addActionListener(e -> {
-            // If timer is already running, do nothing (or restart, depending on reqs)
-            if (timer != null && timer.isRunning()) return;
-
-            this.timer = new Timer(100, ev -> performEvolutionStep());
-            timer.start();
+            if (runner == null) {
+                if (resumeFrom != null) {
+                    runner = new SimulationRunner(LOGIC, resumeFrom);
+                } else if (bacteriaGrid != null) {
+                    runner = new SimulationRunner(LOGIC, bacteriaGrid);
+                } else {
+                    runner = new SimulationRunner(LOGIC, bacteriaGen);
+                }
+                runner.start();
+                this.timer = new Timer(16, ev -> renderLatestFrame());
+                timer.start();
+                startButton.setText("Pause");
+            } else if (runner.isPaused()) {
+                // Live frames take over the screen again
+                disableRewind();
+                runner.resume();
+                startButton.setText("Pause");
+            } else {
+                // The render timer enables the rewind controls once the runner has parked
+                runner.pause();
+                startButton.setText("Resume");
+            }
         });
         return startButton;
     }
 
-    // To copy the gen
-    private int[][] deepCopy(int[][] bacteriaGen) {
-        if (bacteriaGen == null) return null;
-        int[][] copy = new int[bacteriaGen.length][];
-        for (int i = 0; i < bacteriaGen.length; i++) {
-            copy[i] = Arrays.copyOf(bacteriaGen[i], bacteriaGen[i].length);
-        }
-        return copy;
-    }
-
     // Main
     public BacteriaLifeUI(BacteriaLifeLogic logic) {
+        this(logic, DIMENSION);
+    }
+
+    // The logic must have been created with the same dimension
+    public BacteriaLifeUI(BacteriaLifeLogic logic, int dimension) {
         this.LOGIC = logic;
-        this.bacteriaGen = LOGIC.generateInitialGen();
+        this.dimension = dimension;
+        // Only the small window records the run: a keyframe copies the whole grid, and past the canvas
+        // size that is megabytes every few generations
+        if (dimension <= MAX_CANVAS_DIMENSION) {
+            this.rewind = new RewindBuffer(dimension, dimension);
+            this.rewindGrid = new BitGrid(dimension, dimension);
+            LOGIC.setRewindBuffer(rewind);
+        } else {
+            this.rewind = null;
+            this.rewindGrid = null;
+        }
 
         // Main frame
         this.frame = new JFrame("BacteriaLife");
@@ -162,19 +284,40 @@ public class BacteriaLifeUI {
         frame.setLayout(new BorderLayout());
 
         // Add the gen
-        this.genPanel = generateGen();
-        frame.add(genPanel, BorderLayout.CENTER);
+        if (dimension > MAX_CANVAS_DIMENSION) {
+            this.bacteriaGrid = LOGIC.generateInitialGrid(new SplittableRandom().nextLong(), 0.5);
+            this.gridCanvas = null;
+            this.gridViewport = new GridViewport(dimension, dimension, BG_COLOR);
+            gridViewport.setGrid(bacteriaGrid);
+            frame.add(gridViewport, BorderLayout.CENTER);
+        } else {
+            this.bacteriaGen = LOGIC.generateInitialGen();
+            this.gridViewport = null;
+            this.gridCanvas = new GridCanvas(dimension, dimension, BACTERIA_SIZE, BACTERIA_GAP, BG_COLOR);
+            gridCanvas.setBorder(BorderFactory.createEmptyBorder(30, 30, 30, 30));
+            gridCanvas.setGen(bacteriaGen);
+            frame.add(gridCanvas, BorderLayout.CENTER);
+        }
 
         // Add the bottom label
         frame.add(bottomPanel(), BorderLayout.SOUTH);
 
         frame.pack();
         frame.setVisible(true);
+        if (gridViewport != null) {
+            gridViewport.zoomToFit();
+        }
     }
     // --- Getters for Testing ---
     public JFrame getFrame() { return frame; }
     public JButton getStartButton() { return startButton; }
+    public JButton getBackButton() { return backButton; }
+    public JSlider getRewindSlider() { return rewindSlider; }
+    public RewindBuffer getRewindBuffer() { return rewind; }
     public JLabel getRoundLabel() { return roundLabel; }
-    public JPanel getGenPanel() { return genPanel; }
+    public JLabel getRateLabel() { return rateLabel; }
+    public SimulationRunner getRunner() { return runner; }
+    public GridCanvas getGridCanvas() { return gridCanvas; }
+    public GridViewport getGridViewport() { return gridViewport; }
     public int[][] getBacteriaGen() { return bacteriaGen; }
 }
@@ -0,0 +1,421 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// Bit-packed generation: each row is stored as long words, one bit per cell (bit j of word w = column w*64 + j).
+// The grid is padded with a guard row above and below and a guard word on each side of every row,
+// so the step can read all eight neighbours of any cell without bounds checks. The guards are dead,
+// unless wrapHalo filled them with the opposite edges for a torus step.
+public class BitGrid {
+    private final int rows;
+    private final int cols;
+    private final int words;  // Words per row
+    private final int stride; // Words per padded row (words + 2 guards)
+    private final long lastMask; // Valid bits of the last word of each row
+    private final long[] cells;
+
+    public BitGrid(int rows, int cols) {
+        if (rows <= 0 || cols <= 0) {
+            throw new IllegalArgumentException("Grid dimensions must be positive: " + rows + "x" + cols);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.words = (cols + 63) >>> 6;
+        this.stride = words + 2;
+        int tail = cols & 63;
+        this.lastMask = tail == 0 ? -1L : (1L << tail) - 1;
+        this.cells = new long[(rows + 2) * stride];
+    }
+
+    // Build a bit grid from the int[][] generation format (1 = alive)
+    public static BitGrid fromGen(int[][] gen) {
+        BitGrid grid = new BitGrid(gen.length, gen[0].length);
+        grid.load(gen);
+        return grid;
+    }
+
+    // Overwrite this grid with an int[][] generation of the same size
+    public void load(int[][] gen) {
+        for (int i = 0; i < rows; i++) {
+            int[] row = gen[i];
+            int base = index(i, 0);
+            for (int w = 0; w < words; w++) {
+                long word = 0;
+                int from = w << 6;
+                int to = Math.min(from + 64, cols);
+                for (int j = from; j < to; j++) {
+                    if (row[j] == 1) {
+                        word |= 1L << (j - from);
+                    }
+                }
+                cells[base + w] = word;
+            }
+        }
+    }
+
+    // Fill with random cells, each alive with probability density (in steps of 1/65536).
+    // Every row has its own SplittableRandom seeded from (seed, row), so rows can be filled in any
+    // order on any number of threads (ParallelStepper.fillRandom) and a seed always gives the same grid
+    public void fillRandom(long seed, double density) {
+        fillRandom(seed, density, 0, rows);
+    }
+
+    // Rows [rowFrom, rowTo) only
+    public void fillRandom(long seed, double density, int rowFrom, int rowTo) {
+        int threshold = densityThreshold(density);
+        for (int i = rowFrom; i < rowTo; i++) {
+            fillRandomRow(i, i, seed, threshold);
+        }
+    }
+
+    // Fill this grid as the rows from firstRow on of a larger grid filled with fillRandom(seed, density)
+    public void fillRandomBand(long seed, double density, int firstRow) {
+        int threshold = densityThreshold(density);
+        for (int i = 0; i < rows; i++) {
+            fillRandomRow(i, firstRow + i, seed, threshold);
+        }
+    }
+
+    static final int DENSITY_STEPS = 1 << 16;
+
+    // Density as a 16 bit fixed point probability
+    static int densityThreshold(double density) {
+        if (!(density >= 0 && density <= 1)) {
+            throw new IllegalArgumentException("Density must be between 0 and 1: " + density);
+        }
+        return (int) Math.round(density * DENSITY_STEPS);
+    }
+
+    // Row of this grid, drawn from the stream of row seedRow
+    private void fillRandomRow(int row, int seedRow, long seed, int threshold) {
+        SplittableRandom random = new SplittableRandom(seed ^ CycleDetector.zobrist(seedRow));
+        int base = index(row, 0);
+        for (int w = 0; w < words; w++) {
+            cells[base + w] = randomWord(random, threshold);
+        }
+        cells[base + words - 1] &= lastMask;
+    }
+
+    // 64 cells at once, each set with probability threshold / 65536. Reads the binary digits of the
+    // probability from the lowest one up: a 1 digit ORs a fresh random word in, a 0 digit ANDs it,
+    // which halves the probability and adds 1/2 or not. 0.5 takes a single nextLong
+    static long randomWord(SplittableRandom random, int threshold) {
+        if (threshold <= 0) {
+            return 0;
+        }
+        if (threshold >= DENSITY_STEPS) {
+            return -1L;
+        }
+        int digit = Integer.numberOfTrailingZeros(threshold);
+        long word = random.nextLong();
+        for (digit++; digit < 16; digit++) {
+            word = (threshold >>> digit & 1) != 0 ? word | random.nextLong() : word & random.nextLong();
+        }
+        return word;
+    }
+
+    // Write this grid into an existing int[][] of the same size
+    public void exportTo(int[][] gen) {
+        for (int i = 0; i < rows; i++) {
+            int[] row = gen[i];
+            int base = index(i, 0);
+            for (int j = 0; j < cols; j++) {
+                row[j] = (int) (cells[base + (j >>> 6)] >>> j) & 1;
+            }
+        }
+    }
+
+    public int[][] toGen() {
+        int[][] gen = new int[rows][cols];
+        exportTo(gen);
+        return gen;
+    }
+
+    // Copy the cells into dst row after row, getWords() words per row and no guards
+    public void exportWords(long[] dst) {
+        for (int i = 0; i < rows; i++) {
+            System.arraycopy(cells, index(i, 0), dst, i * words, words);
+        }
+    }
+
+    // Inverse of exportWords. Bits past the last column are ignored
+    public void loadWords(long[] src) {
+        for (int i = 0; i < rows; i++) {
+            int base = index(i, 0);
+            System.arraycopy(src, i * words, cells, base, words);
+            cells[base + words - 1] &= lastMask;
+        }
+    }
+
+    // Copy the live cells of another grid with the same dimensions
+    public void copyFrom(BitGrid other) {
+        checkSameShape(other);
+        System.arraycopy(other.cells, 0, cells, 0, cells.length);
+    }
+
+    // Compute the next generation (B3/S23) of src into dst, 64 cells at a time
+    public static void step(BitGrid src, BitGrid dst) {
+        step(src, dst, 0, src.rows, Rule.CONWAY, new StepStats());
+    }
+
+    // Same, adding births and deaths of the new generation to stats
+    public static void step(BitGrid src, BitGrid dst, StepStats stats) {
+        step(src, dst, 0, src.rows, Rule.CONWAY, stats);
+    }
+
+    // Same under any life-like rule
+    public static void step(BitGrid src, BitGrid dst, Rule rule, StepStats stats) {
+        step(src, dst, 0, src.rows, rule, stats);
+    }
+
+    // Step only rows [rowFrom, rowTo). Bands never write outside their rows, so they can run in parallel
+    public static void step(BitGrid src, BitGrid dst, int rowFrom, int rowTo, StepStats stats) {
+        step(src, dst, rowFrom, rowTo, Rule.CONWAY, stats);
+    }
+
+    public static void step(BitGrid src, BitGrid dst, int rowFrom, int rowTo, Rule rule, StepStats stats) {
+        src.checkSameShape(dst);
+        stepBlock(src, dst, rowFrom, rowTo, 0, src.words, rule, stats);
+    }
+
+    // Step the block of rows [rowFrom, rowTo) and words [wordFrom, wordTo). Returns true if any cell changed
+    static boolean stepBlock(BitGrid src, BitGrid dst, int rowFrom, int rowTo, int wordFrom, int wordTo,
+                             Rule rule, StepStats stats) {
+        src.checkSameShape(dst);
+        long changed = 0;
+        if (VectorSupport.isEnabledFor(wordTo - wordFrom)) {
+            for (int i = rowFrom; i < rowTo; i++) {
+                changed |= VectorStepper.stepRow(src, dst, i, wordFrom, wordTo, rule, stats);
+            }
+        } else {
+            for (int i = rowFrom; i < rowTo; i++) {
+                changed |= stepRow(src, dst, i, wordFrom, wordTo, rule, stats);
+            }
+        }
+        return changed != 0;
+    }
+
+    // Words [wordFrom, wordTo) of one row. Neighbour counts are summed as bit planes with full adders:
+    // the row above and below contribute 0..3 each, the own row 0..2 (west and east).
+    // Returns the OR of the changed bits
+    static long stepRow(BitGrid src, BitGrid dst, int row, int wordFrom, int wordTo, Rule rule,
+                        StepStats stats) {
+        long[] in = src.cells;
+        long[] out = dst.cells;
+        int stride = src.stride;
+        int base = src.index(row, 0);
+        int last = src.words - 1;
+        long firstCell = (long) row * src.cols;
+        long changed = 0;
+        for (int w = wordFrom; w < wordTo; w++) {
+            int i = base + w;
+            int up = i - stride;
+            int down = i + stride;
+
+            long n = in[up];
+            long nw = (n << 1) | (in[up - 1] >>> 63);
+            long ne = (n >>> 1) | (in[up + 1] << 63);
+            long alive = in[i];
+            long west = (alive << 1) | (in[i - 1] >>> 63);
+            long east = (alive >>> 1) | (in[i + 1] << 63);
+            long s = in[down];
+            long sw = (s << 1) | (in[down - 1] >>> 63);
+            long se = (s >>> 1) | (in[down + 1] << 63);
+
+            // Row above: 3 inputs -> 2 bits
+            long u0 = nw ^ n ^ ne;
+            long u1 = (nw & n) | (ne & (nw ^ n));
+            // Row below: 3 inputs -> 2 bits
+            long d0 = sw ^ s ^ se;
+            long d1 = (sw & s) | (se & (sw ^ s));
+            // Own row: 2 inputs -> 2 bits
+            long m0 = west ^ east;
+            long m1 = west & east;
+
+            // Above + below (0..6)
+            long s0 = u0 ^ d0;
+            long c0 = u0 & d0;
+            long s1 = u1 ^ d1 ^ c0;
+            long c1 = (u1 & d1) | (c0 & (u1 ^ d1));
+            // + own row (0..8) -> sum = r0 + 2*r1 + 4*r2 + 8*r3
+            long r0 = s0 ^ m0;
+            long k0 = s0 & m0;
+            long r1 = s1 ^ m1 ^ k0;
+            long k1 = (s1 & m1) | (k0 & (s1 ^ m1));
+            long r2 = c1 ^ k1;
+            long r3 = c1 & k1;
+
+            long next = rule.next(alive, r0, r1, r2, r3);
+            if (w == last) {
+                // Past the last column there may be a wrapped halo bit, it is not a cell
+                next &= src.lastMask;
+                alive &= src.lastMask;
+            }
+            out[i] = next;
+            changed |= alive ^ next;
+            stats.addWord(alive, next, firstCell + ((long) w << 6));
+        }
+        return changed;
+    }
+
+    // Torus halo: the left guard word gets the last column in its top bit, the bit after the last
+    // column gets the first one, and the guard rows become copies of the last and first rows (guards
+    // included, for the corners). The step then wraps around with no extra work. Only valid until
+    // clearHalo, which has to run before the grid is counted, compared or written to
+    public void wrapHalo() {
+        wrapColumns();
+        System.arraycopy(cells, index(rows - 1, -1), cells, index(-1, -1), stride);
+        System.arraycopy(cells, index(0, -1), cells, index(rows, -1), stride);
+    }
+
+    // Only the left and right wrap. A band of a larger torus gets its guard rows from its neighbours
+    public void wrapColumns() {
+        int tail = cols & 63;
+        for (int i = 0; i < rows; i++) {
+            int base = index(i, 0);
+            long first = cells[base] & 1;
+            long lastCol = (cells[base + ((cols - 1) >>> 6)] >>> (cols - 1)) & 1;
+            cells[base - 1] = lastCol << 63;
+            if (tail == 0) {
+                cells[base + words] = first;
+            } else {
+                cells[base + words - 1] |= first << tail;
+            }
+        }
+    }
+
+    // Dead guards again
+    public void clearHalo() {
+        Arrays.fill(cells, 0, stride, 0);
+        Arrays.fill(cells, index(rows, -1), cells.length, 0);
+        for (int i = 0; i < rows; i++) {
+            int base = index(i, 0);
+            cells[base - 1] = 0;
+            cells[base + words] = 0;
+            cells[base + words - 1] &= lastMask;
+        }
+    }
+
+    public boolean isAlive(int row, int col) {
+        return ((cells[index(row, col >>> 6)] >>> col) & 1) != 0;
+    }
+
+    public void setAlive(int row, int col, boolean alive) {
+        int i = index(row, col >>> 6);
+        long bit = 1L << col;
+        cells[i] = alive ? cells[i] | bit : cells[i] & ~bit;
+    }
+
+    public int population() {
+        int count = 0;
+        for (long word : cells) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    // Zobrist hash of the live cells, see CycleDetector. Steps keep it up to date incrementally
+    public long hash() {
+        return hash(0);
+    }
+
+    // Same, with the cells numbered from cellOffset on: the part of a larger grid's hash this band makes
+    long hash(long cellOffset) {
+        long hash = 0;
+        for (int i = 0; i < rows; i++) {
+            int base = index(i, 0);
+            for (int w = 0; w < words; w++) {
+                long word = cells[base + w];
+                long firstCell = cellOffset + (long) i * cols + ((long) w << 6);
+                while (word != 0) {
+                    hash ^= CycleDetector.zobrist(firstCell + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+        return hash;
+    }
+
+    // Live cells of one row in columns [colFrom, colTo)
+    int countRange(int row, int colFrom, int colTo) {
+        if (colFrom >= colTo) {
+            return 0;
+        }
+        int base = index(row, 0);
+        int first = colFrom >>> 6;
+        int last = (colTo - 1) >>> 6;
+        long startMask = -1L << colFrom;
+        long endMask = -1L >>> (63 - ((colTo - 1) & 63));
+        if (first == last) {
+            return Long.bitCount(cells[base + first] & startMask & endMask);
+        }
+        int count = Long.bitCount(cells[base + first] & startMask);
+        for (int w = first + 1; w < last; w++) {
+            count += Long.bitCount(cells[base + w]);
+        }
+        return count + Long.bitCount(cells[base + last] & endMask);
+    }
+
+    // True if any cell of the block differs from another grid of the same size
+    boolean differs(BitGrid other, int rowFrom, int rowTo, int wordFrom, int wordTo) {
+        for (int i = rowFrom; i < rowTo; i++) {
+            int base = index(i, 0);
+            for (int w = wordFrom; w < wordTo; w++) {
+                // The last word may hold a wrapped halo bit
+                long mask = w == words - 1 ? lastMask : -1L;
+                if (((cells[base + w] ^ other.cells[base + w]) & mask) != 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Same live cells as another grid
+    public boolean sameCells(BitGrid other) {
+        return other.rows == rows && other.cols == cols && Arrays.equals(cells, other.cells);
+    }
+
+    // Row -1..rows with its guard words, getStride() words. Rows -1 and rows are the guard rows,
+    // for a band of a larger grid whose neighbour rows live somewhere else (ClusterWorker)
+    void readPaddedRow(int row, long[] dst) {
+        System.arraycopy(cells, index(row, -1), dst, 0, stride);
+    }
+
+    void writePaddedRow(int row, long[] src) {
+        System.arraycopy(src, 0, cells, index(row, -1), stride);
+    }
+
+    // Number of words in a row
+    public int getWords() {
+        return words;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    // Padded array and its row length, for the SIMD step
+    long[] getCells() {
+        return cells;
+    }
+
+    int getStride() {
+        return stride;
+    }
+
+    // Position of word w of a row inside the padded array
+    int index(int row, int w) {
+        return (row + 1) * stride + w + 1;
+    }
+
+    private void checkSameShape(BitGrid other) {
+        if (other.rows != rows || other.cols != cols) {
+            throw new IllegalArgumentException("Grid size mismatch: " + rows + "x" + cols
+                    + " vs " + other.rows + "x" + other.cols);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+import java.util.Locale;
+
+// What lies past the edges of the grid
+public enum Boundary {
+    // Dead cells all around, the original game
+    DEAD,
+    // The grid wraps around: the left edge touches the right one and the top edge the bottom one
+    TORUS;
+
+    // "dead" or "torus", in any case
+    public static Boundary parse(String name) {
+        for (Boundary boundary : values()) {
+            if (boundary.name().equals(name.trim().toUpperCase(Locale.ROOT))) {
+                return boundary;
+            }
+        }
+        throw new IllegalArgumentException("Boundary must be dead or torus: " + name);
+    }
+
+    @Override
+    public String toString() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,213 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+// Everything BacteriaLifeLogic needs to go on with a run exactly as if it had never stopped: the
+// cells, the round and the limit, the rule and boundary, the recent hashes of the cycle detector
+// and the seed and density the run started from. Taken with BacteriaLifeLogic.checkpoint(), which
+// only copies, and written by CheckpointWriter on its own thread.
+//
+// Layout (big endian, as written by DataOutputStream):
+//   header   MAGIC, VERSION, rows, cols, round, maxRounds (ints), rule, boundary (UTF)
+//   start    seed long, density double (NaN when the run didn't start from a seed)
+//   cycle    cyclePeriod, cycleStart, history count (ints) + count * (hash long, round int), oldest first
+//   cells    rows * words longs, the BitGrid words without guards
+//   trailer  CRC32 of everything before it (int)
+public final class Checkpoint {
+    static final int MAGIC = 0x424C4350; // "BLCP"
+    static final int VERSION = 1;
+
+    private final int rows;
+    private final int cols;
+    private final int round;
+    private final int maxRounds;
+    private final Rule rule;
+    private final Boundary boundary;
+    private final long seed;
+    private final double density;
+    private final int cyclePeriod;
+    private final int cycleStart;
+    private final long[] historyHashes;
+    private final int[] historyRounds;
+    private final long[] words;
+
+    Checkpoint(int rows, int cols, int round, int maxRounds, Rule rule, Boundary boundary, long seed,
+               double density, int cyclePeriod, int cycleStart, long[] historyHashes, int[] historyRounds,
+               long[] words) {
+        this.rows = rows;
+        this.cols = cols;
+        this.round = round;
+        this.maxRounds = maxRounds;
+        this.rule = rule;
+        this.boundary = boundary;
+        this.seed = seed;
+        this.density = density;
+        this.cyclePeriod = cyclePeriod;
+        this.cycleStart = cycleStart;
+        this.historyHashes = historyHashes;
+        this.historyRounds = historyRounds;
+        this.words = words;
+    }
+
+    // Write to a temporary file next to it and move it in place, so a crash while writing leaves
+    // the previous checkpoint intact. The file is on disk before the move: otherwise a power loss
+    // could leave the new name pointing at data the OS had not written yet
+    public void write(Path file) throws IOException {
+        Path partial = file.resolveSibling(file.getFileName() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                     new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16), crc))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(rows);
+            out.writeInt(cols);
+            out.writeInt(round);
+            out.writeInt(maxRounds);
+            out.writeUTF(rule.toString());
+            out.writeUTF(boundary.toString());
+            out.writeLong(seed);
+            out.writeDouble(density);
+            out.writeInt(cyclePeriod);
+            out.writeInt(cycleStart);
+            out.writeInt(historyHashes.length);
+            for (int i = 0; i < historyHashes.length; i++) {
+                out.writeLong(historyHashes[i]);
+                out.writeInt(historyRounds[i]);
+            }
+            for (long word : words) {
+                out.writeLong(word);
+            }
+            // The checksum itself is not part of what it covers
+            out.writeInt((int) crc.getValue());
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static Checkpoint read(Path file) throws IOException {
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(file), 1 << 16), crc))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a checkpoint: " + file);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported checkpoint version " + version);
+            }
+            int rows = in.readInt();
+            int cols = in.readInt();
+            if (rows <= 0 || cols <= 0) {
+                throw new IOException("Invalid checkpoint grid " + rows + "x" + cols);
+            }
+            int round = in.readInt();
+            int maxRounds = in.readInt();
+            Rule rule;
+            Boundary boundary;
+            try {
+                rule = Rule.parse(in.readUTF());
+                boundary = Boundary.parse(in.readUTF());
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Corrupt checkpoint: " + e.getMessage(), e);
+            }
+            long seed = in.readLong();
+            double density = in.readDouble();
+            int cyclePeriod = in.readInt();
+            int cycleStart = in.readInt();
+            int history = in.readInt();
+            if (history < 0 || history > CycleDetector.DEFAULT_HISTORY) {
+                throw new IOException("Corrupt checkpoint: " + history + " history entries");
+            }
+            long[] historyHashes = new long[history];
+            int[] historyRounds = new int[history];
+            for (int i = 0; i < history; i++) {
+                historyHashes[i] = in.readLong();
+                historyRounds[i] = in.readInt();
+            }
+            long[] words = new long[Math.multiplyExact(rows, (cols + 63) >>> 6)];
+            for (int i = 0; i < words.length; i++) {
+                words[i] = in.readLong();
+            }
+            int expected = (int) crc.getValue();
+            if (in.readInt() != expected) {
+                throw new IOException("Checkpoint is damaged, checksum mismatch: " + file);
+            }
+            return new Checkpoint(rows, cols, round, maxRounds, rule, boundary, seed, density, cyclePeriod,
+                    cycleStart, historyHashes, historyRounds, words);
+        }
+    }
+
+    // The cells as a grid of their own
+    public BitGrid toBitGrid() {
+        BitGrid grid = new BitGrid(rows, cols);
+        grid.loadWords(words);
+        return grid;
+    }
+
+    void loadInto(BitGrid grid) {
+        grid.loadWords(words);
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getRound() {
+        return round;
+    }
+
+    public int getMaxRounds() {
+        return maxRounds;
+    }
+
+    public Rule getRule() {
+        return rule;
+    }
+
+    public Boundary getBoundary() {
+        return boundary;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    // NaN when the run was loaded from a grid instead of a seed
+    public double getDensity() {
+        return density;
+    }
+
+    int getCyclePeriod() {
+        return cyclePeriod;
+    }
+
+    int getCycleStart() {
+        return cycleStart;
+    }
+
+    long[] getHistoryHashes() {
+        return historyHashes;
+    }
+
+    int[] getHistoryRounds() {
+        return historyRounds;
+    }
+}
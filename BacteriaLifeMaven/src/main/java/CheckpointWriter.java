@@ -0,0 +1,86 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+// Writes checkpoints to one file on a background thread, so the stepping thread only pays for the
+// copy in BacteriaLifeLogic.checkpoint(). Only the newest checkpoint waiting is kept: when the disk
+// is slower than the checkpoints come, the older ones are skipped, like SimulationRunner's frames.
+// Each write replaces the file atomically
+public class CheckpointWriter implements Closeable {
+    private final Path file;
+    private final AtomicReference<Checkpoint> pending = new AtomicReference<>();
+    private final Thread thread;
+    private volatile boolean closed;
+    private volatile IOException failure;
+    private volatile long written;
+    private volatile long skipped;
+
+    public CheckpointWriter(Path file) {
+        this.file = file;
+        this.thread = new Thread(this::run, "bacteria-checkpoint");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Queue a checkpoint and return at once. A failed earlier write is reported by close
+    public void submit(Checkpoint checkpoint) {
+        if (closed) {
+            throw new IllegalStateException("Checkpoint writer is closed");
+        }
+        if (pending.getAndSet(checkpoint) != null) {
+            skipped++;
+        }
+        LockSupport.unpark(thread);
+    }
+
+    private void run() {
+        while (true) {
+            Checkpoint checkpoint = pending.getAndSet(null);
+            if (checkpoint == null) {
+                if (closed) {
+                    return;
+                }
+                LockSupport.park(this);
+                continue;
+            }
+            try {
+                checkpoint.write(file);
+                written++;
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+    }
+
+    // Write what is still waiting and stop. Throws the last write failure, if any
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing the last checkpoint", e);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    // Checkpoints written to the file so far
+    public long getWritten() {
+        return written;
+    }
+
+    // Checkpoints replaced by a newer one before they could be written
+    public long getSkipped() {
+        return skipped;
+    }
+}
@@ -0,0 +1,335 @@
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Runs one simulation split over several ClusterWorker JVMs on this machine, each owning a band of
+// rows, so the grid is no longer bound to one heap. Workers swap their edge rows directly; the
+// coordinator only sums their reports every generation and stops them all on a still life, a cycle or
+// the generation limit. The initial grid is the same as BacteriaLifeLogic.generateInitialGen(seed, density)
+public class ClusterCoordinator {
+    // A worker that takes longer than this to start and connect is taken as failed
+    private static final long CONNECT_TIMEOUT_MILLIS = 30_000;
+
+    private final int size;
+    private final int workers;
+    private int maxRounds = 300;
+    private Rule rule = Rule.CONWAY;
+    private Boundary boundary = Boundary.DEAD;
+    // Workers as threads of this JVM instead of processes (tests, small grids)
+    private boolean inProcess;
+    // Send the final grid back to the coordinator, which then needs a heap for the whole of it
+    private boolean collectGrid;
+
+    public ClusterCoordinator(int size, int workers) {
+        if (size <= 0 || workers <= 0 || workers > size) {
+            throw new IllegalArgumentException("Need between 1 and " + size + " workers: " + workers);
+        }
+        this.size = size;
+        this.workers = workers;
+    }
+
+    // Outcome of a run
+    public static final class Result {
+        private final int rounds;
+        private final boolean stable;
+        private final int cycleStart;
+        private final int cyclePeriod;
+        private final long[] populations;
+        private final BitGrid grid;
+
+        Result(int rounds, boolean stable, int cycleStart, int cyclePeriod, long[] populations, BitGrid grid) {
+            this.rounds = rounds;
+            this.stable = stable;
+            this.cycleStart = cycleStart;
+            this.cyclePeriod = cyclePeriod;
+            this.populations = populations;
+            this.grid = grid;
+        }
+
+        // Generations computed
+        public int getRounds() {
+            return rounds;
+        }
+
+        // The last generation computed didn't change anything
+        public boolean isStable() {
+            return stable;
+        }
+
+        // First round of the cycle the run ended in, -1 if it didn't (see BacteriaLifeLogic.getCycleStart)
+        public int getCycleStart() {
+            return cycleStart;
+        }
+
+        // Rounds per cycle, 1 for a still life, 0 if the run didn't end in one
+        public int getCyclePeriod() {
+            return cyclePeriod;
+        }
+
+        public long getPopulation() {
+            return populations[rounds];
+        }
+
+        // Population after each round, index 0 is the initial grid
+        public long[] getPopulations() {
+            return populations.clone();
+        }
+
+        // Final grid, put back together from the bands. Null unless setCollectGrid(true)
+        public BitGrid getGrid() {
+            return grid;
+        }
+    }
+
+    public Result run(long seed, double density) throws IOException {
+        BitGrid.densityThreshold(density);
+        List<Process> processes = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        SocketChannel[] controls = new SocketChannel[workers];
+        try (ServerSocketChannel server = ServerSocketChannel.open()
+                .bind(new InetSocketAddress(ClusterProtocol.LOOPBACK, 0))) {
+            int port = ((InetSocketAddress) server.getLocalAddress()).getPort();
+            for (int w = 0; w < workers; w++) {
+                if (inProcess) {
+                    threads.add(startThread(port, w));
+                } else {
+                    processes.add(startProcess(port));
+                }
+            }
+            accept(server, controls, processes);
+
+            // Worker w gets band w in connection order, and the ports of the bands around it
+            int[] ports = new int[workers];
+            for (int w = 0; w < workers; w++) {
+                ports[w] = ClusterProtocol.readFully(controls[w], ByteBuffer.allocate(Integer.BYTES)).getInt();
+            }
+            for (int w = 0; w < workers; w++) {
+                ClusterProtocol.writeFully(controls[w], assignment(w, ports, seed, density).encode());
+            }
+            return simulate(controls);
+        } finally {
+            for (SocketChannel control : controls) {
+                if (control != null) {
+                    control.close();
+                }
+            }
+            stop(processes, threads);
+        }
+    }
+
+    private ClusterProtocol.Assignment assignment(int w, int[] ports, long seed, double density) {
+        ClusterProtocol.Assignment a = new ClusterProtocol.Assignment();
+        a.rows = size;
+        a.cols = size;
+        a.rowFrom = bandStart(w);
+        a.rowTo = bandStart(w + 1);
+        a.seed = seed;
+        a.density = density;
+        a.rule = rule;
+        a.boundary = boundary;
+        boolean torus = boundary == Boundary.TORUS && workers > 1;
+        a.upPort = w > 0 || torus ? ports[(w + workers - 1) % workers] : ClusterProtocol.NO_PORT;
+        a.downPort = w < workers - 1 || torus ? ports[(w + 1) % workers] : ClusterProtocol.NO_PORT;
+        return a;
+    }
+
+    // Bands differ by one row at most
+    private int bandStart(int w) {
+        return (int) ((long) size * w / workers);
+    }
+
+    private Result simulate(SocketChannel[] controls) throws IOException {
+        long[] populations = new long[maxRounds + 1];
+        ByteBuffer report = ByteBuffer.allocate(ClusterProtocol.REPORT_BYTES);
+        ByteBuffer command = ByteBuffer.allocate(1);
+        long[] totals = collect(controls, report);
+        populations[0] = totals[2];
+        CycleDetector history = new CycleDetector();
+        history.record(totals[3], 0);
+        int round = 0;
+        boolean stable = false;
+        int cycleStart = -1;
+        int cyclePeriod = 0;
+        while (round < maxRounds && cyclePeriod == 0) {
+            send(controls, command, ClusterProtocol.STEP);
+            totals = collect(controls, report);
+            round++;
+            populations[round] = totals[2];
+            // Distributed stability check: no band changed anything
+            stable = totals[0] == 0 && totals[1] == 0;
+            if (stable) {
+                cyclePeriod = 1;
+                cycleStart = round - 1;
+            } else {
+                // Same hash as a recent round: an oscillator. Taken on the 64-bit hash alone, the
+                // re-step BacteriaLifeLogic confirms it with would need the whole grid in one place
+                int seen = history.findRound(totals[3]);
+                if (seen >= 0) {
+                    cyclePeriod = round - seen;
+                    cycleStart = seen;
+                }
+                history.record(totals[3], round);
+            }
+        }
+        send(controls, command, collectGrid ? ClusterProtocol.FINISH : ClusterProtocol.STOP);
+        return new Result(round, stable, cycleStart, cyclePeriod, Arrays.copyOf(populations, round + 1),
+                collectGrid ? gather(controls) : null);
+    }
+
+    private static void send(SocketChannel[] controls, ByteBuffer command, byte type) throws IOException {
+        for (SocketChannel control : controls) {
+            command.clear();
+            command.put(type).flip();
+            ClusterProtocol.writeFully(control, command);
+        }
+    }
+
+    // Births, deaths and population summed over the bands, and the hash of the whole grid
+    private static long[] collect(SocketChannel[] controls, ByteBuffer report) throws IOException {
+        long[] totals = new long[4];
+        for (SocketChannel control : controls) {
+            report.clear();
+            ClusterProtocol.readFully(control, report);
+            totals[0] += report.getLong();
+            totals[1] += report.getLong();
+            totals[2] += report.getLong();
+            totals[3] ^= report.getLong();
+        }
+        return totals;
+    }
+
+    // The bands row by row, straight into the grid. Its heap, (size + 2) * getStride() longs, must fit
+    // in one array
+    private BitGrid gather(SocketChannel[] controls) throws IOException {
+        long cells = (size + 2L) * (((size + 63) >>> 6) + 2);
+        if (cells > Integer.MAX_VALUE - 8) {
+            throw new IOException("Grid too large to collect in one heap: " + size + "x" + size);
+        }
+        BitGrid grid = new BitGrid(size, size);
+        int words = grid.getWords();
+        long lastMask = (size & 63) == 0 ? -1L : (1L << (size & 63)) - 1;
+        ByteBuffer row = ByteBuffer.allocate(words * Long.BYTES);
+        for (int w = 0; w < workers; w++) {
+            for (int i = bandStart(w); i < bandStart(w + 1); i++) {
+                row.clear();
+                ClusterProtocol.readFully(controls[w], row).asLongBuffer()
+                        .get(grid.getCells(), grid.index(i, 0), words);
+                grid.getCells()[grid.index(i, words - 1)] &= lastMask;
+            }
+        }
+        return grid;
+    }
+
+    // Wait for every worker to connect, giving up when one of the processes died or the time is out
+    private void accept(ServerSocketChannel server, SocketChannel[] controls, List<Process> processes)
+            throws IOException {
+        server.configureBlocking(false);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(CONNECT_TIMEOUT_MILLIS);
+        try (Selector selector = Selector.open()) {
+            server.register(selector, SelectionKey.OP_ACCEPT);
+            int connected = 0;
+            while (connected < workers) {
+                for (Process process : processes) {
+                    if (!process.isAlive()) {
+                        throw new IOException("Worker process exited with code " + process.exitValue());
+                    }
+                }
+                if (System.nanoTime() > deadline) {
+                    throw new IOException("Only " + connected + " of " + workers + " workers connected");
+                }
+                selector.select(100);
+                selector.selectedKeys().clear();
+                SocketChannel control;
+                while (connected < workers && (control = server.accept()) != null) {
+                    control.configureBlocking(true);
+                    control.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                    controls[connected++] = control;
+                }
+            }
+        }
+    }
+
+    private static Thread startThread(int port, int w) {
+        Thread thread = new Thread(() -> {
+            try {
+                ClusterWorker.run(port);
+            } catch (IOException e) {
+                // The coordinator sees the closed connection and reports the failure
+            }
+        }, "cluster-worker-" + w);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    // Same java and class path as this JVM, with the Vector API module when this JVM has it
+    private static Process startProcess(int port) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        if (VectorSupport.AVAILABLE) {
+            command.add("--add-modules");
+            command.add("jdk.incubator.vector");
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add("ClusterWorker");
+        command.add(Integer.toString(port));
+        return new ProcessBuilder(command).redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT).start();
+    }
+
+    private static void stop(List<Process> processes, List<Thread> threads) {
+        for (Process process : processes) {
+            try {
+                if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public void setMaxRounds(int maxRounds) {
+        this.maxRounds = maxRounds;
+    }
+
+    public void setRule(Rule rule) {
+        this.rule = rule;
+    }
+
+    public void setBoundary(Boundary boundary) {
+        this.boundary = boundary;
+    }
+
+    public void setInProcess(boolean inProcess) {
+        this.inProcess = inProcess;
+    }
+
+    // Off by default: the run only reports rounds and populations
+    public void setCollectGrid(boolean collectGrid) {
+        this.collectGrid = collectGrid;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+}
@@ -0,0 +1,89 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+// Messages between ClusterCoordinator and its ClusterWorkers, all over loopback TCP:
+//   worker -> coordinator  HELLO   int port the worker accepts its upper neighbour on
+//   coordinator -> worker  ASSIGN  Assignment (grid, band, rule, neighbour ports)
+//   worker -> coordinator  REPORT  long births, long deaths, long population, long hash (after the fill
+//                                  and every step; the band's share of the whole grid's Zobrist hash)
+//   coordinator -> worker  STEP, FINISH or STOP, one byte
+//   worker -> coordinator  BAND    the band's words (BitGrid.exportWords), row by row, after FINISH only
+// Workers swap edge rows with their neighbours directly, getStride() longs per row
+final class ClusterProtocol {
+    static final InetAddress LOOPBACK = InetAddress.getLoopbackAddress();
+    static final byte STEP = 1;
+    static final byte FINISH = 2;
+    // Ends the run like FINISH, without sending the band back
+    static final byte STOP = 3;
+    static final int REPORT_BYTES = 4 * Long.BYTES;
+    // No neighbour on that side (dead edge)
+    static final int NO_PORT = -1;
+
+    private ClusterProtocol() {
+    }
+
+    // What one worker computes: rows [rowFrom, rowTo) of a rows x cols grid
+    static final class Assignment {
+        int rows;
+        int cols;
+        int rowFrom;
+        int rowTo;
+        long seed;
+        double density;
+        Rule rule;
+        Boundary boundary;
+        int upPort;   // Worker with the rows above, accepts on this port
+        int downPort; // Worker with the rows below, this worker connects to it
+
+        ByteBuffer encode() {
+            byte[] ruleName = rule.toString().getBytes(StandardCharsets.US_ASCII);
+            ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + 6 * Integer.BYTES + Long.BYTES + Double.BYTES
+                    + 2 * Integer.BYTES + ruleName.length);
+            buffer.putInt(buffer.capacity() - Integer.BYTES);
+            buffer.putInt(rows).putInt(cols).putInt(rowFrom).putInt(rowTo);
+            buffer.putLong(seed).putDouble(density);
+            buffer.putInt(boundary.ordinal()).putInt(upPort).putInt(downPort);
+            buffer.putInt(ruleName.length).put(ruleName);
+            return buffer.flip();
+        }
+
+        static Assignment read(SocketChannel channel) throws IOException {
+            int length = readFully(channel, ByteBuffer.allocate(Integer.BYTES)).getInt();
+            ByteBuffer buffer = readFully(channel, ByteBuffer.allocate(length));
+            Assignment a = new Assignment();
+            a.rows = buffer.getInt();
+            a.cols = buffer.getInt();
+            a.rowFrom = buffer.getInt();
+            a.rowTo = buffer.getInt();
+            a.seed = buffer.getLong();
+            a.density = buffer.getDouble();
+            a.boundary = Boundary.values()[buffer.getInt()];
+            a.upPort = buffer.getInt();
+            a.downPort = buffer.getInt();
+            byte[] ruleName = new byte[buffer.getInt()];
+            buffer.get(ruleName);
+            a.rule = Rule.parse(new String(ruleName, StandardCharsets.US_ASCII));
+            return a;
+        }
+    }
+
+    // Fill the buffer from a blocking channel and flip it for reading
+    static ByteBuffer readFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Connection closed by the other side");
+            }
+        }
+        return buffer.flip();
+    }
+
+    static void writeFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
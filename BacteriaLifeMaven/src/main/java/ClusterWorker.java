@@ -0,0 +1,221 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+// One band of rows of a ClusterCoordinator run, normally in its own JVM:
+//   java -cp BacteriaLife.jar ClusterWorker PORT
+// Every generation it swaps its edge rows with the workers above and below (the guard rows of its
+// BitGrid, so the step needs nothing else), steps and reports to the coordinator, which decides
+// whether the run goes on. See ClusterProtocol for the messages
+public class ClusterWorker {
+    private final SocketChannel control;
+    private final ClusterProtocol.Assignment assignment;
+    private final int bandRows;
+    private BitGrid current;
+    private BitGrid next;
+    private final StepStats stats = new StepStats();
+    // This band's share of the grid's hash, cells numbered as in the whole grid
+    private long hash;
+    // Links to the neighbour bands, empty on a single band
+    private final List<Link> links = new ArrayList<>();
+    private Link up;
+    private Link down;
+    private Selector selector;
+    private final long[] row;
+
+    private ClusterWorker(SocketChannel control, ClusterProtocol.Assignment assignment) {
+        this.control = control;
+        this.assignment = assignment;
+        this.bandRows = assignment.rowTo - assignment.rowFrom;
+        this.current = new BitGrid(bandRows, assignment.cols);
+        this.next = new BitGrid(bandRows, assignment.cols);
+        this.row = new long[current.getStride()];
+        stats.setCellOffset((long) assignment.rowFrom * assignment.cols);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: ClusterWorker COORDINATOR_PORT");
+            System.exit(2);
+        }
+        run(Integer.parseInt(args[0]));
+    }
+
+    // Serve one run of the coordinator listening on the loopback port, then return
+    static void run(int coordinatorPort) throws IOException {
+        try (ServerSocketChannel listener = ServerSocketChannel.open()
+                .bind(new InetSocketAddress(ClusterProtocol.LOOPBACK, 0));
+             SocketChannel control = SocketChannel.open(
+                     new InetSocketAddress(ClusterProtocol.LOOPBACK, coordinatorPort))) {
+            control.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            int port = ((InetSocketAddress) listener.getLocalAddress()).getPort();
+            ClusterProtocol.writeFully(control, ByteBuffer.allocate(Integer.BYTES).putInt(port).flip());
+
+            ClusterWorker worker = new ClusterWorker(control, ClusterProtocol.Assignment.read(control));
+            try {
+                worker.connect(listener);
+                worker.serve();
+            } finally {
+                worker.closeLinks();
+            }
+        }
+    }
+
+    // Connect to the band below first: the connection waits in its listener's backlog, so every
+    // worker can connect before any of them accepts
+    private void connect(ServerSocketChannel listener) throws IOException {
+        if (assignment.downPort != ClusterProtocol.NO_PORT) {
+            down = new Link(SocketChannel.open(new InetSocketAddress(ClusterProtocol.LOOPBACK, assignment.downPort)),
+                    row.length);
+            links.add(down);
+        }
+        if (assignment.upPort != ClusterProtocol.NO_PORT) {
+            up = new Link(listener.accept(), row.length);
+            links.add(up);
+        }
+        selector = Selector.open();
+        for (Link link : links) {
+            link.channel.configureBlocking(false);
+            link.key = link.channel.register(selector, 0, link);
+        }
+    }
+
+    private void serve() throws IOException {
+        current.fillRandomBand(assignment.seed, assignment.density, assignment.rowFrom);
+        hash = current.hash((long) assignment.rowFrom * assignment.cols);
+        report();
+        ByteBuffer command = ByteBuffer.allocate(1);
+        byte type;
+        while ((type = ClusterProtocol.readFully(control, command.clear()).get()) == ClusterProtocol.STEP) {
+            step();
+            report();
+        }
+        if (type == ClusterProtocol.FINISH) {
+            sendBand();
+        }
+    }
+
+    // One row at a time, so a band doesn't need a second copy of itself
+    private void sendBand() throws IOException {
+        int words = current.getWords();
+        ByteBuffer buffer = ByteBuffer.allocate(words * Long.BYTES);
+        for (int i = 0; i < bandRows; i++) {
+            buffer.clear();
+            buffer.asLongBuffer().put(current.getCells(), current.index(i, 0), words);
+            ClusterProtocol.writeFully(control, buffer);
+        }
+    }
+
+    private void step() throws IOException {
+        boolean torus = assignment.boundary == Boundary.TORUS;
+        if (torus && links.isEmpty()) {
+            // The whole torus in one band
+            current.wrapHalo();
+        } else {
+            if (torus) {
+                current.wrapColumns();
+            }
+            exchangeHalo();
+        }
+        stats.reset();
+        BitGrid.step(current, next, assignment.rule, stats);
+        hash ^= stats.getHashDelta();
+        current.clearHalo();
+        BitGrid swap = current;
+        current = next;
+        next = swap;
+    }
+
+    // Send the top row up and the bottom row down, receive the neighbours' edge rows into the guard
+    // rows. Non-blocking, so two workers writing long rows to each other can't both get stuck
+    private void exchangeHalo() throws IOException {
+        if (up != null) {
+            current.readPaddedRow(0, row);
+            up.start(row);
+        }
+        if (down != null) {
+            current.readPaddedRow(bandRows - 1, row);
+            down.start(row);
+        }
+        int pending = links.size();
+        while (pending > 0) {
+            selector.select();
+            for (SelectionKey key : selector.selectedKeys()) {
+                if (((Link) key.attachment()).transfer()) {
+                    pending--;
+                }
+            }
+            selector.selectedKeys().clear();
+        }
+        if (up != null) {
+            up.finish(row);
+            current.writePaddedRow(-1, row);
+        }
+        if (down != null) {
+            down.finish(row);
+            current.writePaddedRow(bandRows, row);
+        }
+    }
+
+    private void report() throws IOException {
+        ByteBuffer report = ByteBuffer.allocate(ClusterProtocol.REPORT_BYTES);
+        report.putLong(stats.getBirths()).putLong(stats.getDeaths()).putLong(current.population()).putLong(hash);
+        ClusterProtocol.writeFully(control, report.flip());
+    }
+
+    private void closeLinks() throws IOException {
+        for (Link link : links) {
+            link.channel.close();
+        }
+        if (selector != null) {
+            selector.close();
+        }
+    }
+
+    // Connection to a neighbour band: one row out and one row in per generation
+    private static final class Link {
+        final SocketChannel channel;
+        final ByteBuffer out;
+        final ByteBuffer in;
+        SelectionKey key;
+
+        Link(SocketChannel channel, int words) throws IOException {
+            this.channel = channel;
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            this.out = ByteBuffer.allocate(words * Long.BYTES);
+            this.in = ByteBuffer.allocate(words * Long.BYTES);
+        }
+
+        void start(long[] row) {
+            out.clear();
+            out.asLongBuffer().put(row);
+            in.clear();
+            key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        }
+
+        // Move what the channel takes now. Returns true when the row went out and the other came in
+        boolean transfer() throws IOException {
+            if (key.isWritable()) {
+                channel.write(out);
+            }
+            if (key.isReadable() && channel.read(in) < 0) {
+                throw new IOException("Neighbour band closed the connection");
+            }
+            int ops = (out.hasRemaining() ? SelectionKey.OP_WRITE : 0) | (in.hasRemaining() ? SelectionKey.OP_READ : 0);
+            key.interestOps(ops);
+            return ops == 0;
+        }
+
+        void finish(long[] row) {
+            in.flip();
+            in.asLongBuffer().get(row);
+        }
+    }
+}
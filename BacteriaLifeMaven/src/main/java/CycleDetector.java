@@ -0,0 +1,76 @@
+// Bounded history of generation hashes, used to find oscillators.
+// Hashes are Zobrist style: the XOR of a fixed random key per live cell, so a step
+// only has to XOR the keys of the cells it changed to get the hash of the new gen.
+public class CycleDetector {
+    public static final int DEFAULT_HISTORY = 64;
+
+    private final long[] hashes;
+    private final int[] rounds;
+    private int size = 0;
+    private int head = 0; // Next slot to write
+
+    public CycleDetector() {
+        this(DEFAULT_HISTORY);
+    }
+
+    public CycleDetector(int history) {
+        if (history <= 0) {
+            throw new IllegalArgumentException("History must be positive: " + history);
+        }
+        this.hashes = new long[history];
+        this.rounds = new int[history];
+    }
+
+    // Most recent round recorded with this hash, or -1
+    public int findRound(long hash) {
+        for (int k = 1; k <= size; k++) {
+            int slot = Math.floorMod(head - k, hashes.length);
+            if (hashes[slot] == hash) {
+                return rounds[slot];
+            }
+        }
+        return -1;
+    }
+
+    // Remember the hash of a round, dropping the oldest one when full
+    public void record(long hash, int round) {
+        if (size > 0 && rounds[Math.floorMod(head - 1, rounds.length)] == round) {
+            return; // Already recorded (the gen was loaded again)
+        }
+        hashes[head] = hash;
+        rounds[head] = round;
+        head = (head + 1) % hashes.length;
+        size = Math.min(size + 1, hashes.length);
+    }
+
+    // Recorded rounds and their hashes, oldest first, for a checkpoint. Returns how many there are
+    public int export(long[] hashesOut, int[] roundsOut) {
+        for (int k = 0; k < size; k++) {
+            int slot = Math.floorMod(head - size + k, hashes.length);
+            hashesOut[k] = hashes[slot];
+            roundsOut[k] = rounds[slot];
+        }
+        return size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+        head = 0;
+    }
+
+    public int getHistory() {
+        return hashes.length;
+    }
+
+    // Key of a cell (row * cols + col), a fixed pseudo-random 64-bit value (SplitMix64 finalizer)
+    public static long zobrist(long cell) {
+        long z = cell * 0x9E3779B97F4A7C15L + 0x632BE59BD9B4E019L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,92 @@
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.function.BiPredicate;
+
+// Publishes what every step changed (GenerationDelta) to any number of Flow subscribers, on their own
+// executor threads. Each subscriber has a bounded buffer and asks for deltas at its own pace
+// (Flow.Subscription.request). When a buffer is full the delta is dropped for that subscriber only,
+// so a slow consumer never stalls the stepping thread: it sees a gap in the rounds and can catch up
+// from a full copy of the grid. Blocking mode waits for room instead, for consumers that need every
+// delta and accept slowing the run down.
+// Set with BacteriaLifeLogic.setDeltaPublisher; deltas are only computed while someone is subscribed
+public class DeltaPublisher implements Flow.Publisher<GenerationDelta>, AutoCloseable {
+    private final SubmissionPublisher<GenerationDelta> publisher;
+    private final boolean blocking;
+    // Only the stepping thread publishes, so plain counters are enough for it
+    private volatile long published;
+    private volatile long dropped;
+    // Created once, offer would otherwise allocate a lambda every step
+    private final BiPredicate<Flow.Subscriber<? super GenerationDelta>, GenerationDelta> onDrop = (s, d) -> {
+        dropped++;
+        return false; // Don't retry, the stepper moves on
+    };
+
+    // Common pool, Flow.defaultBufferSize() deltas per subscriber, dropping when full
+    public DeltaPublisher() {
+        this(ForkJoinPool.commonPool(), Flow.defaultBufferSize(), false);
+    }
+
+    // bufferCapacity: deltas each subscriber may fall behind (rounded up to a power of two)
+    public DeltaPublisher(Executor executor, int bufferCapacity, boolean blocking) {
+        if (bufferCapacity <= 0) {
+            throw new IllegalArgumentException("Buffer capacity must be positive: " + bufferCapacity);
+        }
+        this.publisher = new SubmissionPublisher<>(executor, bufferCapacity);
+        this.blocking = blocking;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super GenerationDelta> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+
+    // False once closed, the logic then skips computing deltas
+    public boolean hasSubscribers() {
+        return publisher.hasSubscribers();
+    }
+
+    // Hand a delta to every subscriber. Called on the stepping thread
+    void publish(GenerationDelta delta) {
+        if (blocking) {
+            publisher.submit(delta);
+        } else {
+            publisher.offer(delta, onDrop);
+        }
+        published++;
+    }
+
+    // Subscribers get onComplete after the deltas already in their buffers
+    @Override
+    public void close() {
+        publisher.close();
+    }
+
+    public int getSubscriberCount() {
+        return publisher.getNumberOfSubscribers();
+    }
+
+    public int getBufferCapacity() {
+        return publisher.getMaxBufferCapacity();
+    }
+
+    public boolean isBlocking() {
+        return blocking;
+    }
+
+    // Deltas handed to the subscribers so far
+    public long getPublished() {
+        return published;
+    }
+
+    // Deltas a subscriber missed because its buffer was full, counted once per subscriber
+    public long getDropped() {
+        return dropped;
+    }
+
+    // Deltas waiting in the fullest buffer
+    public int getLag() {
+        return publisher.estimateMaximumLag();
+    }
+}
@@ -0,0 +1,214 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Runs many independent random soups side by side, one fork/join task per soup, and summarises how
+// long they take to settle and how many cells survive. Every soup has its own BacteriaLifeLogic
+// (round, generation limit, buffers), so nothing is shared while they run. Soup i uses seed
+// firstSeed + i and gives the same result as a single run with that seed
+public class EnsembleRunner {
+    private final int size;
+    private double density = 0.5;
+    private int maxRounds = 300;
+    private Rule rule = Rule.CONWAY;
+    private Boundary boundary = Boundary.DEAD;
+
+    public EnsembleRunner(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Size must be positive: " + size);
+        }
+        this.size = size;
+    }
+
+    // Outcome of every soup, index i is the soup with seed firstSeed + i
+    public static final class Result {
+        private final long firstSeed;
+        private final int[] roundsToStability;
+        private final int[] periods;
+        private final long[] populations;
+        private final long elapsedNanos;
+
+        Result(long firstSeed, int[] roundsToStability, int[] periods, long[] populations, long elapsedNanos) {
+            this.firstSeed = firstSeed;
+            this.roundsToStability = roundsToStability;
+            this.periods = periods;
+            this.populations = populations;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public int getSoups() {
+            return populations.length;
+        }
+
+        public long getSeed(int soup) {
+            return firstSeed + soup;
+        }
+
+        // Round the still life or cycle started, -1 if the generation limit came first
+        public int getRoundsToStability(int soup) {
+            return roundsToStability[soup];
+        }
+
+        // 1 for a still life, the oscillator's period for a cycle, 0 if the limit came first
+        public int getPeriod(int soup) {
+            return periods[soup];
+        }
+
+        public long getPopulation(int soup) {
+            return populations[soup];
+        }
+
+        // Soups that settled before the limit
+        public int getStabilized() {
+            int stabilized = 0;
+            for (int rounds : roundsToStability) {
+                if (rounds >= 0) {
+                    stabilized++;
+                }
+            }
+            return stabilized;
+        }
+
+        // Rounds to stability of the soups that settled
+        public Distribution getRoundsToStabilityDistribution() {
+            long[] values = new long[getStabilized()];
+            int n = 0;
+            for (int rounds : roundsToStability) {
+                if (rounds >= 0) {
+                    values[n++] = rounds;
+                }
+            }
+            return new Distribution(values);
+        }
+
+        // Final population of every soup
+        public Distribution getPopulationDistribution() {
+            return new Distribution(populations.clone());
+        }
+
+        public double getSoupsPerSecond() {
+            return elapsedNanos == 0 ? 0 : getSoups() * 1e9 / elapsedNanos;
+        }
+    }
+
+    // Summary of a set of values. Empty sets give 0 everywhere
+    public static final class Distribution {
+        private final long[] sorted;
+
+        Distribution(long[] values) {
+            Arrays.sort(values);
+            this.sorted = values;
+        }
+
+        public int getCount() {
+            return sorted.length;
+        }
+
+        public long getMin() {
+            return sorted.length == 0 ? 0 : sorted[0];
+        }
+
+        public long getMax() {
+            return sorted.length == 0 ? 0 : sorted[sorted.length - 1];
+        }
+
+        public double getMean() {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            double sum = 0;
+            for (long value : sorted) {
+                sum += value;
+            }
+            return sum / sorted.length;
+        }
+
+        // Nearest rank: the smallest value with at least p percent of the values at or below it
+        public long getPercentile(double p) {
+            if (p < 0 || p > 100) {
+                throw new IllegalArgumentException("Percentile must be between 0 and 100: " + p);
+            }
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(p / 100 * sorted.length);
+            return sorted[Math.max(0, rank - 1)];
+        }
+    }
+
+    // Run soups firstSeed .. firstSeed + soups - 1 on the pool and wait for all of them
+    public Result run(long firstSeed, int soups, ForkJoinPool pool) {
+        if (soups <= 0) {
+            throw new IllegalArgumentException("Need at least one soup: " + soups);
+        }
+        BitGrid.densityThreshold(density);
+        // Each task writes only its own slots, the join publishes them to this thread
+        int[] roundsToStability = new int[soups];
+        int[] periods = new int[soups];
+        long[] populations = new long[soups];
+        long start = System.nanoTime();
+        pool.invoke(new Soups(firstSeed, 0, soups, roundsToStability, periods, populations));
+        return new Result(firstSeed, roundsToStability, periods, populations, System.nanoTime() - start);
+    }
+
+    // Halves the range of soups down to one per task, so idle workers steal whole soups
+    private final class Soups extends RecursiveAction {
+        private final long firstSeed;
+        private final int from;
+        private final int to;
+        private final int[] roundsToStability;
+        private final int[] periods;
+        private final long[] populations;
+
+        Soups(long firstSeed, int from, int to, int[] roundsToStability, int[] periods, long[] populations) {
+            this.firstSeed = firstSeed;
+            this.from = from;
+            this.to = to;
+            this.roundsToStability = roundsToStability;
+            this.periods = periods;
+            this.populations = populations;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                runSoup(from);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Soups(firstSeed, from, mid, roundsToStability, periods, populations),
+                    new Soups(firstSeed, mid, to, roundsToStability, periods, populations));
+        }
+
+        // Same loop as a headless dense run
+        private void runSoup(int soup) {
+            BacteriaLifeLogic logic = new BacteriaLifeLogic(size);
+            logic.setRule(rule);
+            logic.setBoundary(boundary);
+            logic.setMaxRounds(maxRounds);
+            logic.loadRandom(firstSeed + soup, density);
+            while (logic.step() && !logic.isCycling()) {
+                // Keep stepping
+            }
+            roundsToStability[soup] = logic.getCycleStart();
+            periods[soup] = logic.getCyclePeriod();
+            populations[soup] = logic.getPopulation();
+        }
+    }
+
+    public void setDensity(double density) {
+        this.density = density;
+    }
+
+    public void setMaxRounds(int maxRounds) {
+        this.maxRounds = maxRounds;
+    }
+
+    public void setRule(Rule rule) {
+        this.rule = rule;
+    }
+
+    public void setBoundary(Boundary boundary) {
+        this.boundary = boundary;
+    }
+}
@@ -0,0 +1,95 @@
+import java.util.Arrays;
+
+// What one step changed: the cells born and the cells that died, as packed cell numbers
+// (row * cols + col, the numbering of the Zobrist keys). Immutable, so DeltaPublisher hands the same
+// instance to every subscriber and nobody copies the grid
+public final class GenerationDelta {
+    private final int round;
+    private final int cols;
+    private final long[] births;
+    private final long[] deaths;
+
+    GenerationDelta(int round, int cols, long[] births, long[] deaths) {
+        this.round = round;
+        this.cols = cols;
+        this.births = births;
+        this.deaths = deaths;
+    }
+
+    // Changes of the step that filled stats, which must have been logging (StepStats.setLogging).
+    // Built from the words the step reported as changed, so it costs the changes and not the grid.
+    // The counts come from the stats, so the arrays are allocated once at their final size
+    static GenerationDelta of(int round, int cols, StepStats stats) {
+        if (!stats.isLogging()) {
+            throw new IllegalStateException("The step didn't log its changed words");
+        }
+        long[] births = new long[Math.toIntExact(stats.getBirths())];
+        long[] deaths = new long[Math.toIntExact(stats.getDeaths())];
+        int b = 0;
+        int d = 0;
+        for (int i = 0; i < stats.getLoggedWords(); i++) {
+            long firstCell = stats.getLoggedCell(i);
+            for (long born = stats.getLoggedBirths(i); born != 0; born &= born - 1) {
+                births[b++] = firstCell + Long.numberOfTrailingZeros(born);
+            }
+            for (long died = stats.getLoggedDeaths(i); died != 0; died &= died - 1) {
+                deaths[d++] = firstCell + Long.numberOfTrailingZeros(died);
+            }
+        }
+        // Tiles and bands log their words block by block, subscribers get them in row order
+        Arrays.sort(births);
+        Arrays.sort(deaths);
+        return new GenerationDelta(round, cols, births, deaths);
+    }
+
+    // Round this delta leads to, the one before is round - 1. A gap means deltas were missed
+    public int getRound() {
+        return round;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getBirthCount() {
+        return births.length;
+    }
+
+    public int getDeathCount() {
+        return deaths.length;
+    }
+
+    // Packed cell number of birth i, in row order
+    public long getBirth(int i) {
+        return births[i];
+    }
+
+    public long getDeath(int i) {
+        return deaths[i];
+    }
+
+    public int row(long cell) {
+        return (int) (cell / cols);
+    }
+
+    public int col(long cell) {
+        return (int) (cell % cols);
+    }
+
+    public boolean isEmpty() {
+        return births.length == 0 && deaths.length == 0;
+    }
+
+    // Turn the generation before this delta into the one after it, in a subscriber's own copy
+    public void applyTo(BitGrid grid) {
+        if (grid.getCols() != cols) {
+            throw new IllegalArgumentException("Grid has " + grid.getCols() + " columns, delta " + cols);
+        }
+        for (long cell : births) {
+            grid.setAlive(row(cell), col(cell), true);
+        }
+        for (long cell : deaths) {
+            grid.setAlive(row(cell), col(cell), false);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+// Streams a run to a compact history file while it is simulated. Generation 0 and then one
+// generation every keyframeInterval are stored whole (keyframes), the rest only as the words that
+// changed: (word index, old XOR new) pairs. An index of the keyframes is appended on close so
+// GenerationReplay can open any generation without decoding the whole file.
+//
+// Layout (big endian, as written by DataOutputStream):
+//   header   MAGIC, VERSION, rows, cols, keyframeInterval (ints)
+//   records  KEYFRAME byte + rows*words longs | DELTA byte + count int + count * (index int, xor long)
+//   index    keyframe count int + count * (generation long, record offset long)
+//   trailer  index offset long, generation count long, END_MAGIC int
+public class GenerationRecorder implements Closeable {
+    static final int MAGIC = 0x424C4752;     // "BLGR"
+    static final int END_MAGIC = 0x424C4749; // "BLGI"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 5 * Integer.BYTES;
+    static final int TRAILER_BYTES = 2 * Long.BYTES + Integer.BYTES;
+    static final byte KEYFRAME = 0;
+    static final byte DELTA = 1;
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 256;
+
+    private final DataOutputStream out;
+    private final int rows;
+    private final int cols;
+    private final int keyframeInterval;
+    private final long[] previous; // Words of the last recorded generation
+    private final long[] words;    // Scratch copy of the generation being recorded
+    private final int[] changed;   // Indexes of the changed words, reused every generation
+    private long offset;           // Bytes written so far
+    private long generations;
+    private long sinceKeyframe;
+    private long[] keyGenerations = new long[16];
+    private long[] keyOffsets = new long[16];
+    private int keyframes;
+    private boolean closed;
+
+    public GenerationRecorder(Path file, int rows, int cols) throws IOException {
+        this(file, rows, cols, DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    public GenerationRecorder(Path file, int rows, int cols, int keyframeInterval) throws IOException {
+        if (rows <= 0 || cols <= 0 || keyframeInterval <= 0) {
+            throw new IllegalArgumentException("Invalid recording: " + rows + "x" + cols
+                    + ", keyframe interval " + keyframeInterval);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.keyframeInterval = keyframeInterval;
+        int size = rows * ((cols + 63) >>> 6);
+        this.previous = new long[size];
+        this.words = new long[size];
+        this.changed = new int[size];
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(rows);
+        out.writeInt(cols);
+        out.writeInt(keyframeInterval);
+        offset = HEADER_BYTES;
+    }
+
+    // Append the next generation
+    public void record(BitGrid grid) throws IOException {
+        record(grid, null);
+    }
+
+    // Same, for the generation the step that filled stats computed from the last one recorded. When
+    // the step logged its changed words (StepStats.setLogging) the delta is written from them: it
+    // costs the changes, not an export and a comparison of the whole grid. Keyframes still copy it
+    public void record(BitGrid grid, StepStats stats) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Recorder is closed");
+        }
+        if (grid.getRows() != rows || grid.getCols() != cols) {
+            throw new IllegalArgumentException("Grid size mismatch: " + grid.getRows() + "x" + grid.getCols()
+                    + " vs " + rows + "x" + cols);
+        }
+        boolean due = generations == 0 || sinceKeyframe >= keyframeInterval;
+        if (!due && stats != null && stats.isLogging()) {
+            int count = stats.getLoggedWords();
+            long deltaBytes = Integer.BYTES + (long) count * (Integer.BYTES + Long.BYTES);
+            if (deltaBytes < (long) words.length * Long.BYTES) {
+                int wordsPerRow = (cols + 63) >>> 6;
+                out.writeByte(DELTA);
+                out.writeInt(count);
+                for (int k = 0; k < count; k++) {
+                    long cell = stats.getLoggedCell(k);
+                    int i = (int) (cell / cols) * wordsPerRow + (int) (cell % cols >>> 6);
+                    long xor = stats.getLoggedBirths(k) | stats.getLoggedDeaths(k);
+                    out.writeInt(i);
+                    out.writeLong(xor);
+                    previous[i] ^= xor;
+                }
+                offset += 1 + deltaBytes;
+                sinceKeyframe++;
+                generations++;
+                return;
+            }
+            due = true;
+        }
+        grid.exportWords(words);
+
+        int count = 0;
+        if (!due) {
+            for (int i = 0; i < words.length; i++) {
+                if (words[i] != previous[i]) {
+                    changed[count++] = i;
+                }
+            }
+        }
+        // A delta bigger than the whole grid is written as a keyframe instead
+        long deltaBytes = Integer.BYTES + (long) count * (Integer.BYTES + Long.BYTES);
+        if (due || deltaBytes >= (long) words.length * Long.BYTES) {
+            writeKeyframe();
+        } else {
+            out.writeByte(DELTA);
+            out.writeInt(count);
+            for (int k = 0; k < count; k++) {
+                int i = changed[k];
+                out.writeInt(i);
+                out.writeLong(words[i] ^ previous[i]);
+                previous[i] = words[i];
+            }
+            offset += 1 + deltaBytes;
+            sinceKeyframe++;
+        }
+        generations++;
+    }
+
+    private void writeKeyframe() throws IOException {
+        if (keyframes == keyGenerations.length) {
+            keyGenerations = Arrays.copyOf(keyGenerations, keyframes * 2);
+            keyOffsets = Arrays.copyOf(keyOffsets, keyframes * 2);
+        }
+        keyGenerations[keyframes] = generations;
+        keyOffsets[keyframes] = offset;
+        keyframes++;
+
+        out.writeByte(KEYFRAME);
+        for (long word : words) {
+            out.writeLong(word);
+        }
+        System.arraycopy(words, 0, previous, 0, words.length);
+        offset += 1 + (long) words.length * Long.BYTES;
+        sinceKeyframe = 1;
+    }
+
+    public long getGenerationCount() {
+        return generations;
+    }
+
+    public int getKeyframeCount() {
+        return keyframes;
+    }
+
+    // Bytes written so far, the index and trailer are added on close
+    public long getBytesWritten() {
+        return offset;
+    }
+
+    // Write the keyframe index and close the file. Calling it again does nothing
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            long indexOffset = offset;
+            out.writeInt(keyframes);
+            for (int k = 0; k < keyframes; k++) {
+                out.writeLong(keyGenerations[k]);
+                out.writeLong(keyOffsets[k]);
+            }
+            out.writeLong(indexOffset);
+            out.writeLong(generations);
+            out.writeInt(END_MAGIC);
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,192 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Reads a GenerationRecorder file through a memory-mapped FileChannel, in chunks as OffHeapGrid does
+// because one mapping holds at most 2 GB. Opening a generation starts from the closest keyframe at or
+// before it (found in the index) and applies the deltas, reading forward from the last generation
+// opened is just one delta per generation
+public class GenerationReplay implements Closeable {
+    // Largest chunk, well under the 2 GB limit of a ByteBuffer
+    static final long CHUNK_BYTES = 1L << 30;
+    // Each chunk maps this much of the next one too, so a value starting in it is read from it whole
+    private static final int OVERLAP = Long.BYTES;
+
+    private final FileChannel channel;
+    private final long chunkBytes;
+    private final ByteBuffer[] chunks;
+    private final int rows;
+    private final int cols;
+    private final int keyframeInterval;
+    private final long generations;
+    private final long[] keyGenerations;
+    private final long[] keyOffsets;
+    private final long[] words;
+    // Generation held in words and where its successor starts, -1 before the first read
+    private long cursorGeneration = -1;
+    private long cursorOffset;
+
+    private GenerationReplay(FileChannel channel, long chunkBytes) throws IOException {
+        this.channel = channel;
+        long size = channel.size();
+        if (size < GenerationRecorder.HEADER_BYTES + Integer.BYTES + GenerationRecorder.TRAILER_BYTES) {
+            throw new IOException("Not a generation recording, " + size + " bytes");
+        }
+        this.chunkBytes = chunkBytes;
+        this.chunks = new ByteBuffer[(int) ((size + chunkBytes - 1) / chunkBytes)];
+        for (int c = 0; c < chunks.length; c++) {
+            long start = c * chunkBytes;
+            chunks[c] = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                    Math.min(chunkBytes + OVERLAP, size - start));
+        }
+
+        if (getInt(0) != GenerationRecorder.MAGIC || getInt(size - Integer.BYTES) != GenerationRecorder.END_MAGIC) {
+            throw new IOException("Not a generation recording or not closed properly");
+        }
+        int version = getInt(4);
+        if (version != GenerationRecorder.VERSION) {
+            throw new IOException("Unsupported recording version " + version);
+        }
+        this.rows = getInt(8);
+        this.cols = getInt(12);
+        this.keyframeInterval = getInt(16);
+        this.words = new long[rows * ((cols + 63) >>> 6)];
+
+        long trailer = size - GenerationRecorder.TRAILER_BYTES;
+        long indexOffset = getLong(trailer);
+        this.generations = getLong(trailer + Long.BYTES);
+        int keyframes = getInt(indexOffset);
+        this.keyGenerations = new long[keyframes];
+        this.keyOffsets = new long[keyframes];
+        long position = indexOffset + Integer.BYTES;
+        for (int k = 0; k < keyframes; k++) {
+            keyGenerations[k] = getLong(position);
+            keyOffsets[k] = getLong(position + Long.BYTES);
+            position += 2 * Long.BYTES;
+        }
+    }
+
+    public static GenerationReplay open(Path file) throws IOException {
+        return open(file, CHUNK_BYTES);
+    }
+
+    // With smaller chunks, for tests
+    static GenerationReplay open(Path file, long chunkBytes) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new GenerationReplay(channel, chunkBytes);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Write generation g of the recording into dst
+    public void read(long generation, BitGrid dst) {
+        if (dst.getRows() != rows || dst.getCols() != cols) {
+            throw new IllegalArgumentException("Grid size mismatch: " + dst.getRows() + "x" + dst.getCols()
+                    + " vs " + rows + "x" + cols);
+        }
+        seek(generation);
+        dst.loadWords(words);
+    }
+
+    public int[][] toGen(long generation) {
+        BitGrid grid = new BitGrid(rows, cols);
+        read(generation, grid);
+        return grid.toGen();
+    }
+
+    private void seek(long generation) {
+        if (generation < 0 || generation >= generations) {
+            throw new IllegalArgumentException("Generation " + generation + " not in [0, " + generations + ")");
+        }
+        // Closest keyframe at or before the generation
+        int k = Arrays.binarySearch(keyGenerations, generation);
+        if (k < 0) {
+            k = -k - 2;
+        }
+        // Going on from the cursor is cheaper unless a keyframe lies in between
+        if (generation < cursorGeneration || cursorGeneration < keyGenerations[k]) {
+            cursorGeneration = keyGenerations[k] - 1;
+            cursorOffset = keyOffsets[k];
+        }
+        while (cursorGeneration < generation) {
+            cursorOffset = decode(cursorOffset);
+            cursorGeneration++;
+        }
+    }
+
+    // Apply the record at offset to words. Returns the offset of the next record
+    private long decode(long offset) {
+        byte type = chunk(offset).get(local(offset));
+        offset++;
+        if (type == GenerationRecorder.KEYFRAME) {
+            // Chunk by chunk, as many whole words as each one holds
+            for (int done = 0; done < words.length; ) {
+                ByteBuffer chunk = chunk(offset);
+                int local = local(offset);
+                int count = Math.min(words.length - done, (chunk.capacity() - local) / Long.BYTES);
+                if (count == 0) {
+                    throw new IndexOutOfBoundsException("Keyframe past the end of the recording at " + offset);
+                }
+                chunk.slice(local, count * Long.BYTES).asLongBuffer().get(words, done, count);
+                done += count;
+                offset += (long) count * Long.BYTES;
+            }
+            return offset;
+        }
+        int count = getInt(offset);
+        offset += Integer.BYTES;
+        for (int c = 0; c < count; c++) {
+            words[getInt(offset)] ^= getLong(offset + Integer.BYTES);
+            offset += Integer.BYTES + Long.BYTES;
+        }
+        return offset;
+    }
+
+    private ByteBuffer chunk(long position) {
+        return chunks[(int) (position / chunkBytes)];
+    }
+
+    private int local(long position) {
+        return (int) (position % chunkBytes);
+    }
+
+    private int getInt(long position) {
+        return chunk(position).getInt(local(position));
+    }
+
+    private long getLong(long position) {
+        return chunk(position).getLong(local(position));
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public long getGenerationCount() {
+        return generations;
+    }
+
+    public int getKeyframeCount() {
+        return keyGenerations.length;
+    }
+
+    public int getKeyframeInterval() {
+        return keyframeInterval;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,131 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+// Single component drawing the whole generation. Cells are painted once into a reusable
+// BufferedImage and only the cells that changed since the last frame are redrawn,
+// so a tick costs the changed cells instead of DIMENSION² components and a layout pass
+public class GridCanvas extends JComponent {
+    public static final Color ALIVE_COLOR = Color.BLACK;
+    public static final Color DEAD_COLOR = Color.WHITE;
+
+    private final int rows;
+    private final int cols;
+    private final int cellSize;
+    private final int gap;
+    private final BufferedImage image;
+    private final boolean[][] shown; // State currently drawn in the image
+
+    public GridCanvas(int rows, int cols, int cellSize, int gap, Color background) {
+        if (rows <= 0 || cols <= 0 || cellSize <= 0 || gap < 0) {
+            throw new IllegalArgumentException("Invalid grid: " + rows + "x" + cols + ", cell " + cellSize
+                    + ", gap " + gap);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.cellSize = cellSize;
+        this.gap = gap;
+        this.shown = new boolean[rows][cols];
+        int pitch = cellSize + gap;
+        this.image = new BufferedImage(cols * pitch - gap, rows * pitch - gap, BufferedImage.TYPE_INT_RGB);
+        setBackground(background);
+        setOpaque(true);
+
+        // Start with every cell dead
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setColor(background);
+            g.fillRect(0, 0, image.getWidth(), image.getHeight());
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < cols; j++) {
+                    drawCell(g, i, j);
+                }
+            }
+        } finally {
+            g.dispose();
+        }
+    }
+
+    // Draw a new generation. Returns the number of cells that had to be redrawn
+    public int setGen(int[][] gen) {
+        if (gen.length != rows || gen[0].length != cols) {
+            throw new IllegalArgumentException("Gen size mismatch: " + gen.length + "x" + gen[0].length
+                    + " vs " + rows + "x" + cols);
+        }
+        int changed = 0;
+        int minRow = rows, maxRow = -1, minCol = cols, maxCol = -1;
+        Graphics2D g = image.createGraphics();
+        try {
+            for (int i = 0; i < rows; i++) {
+                int[] row = gen[i];
+                boolean[] shownRow = shown[i];
+                for (int j = 0; j < cols; j++) {
+                    boolean alive = row[j] == 1;
+                    if (alive != shownRow[j]) {
+                        shownRow[j] = alive;
+                        drawCell(g, i, j);
+                        changed++;
+                        minRow = Math.min(minRow, i);
+                        maxRow = Math.max(maxRow, i);
+                        minCol = Math.min(minCol, j);
+                        maxCol = Math.max(maxCol, j);
+                    }
+                }
+            }
+        } finally {
+            g.dispose();
+        }
+
+        // Only the box around the changed cells goes back to the screen
+        if (changed > 0) {
+            int pitch = cellSize + gap;
+            Insets insets = getInsets();
+            repaint(insets.left + minCol * pitch, insets.top + minRow * pitch,
+                    (maxCol - minCol) * pitch + cellSize, (maxRow - minRow) * pitch + cellSize);
+        }
+        return changed;
+    }
+
+    private void drawCell(Graphics2D g, int row, int col) {
+        int pitch = cellSize + gap;
+        int x = col * pitch;
+        int y = row * pitch;
+        g.setColor(getBackground());
+        g.fillRect(x, y, cellSize, cellSize);
+        g.setColor(shown[row][col] ? ALIVE_COLOR : DEAD_COLOR);
+        g.fillOval(x, y, cellSize, cellSize);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        g.setColor(getBackground());
+        g.fillRect(0, 0, getWidth(), getHeight());
+        Insets insets = getInsets();
+        g.drawImage(image, insets.left, insets.top, null);
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        Insets insets = getInsets();
+        return new Dimension(image.getWidth() + insets.left + insets.right,
+                image.getHeight() + insets.top + insets.bottom);
+    }
+
+    // Color the cell is drawn with, for tests
+    public Color getCellColor(int row, int col) {
+        return shown[row][col] ? ALIVE_COLOR : DEAD_COLOR;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    // Backing image, the screen shows exactly these pixels
+    BufferedImage getImage() {
+        return image;
+    }
+}
@@ -0,0 +1,318 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+// Pan and zoom view of a grid of any size (GridCanvas keeps an image of the whole grid, fine for the
+// 30x30 window but not for 10,000x10,000). Only the visible region is drawn, straight into a
+// screen-sized pixel buffer, and the work per frame follows the pixels on screen:
+//   zoom >= 1        one cell per block of pixels, with a gap line from 4 pixels per cell up
+//   1/8 <= zoom < 1  each pixel shows the density of the few cells under it, counted from the bits
+//   zoom < 1/8       density read from per-block live cell counts (8x8 cells, then 16x16...),
+//                    rebuilt from the words once per new generation, 64 cells per popcount
+// Wheel zooms around the pointer, dragging pans
+public class GridViewport extends JComponent {
+    public static final double MAX_ZOOM = 32;
+    // Coarsest level: blocks of 2^15 x 2^15 cells, their counts still fit an int
+    private static final int MAX_LEVEL = 15;
+    public static final double MIN_ZOOM = 1.0 / (1 << MAX_LEVEL);
+    // Zoom factor of one wheel notch
+    private static final double WHEEL_STEP = 1.25;
+    // First level kept as block counts, finer densities are counted per pixel
+    private static final int FIRST_LEVEL = 3;
+
+    private final int rows;
+    private final int cols;
+    private final BitGrid grid;
+    // levels[L]: live cells of each 2^L x 2^L block, row major. Built on demand, null when stale
+    private final int[][] levels = new int[MAX_LEVEL + 1][];
+    private double zoom = 1;           // Screen pixels per cell
+    private double left;               // Grid column at the left edge of the view
+    private double top;                // Grid row at the top edge of the view
+    private BufferedImage screen;
+    private int[] pixels;
+    // Per screen column and row: first and last (exclusive) grid column or row it covers
+    private int[] colFrom = new int[0];
+    private int[] colTo = new int[0];
+    private int[] rowFrom = new int[0];
+    private int[] rowTo = new int[0];
+
+    public GridViewport(int rows, int cols, Color background) {
+        this.rows = rows;
+        this.cols = cols;
+        this.grid = new BitGrid(rows, cols);
+        setBackground(background);
+        setOpaque(true);
+        Navigation navigation = new Navigation();
+        addMouseListener(navigation);
+        addMouseMotionListener(navigation);
+        addMouseWheelListener(navigation);
+    }
+
+    // Show a new generation (copied, the caller keeps its grid)
+    public void setGrid(BitGrid gen) {
+        grid.copyFrom(gen);
+        for (int level = FIRST_LEVEL; level <= MAX_LEVEL; level++) {
+            levels[level] = null;
+        }
+        repaint();
+    }
+
+    // Zoom so the grid point under the screen point (x, y) stays there
+    public void setZoom(double zoom, double x, double y) {
+        double clamped = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoom));
+        left += x / this.zoom - x / clamped;
+        top += y / this.zoom - y / clamped;
+        this.zoom = clamped;
+        repaint();
+    }
+
+    // Move the view by screen pixels, dragging right shows what is on the left
+    public void panBy(double dx, double dy) {
+        left -= dx / zoom;
+        top -= dy / zoom;
+        repaint();
+    }
+
+    // Whole grid in view, centred
+    public void zoomToFit() {
+        int width = Math.max(1, getWidth());
+        int height = Math.max(1, getHeight());
+        zoom = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, Math.min((double) width / cols, (double) height / rows)));
+        left = (cols - width / zoom) / 2;
+        top = (rows - height / zoom) / 2;
+        repaint();
+    }
+
+    // Draw the view into the screen buffer. Package-private for tests
+    BufferedImage render() {
+        int width = Math.max(1, getWidth());
+        int height = Math.max(1, getHeight());
+        if (screen == null || screen.getWidth() != width || screen.getHeight() != height) {
+            screen = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            pixels = ((DataBufferInt) screen.getRaster().getDataBuffer()).getData();
+            colFrom = new int[width];
+            colTo = new int[width];
+            rowFrom = new int[height];
+            rowTo = new int[height];
+        }
+        span(left, cols, colFrom, colTo);
+        span(top, rows, rowFrom, rowTo);
+        if (zoom >= 1) {
+            drawCells(width, height);
+        } else if (getLevel() < FIRST_LEVEL) {
+            drawCounted(width, height);
+        } else {
+            drawLevel(width, height, getLevel());
+        }
+        return screen;
+    }
+
+    // Grid cells [from, to) under each screen pixel, from == to outside the grid
+    private void span(double origin, int limit, int[] from, int[] to) {
+        for (int p = 0; p < from.length; p++) {
+            long first = (long) Math.floor(origin + p / zoom);
+            long end = Math.max(first + 1, (long) Math.floor(origin + (p + 1) / zoom));
+            from[p] = clamp(first, limit);
+            to[p] = Math.max(from[p], clamp(end, limit));
+        }
+    }
+
+    private static int clamp(long cell, int limit) {
+        return (int) Math.max(0, Math.min(limit, cell));
+    }
+
+    // One cell per pixel block, the last pixel row and column of a cell in background from 4 pixels up
+    private void drawCells(int width, int height) {
+        int background = getBackground().getRGB();
+        int alive = GridCanvas.ALIVE_COLOR.getRGB();
+        int dead = GridCanvas.DEAD_COLOR.getRGB();
+        boolean gaps = zoom >= 4;
+        for (int y = 0; y < height; y++) {
+            int offset = y * width;
+            int row = rowFrom[y];
+            boolean rowGap = gaps && y + 1 < height && rowFrom[y + 1] != row;
+            if (rowTo[y] == row || rowGap) {
+                Arrays.fill(pixels, offset, offset + width, background);
+                continue;
+            }
+            for (int x = 0; x < width; x++) {
+                int col = colFrom[x];
+                if (colTo[x] == col || gaps && x + 1 < width && colFrom[x + 1] != col) {
+                    pixels[offset + x] = background;
+                } else {
+                    pixels[offset + x] = grid.isAlive(row, col) ? alive : dead;
+                }
+            }
+        }
+    }
+
+    // Up to 8x8 cells per pixel: count them straight from the row words
+    private void drawCounted(int width, int height) {
+        int background = getBackground().getRGB();
+        for (int y = 0; y < height; y++) {
+            int offset = y * width;
+            for (int x = 0; x < width; x++) {
+                int cells = (rowTo[y] - rowFrom[y]) * (colTo[x] - colFrom[x]);
+                if (cells == 0) {
+                    pixels[offset + x] = background;
+                    continue;
+                }
+                int live = 0;
+                for (int row = rowFrom[y]; row < rowTo[y]; row++) {
+                    live += grid.countRange(row, colFrom[x], colTo[x]);
+                }
+                pixels[offset + x] = shade((double) live / cells);
+            }
+        }
+    }
+
+    // Coarser: each pixel covers 1 to 3 blocks of the level per side, their counts are added up
+    private void drawLevel(int width, int height, int level) {
+        int[] counts = level(level);
+        int blockCols = blocks(cols, level);
+        int background = getBackground().getRGB();
+        for (int y = 0; y < height; y++) {
+            int offset = y * width;
+            if (rowTo[y] == rowFrom[y]) {
+                Arrays.fill(pixels, offset, offset + width, background);
+                continue;
+            }
+            int blockRowFrom = rowFrom[y] >> level;
+            int blockRowTo = ((rowTo[y] - 1) >> level) + 1;
+            for (int x = 0; x < width; x++) {
+                if (colTo[x] == colFrom[x]) {
+                    pixels[offset + x] = background;
+                    continue;
+                }
+                int blockColFrom = colFrom[x] >> level;
+                int blockColTo = ((colTo[x] - 1) >> level) + 1;
+                long live = 0;
+                for (int br = blockRowFrom; br < blockRowTo; br++) {
+                    for (int bc = blockColFrom; bc < blockColTo; bc++) {
+                        live += counts[br * blockCols + bc];
+                    }
+                }
+                long area = (long) (Math.min(rows, blockRowTo << level) - (blockRowFrom << level))
+                        * (Math.min(cols, blockColTo << level) - (blockColFrom << level));
+                pixels[offset + x] = shade((double) live / area);
+            }
+        }
+    }
+
+    // White (empty) to black (full)
+    private static int shade(double density) {
+        int v = (int) Math.round(255 * (1 - density));
+        return v << 16 | v << 8 | v;
+    }
+
+    private static int blocks(int cells, int level) {
+        return ((cells - 1) >> level) + 1;
+    }
+
+    // Block counts of a level, built from the finer one (or from the bits for the first level)
+    int[] level(int level) {
+        if (levels[level] != null) {
+            return levels[level];
+        }
+        int blockRows = blocks(rows, level);
+        int blockCols = blocks(cols, level);
+        int[] counts = new int[blockRows * blockCols];
+        if (level == FIRST_LEVEL) {
+            // One byte of a word is 8 cells of a block row
+            long[] cells = grid.getCells();
+            for (int row = 0; row < rows; row++) {
+                int index = grid.index(row, 0);
+                int base = (row >> FIRST_LEVEL) * blockCols;
+                for (int w = 0; w < grid.getWords(); w++) {
+                    long word = cells[index + w];
+                    for (int b = 0; word != 0; b++, word >>>= 8) {
+                        counts[base + w * 8 + b] += Long.bitCount(word & 0xFF);
+                    }
+                }
+            }
+        } else {
+            int[] finer = level(level - 1);
+            int finerRows = blocks(rows, level - 1);
+            int finerCols = blocks(cols, level - 1);
+            for (int r = 0; r < finerRows; r++) {
+                for (int c = 0; c < finerCols; c++) {
+                    counts[(r >> 1) * blockCols + (c >> 1)] += finer[r * finerCols + c];
+                }
+            }
+        }
+        levels[level] = counts;
+        return counts;
+    }
+
+    // Level of detail in use: 0 draws cells, L shows the density of 2^L x 2^L cell blocks
+    public int getLevel() {
+        if (zoom >= 1) {
+            return 0;
+        }
+        return Math.min(MAX_LEVEL, 63 - Long.numberOfLeadingZeros((long) Math.floor(1 / zoom)));
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        g.drawImage(render(), 0, 0, null);
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        return new Dimension(800, 800);
+    }
+
+    public double getZoom() {
+        return zoom;
+    }
+
+    // Grid coordinates of the top left corner of the view
+    public double getViewLeft() {
+        return left;
+    }
+
+    public double getViewTop() {
+        return top;
+    }
+
+    // Colour the cell is drawn with when zoomed in, for tests
+    public Color getCellColor(int row, int col) {
+        return grid.isAlive(row, col) ? GridCanvas.ALIVE_COLOR : GridCanvas.DEAD_COLOR;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    // Wheel zooms around the pointer, dragging pans
+    private final class Navigation extends MouseAdapter {
+        private Point last;
+
+        @Override
+        public void mousePressed(MouseEvent e) {
+            last = e.getPoint();
+        }
+
+        @Override
+        public void mouseDragged(MouseEvent e) {
+            if (last != null) {
+                panBy(e.getX() - last.x, e.getY() - last.y);
+            }
+            last = e.getPoint();
+        }
+
+        @Override
+        public void mouseWheelMoved(MouseWheelEvent e) {
+            setZoom(zoom * Math.pow(WHEEL_STEP, -e.getPreciseWheelRotation()), e.getX(), e.getY());
+        }
+    }
+}
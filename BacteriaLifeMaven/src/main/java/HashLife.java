@@ -0,0 +1,407 @@
+import java.util.Arrays;
+
+// HashLife engine for huge grids and far-future jumps. The universe is an unbounded quadtree
+// of canonical nodes (equal squares are the same object), and the future of every node is
+// memoized, so repeated structure in space and time is only computed once.
+// Rules are the same B3/S23 as BacteriaLifeLogic, but without edges: cells never run out of room.
+public class HashLife {
+    public static final int DEFAULT_MAX_NODES = 1 << 22;
+    private static final int MIN_LEVEL = 3;
+
+    // Square of 2^level cells per side. Level 0 nodes are single cells
+    static final class Node {
+        final int level;
+        final Node nw;
+        final Node ne;
+        final Node sw;
+        final Node se;
+        final long population;
+        final long id;
+        final int hash;
+        Node chain; // Next node in the same bucket of the canonical table
+        // Memoized center after 2^resultStep generations
+        Node result;
+        int resultStep = -1;
+
+        Node(long id, boolean alive) {
+            this.level = 0;
+            this.nw = this.ne = this.sw = this.se = null;
+            this.population = alive ? 1 : 0;
+            this.id = id;
+            this.hash = (int) id;
+        }
+
+        Node(long id, int hash, Node nw, Node ne, Node sw, Node se) {
+            this.level = nw.level + 1;
+            this.nw = nw;
+            this.ne = ne;
+            this.sw = sw;
+            this.se = se;
+            this.population = nw.population + ne.population + sw.population + se.population;
+            this.id = id;
+            this.hash = hash;
+        }
+    }
+
+    private final Node dead = new Node(0, false);
+    private final Node alive = new Node(1, true);
+    private final int maxNodes;
+    // Node count that triggers a collection: maxNodes, or more when the universe alone needs more
+    private int limit;
+    private int peak = 0;
+    private long nextId = 2;
+    private Node[] table = new Node[1 << 10];
+    private int count = 0;
+    private final Node[] empties = new Node[64];
+    // Nodes whose successor is being computed, kept by a collection in the middle of a jump
+    private Node[] frames = new Node[64];
+    private int depth = 0;
+
+    // Current universe: root square, position of its top left cell and generations done
+    private Node root;
+    private long originRow = 0;
+    private long originCol = 0;
+    private long generation = 0;
+
+    public HashLife() {
+        this(DEFAULT_MAX_NODES);
+    }
+
+    // The node cache is emptied of everything the current universe doesn't use once it grows past
+    // maxNodes, also in the middle of a jump
+    public HashLife(int maxNodes) {
+        this.maxNodes = maxNodes;
+        this.limit = maxNodes;
+        this.root = empty(MIN_LEVEL);
+    }
+
+    // Import a generation in the int[][] format, its top left cell at (0, 0)
+    public static HashLife fromGen(int[][] gen) {
+        return fromGen(gen, DEFAULT_MAX_NODES);
+    }
+
+    public static HashLife fromGen(int[][] gen, int maxNodes) {
+        HashLife life = new HashLife(maxNodes);
+        int size = Math.max(gen.length, gen[0].length);
+        int level = MIN_LEVEL;
+        while ((1L << level) < size) {
+            level++;
+        }
+        life.root = life.build(gen, level, 0, 0);
+        return life;
+    }
+
+    private Node build(int[][] gen, int level, int row, int col) {
+        if (row >= gen.length || col >= gen[0].length) {
+            return empty(level);
+        }
+        if (level == 0) {
+            return gen[row][col] == 1 ? alive : dead;
+        }
+        int half = 1 << (level - 1);
+        return node(build(gen, level - 1, row, col), build(gen, level - 1, row, col + half),
+                build(gen, level - 1, row + half, col), build(gen, level - 1, row + half, col + half));
+    }
+
+    // Write the window of the universe starting at (row, col) into an existing int[][]
+    public void exportTo(int[][] gen, long row, long col) {
+        for (int[] line : gen) {
+            Arrays.fill(line, 0);
+        }
+        fill(gen, root, originRow - row, originCol - col);
+    }
+
+    // The same rows and columns that fromGen read
+    public int[][] toGen(int rows, int cols) {
+        int[][] gen = new int[rows][cols];
+        exportTo(gen, 0, 0);
+        return gen;
+    }
+
+    private void fill(int[][] gen, Node n, long row, long col) {
+        long size = 1L << n.level;
+        if (n.population == 0 || row >= gen.length || col >= gen[0].length || row + size <= 0 || col + size <= 0) {
+            return;
+        }
+        if (n.level == 0) {
+            gen[(int) row][(int) col] = 1;
+            return;
+        }
+        long half = size >>> 1;
+        fill(gen, n.nw, row, col);
+        fill(gen, n.ne, row, col + half);
+        fill(gen, n.sw, row + half, col);
+        fill(gen, n.se, row + half, col + half);
+    }
+
+    public boolean isAlive(long row, long col) {
+        row -= originRow;
+        col -= originCol;
+        Node n = root;
+        if (row < 0 || col < 0 || row >= (1L << n.level) || col >= (1L << n.level)) {
+            return false;
+        }
+        while (n.level > 0) {
+            long half = 1L << (n.level - 1);
+            boolean south = row >= half;
+            boolean east = col >= half;
+            n = south ? (east ? n.se : n.sw) : (east ? n.ne : n.nw);
+            row -= south ? half : 0;
+            col -= east ? half : 0;
+        }
+        return n.population == 1;
+    }
+
+    // Advance 2^log2 generations in one go
+    public void jump(int log2) {
+        if (log2 < 0 || log2 > 60) {
+            throw new IllegalArgumentException("Jump must be 2^0 .. 2^60 generations: 2^" + log2);
+        }
+        // Room for the pattern to grow 2^log2 cells on every side
+        while (root.level < log2 + 2 || !centered(root)) {
+            expand();
+        }
+        expand();
+        Node next = successor(root, log2);
+        long quarter = 1L << (root.level - 2);
+        originRow += quarter;
+        originCol += quarter;
+        root = next;
+        generation += 1L << log2;
+        if (count > maxNodes) {
+            collect();
+        }
+    }
+
+    // Advance any number of generations as a sum of power of two jumps
+    public void advance(long generations) {
+        for (int bit = 0; generations != 0; bit++, generations >>>= 1) {
+            if ((generations & 1) != 0) {
+                jump(bit);
+            }
+        }
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    public long getPopulation() {
+        return root.population;
+    }
+
+    // Canonical nodes currently cached
+    public int getNodeCount() {
+        return count;
+    }
+
+    // Most nodes ever cached at once
+    public int getPeakNodeCount() {
+        return peak;
+    }
+
+    // All live cells are in the central half of the node
+    private boolean centered(Node n) {
+        return n.population == center(n).population;
+    }
+
+    // Same universe inside a square twice as big
+    private void expand() {
+        Node e = empty(root.level - 1);
+        long half = 1L << (root.level - 1);
+        root = node(node(e, e, e, root.nw), node(e, e, root.ne, e),
+                node(e, root.sw, e, e), node(root.se, e, e, e));
+        originRow -= half;
+        originCol -= half;
+    }
+
+    // Center of n (level - 1) after 2^step generations, with step <= level - 2
+    private Node successor(Node n, int step) {
+        if (n.population == 0) {
+            return empty(n.level - 1);
+        }
+        if (n.result != null && n.resultStep == step) {
+            return n.result;
+        }
+        Node result;
+        if (n.level == 2) {
+            result = baseStep(n);
+        } else {
+            if (depth == frames.length) {
+                frames = Arrays.copyOf(frames, depth * 2);
+            }
+            frames[depth++] = n;
+            // Nine overlapping sub-squares of half the size
+            Node n00 = n.nw, n01 = horizontal(n.nw, n.ne), n02 = n.ne;
+            Node n10 = vertical(n.nw, n.sw), n11 = center(n), n12 = vertical(n.ne, n.se);
+            Node n20 = n.sw, n21 = horizontal(n.sw, n.se), n22 = n.se;
+            if (step == n.level - 2) {
+                // Full speed: two rounds of 2^(level-3) generations each
+                Node a00 = successor(n00, step - 1), a01 = successor(n01, step - 1), a02 = successor(n02, step - 1);
+                Node a10 = successor(n10, step - 1), a11 = successor(n11, step - 1), a12 = successor(n12, step - 1);
+                Node a20 = successor(n20, step - 1), a21 = successor(n21, step - 1), a22 = successor(n22, step - 1);
+                result = node(successor(node(a00, a01, a10, a11), step - 1),
+                        successor(node(a01, a02, a11, a12), step - 1),
+                        successor(node(a10, a11, a20, a21), step - 1),
+                        successor(node(a11, a12, a21, a22), step - 1));
+            } else {
+                // Slower jump: advance the nine squares, then just take the centers
+                Node a00 = successor(n00, step), a01 = successor(n01, step), a02 = successor(n02, step);
+                Node a10 = successor(n10, step), a11 = successor(n11, step), a12 = successor(n12, step);
+                Node a20 = successor(n20, step), a21 = successor(n21, step), a22 = successor(n22, step);
+                result = node(centerOf(a00, a01, a10, a11), centerOf(a01, a02, a11, a12),
+                        centerOf(a10, a11, a20, a21), centerOf(a11, a12, a21, a22));
+            }
+            frames[--depth] = null;
+        }
+        n.result = result;
+        n.resultStep = step;
+        return result;
+    }
+
+    // 4x4 square: the 2x2 center after one generation, cell by cell
+    private Node baseStep(Node n) {
+        int bits = 0; // Bit r * 4 + c
+        for (int r = 0; r < 4; r++) {
+            for (int c = 0; c < 4; c++) {
+                Node q = r < 2 ? (c < 2 ? n.nw : n.ne) : (c < 2 ? n.sw : n.se);
+                Node cell = (r & 1) == 0 ? ((c & 1) == 0 ? q.nw : q.ne) : ((c & 1) == 0 ? q.sw : q.se);
+                bits |= (int) cell.population << (r * 4 + c);
+            }
+        }
+        return node(nextCell(bits, 1, 1), nextCell(bits, 1, 2), nextCell(bits, 2, 1), nextCell(bits, 2, 2));
+    }
+
+    private Node nextCell(int bits, int row, int col) {
+        int neighbours = 0;
+        for (int r = row - 1; r <= row + 1; r++) {
+            for (int c = col - 1; c <= col + 1; c++) {
+                if (r != row || c != col) {
+                    neighbours += (bits >>> (r * 4 + c)) & 1;
+                }
+            }
+        }
+        boolean wasAlive = ((bits >>> (row * 4 + col)) & 1) != 0;
+        return neighbours == 3 || (wasAlive && neighbours == 2) ? alive : dead;
+    }
+
+    private Node center(Node n) {
+        return node(n.nw.se, n.ne.sw, n.sw.ne, n.se.nw);
+    }
+
+    private Node horizontal(Node w, Node e) {
+        return node(w.ne, e.nw, w.se, e.sw);
+    }
+
+    private Node vertical(Node n, Node s) {
+        return node(n.sw, n.se, s.nw, s.ne);
+    }
+
+    // Center of the square made of four same-level nodes
+    private Node centerOf(Node nw, Node ne, Node sw, Node se) {
+        return node(nw.se, ne.sw, sw.ne, se.nw);
+    }
+
+    private Node empty(int level) {
+        if (empties[level] == null) {
+            Node e = level == 0 ? dead : empty(level - 1);
+            empties[level] = level == 0 ? dead : node(e, e, e, e);
+        }
+        return empties[level];
+    }
+
+    // Canonical node with these children: an existing one if it was built before
+    private Node node(Node nw, Node ne, Node sw, Node se) {
+        int hash = hash(nw, ne, sw, se);
+        int bucket = hash & (table.length - 1);
+        for (Node n = table[bucket]; n != null; n = n.chain) {
+            if (n.nw == nw && n.ne == ne && n.sw == sw && n.se == se) {
+                return n;
+            }
+        }
+        Node n = new Node(nextId++, hash, nw, ne, sw, se);
+        insert(n);
+        if (count > limit) {
+            // Nodes the collection drops are still held by the callers and stay correct, they are
+            // just no longer shared with equal squares built later
+            collect();
+        }
+        return n;
+    }
+
+    private static int hash(Node nw, Node ne, Node sw, Node se) {
+        long h = nw.id * 0x9E3779B97F4A7C15L + ne.id;
+        h = h * 0x9E3779B97F4A7C15L + sw.id;
+        h = h * 0x9E3779B97F4A7C15L + se.id;
+        h ^= h >>> 29;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private void insert(Node n) {
+        if (count >= table.length - (table.length >>> 2)) {
+            resize(table.length << 1);
+        }
+        int bucket = n.hash & (table.length - 1);
+        n.chain = table[bucket];
+        table[bucket] = n;
+        count++;
+        peak = Math.max(peak, count);
+    }
+
+    private void resize(int length) {
+        Node[] old = table;
+        table = new Node[length];
+        for (Node head : old) {
+            for (Node n = head; n != null; ) {
+                Node following = n.chain;
+                int bucket = n.hash & (length - 1);
+                n.chain = table[bucket];
+                table[bucket] = n;
+                n = following;
+            }
+        }
+    }
+
+    // Eviction: keep only the nodes of the current universe, the empty squares and the squares of a
+    // jump in progress, and forget the memoized futures. Everything else is left to the garbage collector
+    private void collect() {
+        Node[] old = table;
+        table = new Node[old.length];
+        count = 0;
+        for (Node head : old) {
+            for (Node n = head; n != null; n = n.chain) {
+                n.result = null;
+                n.resultStep = -1;
+            }
+        }
+        keep(root);
+        for (Node e : empties) {
+            if (e != null) {
+                keep(e);
+            }
+        }
+        for (int i = 0; i < depth; i++) {
+            keep(frames[i]);
+        }
+        // When what has to stay is close to the bound, collecting again right away would free
+        // nothing: let the cache grow to twice the kept nodes first
+        limit = Math.max(maxNodes, 2 * count);
+    }
+
+    private void keep(Node n) {
+        if (n.level == 0) {
+            return;
+        }
+        int bucket = n.hash & (table.length - 1);
+        for (Node k = table[bucket]; k != null; k = k.chain) {
+            if (k == n) {
+                return; // Shared subtree, already kept
+            }
+        }
+        keep(n.nw);
+        keep(n.ne);
+        keep(n.sw);
+        keep(n.se);
+        insert(n);
+    }
+}
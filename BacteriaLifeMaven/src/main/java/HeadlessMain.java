@@ -0,0 +1,468 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+
+// Headless entry point for batch nodes: no Swing/AWT class is touched, and generations run
+// as fast as the CPU allows instead of one per UI timer tick. Prints one JSON line per run.
+//   java -cp BacteriaLife.jar HeadlessMain --size 512 --seed 42 --density 0.3 --generations 5000
+public class HeadlessMain {
+    static final String USAGE = "Usage: HeadlessMain [--size N] [--seed S] [--density D] [--generations G]"
+            + " [--engine dense|parallel|sparse|cluster|offheap] [--threads T] [--workers W] [--record FILE]"
+            + " [--rule B3/S23] [--boundary dead|torus] [--metrics true|false] [--soups N]"
+            + " [--map FILE] [--checkpoint FILE] [--checkpoint-every N] [--resume FILE]";
+
+    // Run settings, defaults match the Swing version
+    static class Options {
+        int size = 30;
+        long seed = System.nanoTime();
+        double density = 0.5;
+        int generations = 300;
+        String engine = "dense";
+        int threads = Runtime.getRuntime().availableProcessors();
+        int workers = 2; // Worker JVMs of the cluster engine
+        Path record; // History file for GenerationReplay, dense engines only
+        Rule rule = Rule.CONWAY; // Other rules need a dense engine
+        Boundary boundary = Boundary.DEAD; // The torus needs a dense engine
+        boolean metrics; // Step latency and allocation summary, dense engines only
+        int soups = 1; // More than one: an ensemble of dense runs, seeds seed .. seed + soups - 1
+        Path map; // File the offheap engine maps the grid to, instead of direct memory
+        Path checkpoint; // Written in the background every checkpointEvery rounds, dense engines only
+        int checkpointEvery = 100;
+        Path resume; // Go on from a checkpoint: grid, rule, boundary, seed and limit come from it
+        boolean startGiven; // Any of --size, --seed, --density, --rule, --boundary
+        boolean generationsGiven; // Overrides the limit of a resumed run
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + arg);
+                }
+                String value = args[++i];
+                switch (arg) {
+                    case "--size":
+                        options.size = Integer.parseInt(value);
+                        options.startGiven = true;
+                        break;
+                    case "--seed":
+                        options.seed = Long.parseLong(value);
+                        options.startGiven = true;
+                        break;
+                    case "--density":
+                        options.density = Double.parseDouble(value);
+                        options.startGiven = true;
+                        break;
+                    case "--generations":
+                        options.generations = Integer.parseInt(value);
+                        options.generationsGiven = true;
+                        break;
+                    case "--engine":
+                        options.engine = value;
+                        break;
+                    case "--threads":
+                        options.threads = Integer.parseInt(value);
+                        break;
+                    case "--workers":
+                        options.workers = Integer.parseInt(value);
+                        break;
+                    case "--rule":
+                        options.rule = Rule.parse(value);
+                        options.startGiven = true;
+                        break;
+                    case "--boundary":
+                        options.boundary = Boundary.parse(value);
+                        options.startGiven = true;
+                        break;
+                    case "--metrics":
+                        if (!value.equals("true") && !value.equals("false")) {
+                            throw new IllegalArgumentException("--metrics must be true or false");
+                        }
+                        options.metrics = value.equals("true");
+                        break;
+                    case "--soups":
+                        options.soups = Integer.parseInt(value);
+                        break;
+                    case "--checkpoint":
+                        options.checkpoint = Paths.get(value);
+                        break;
+                    case "--checkpoint-every":
+                        options.checkpointEvery = Integer.parseInt(value);
+                        break;
+                    case "--resume":
+                        options.resume = Paths.get(value);
+                        break;
+                    case "--map":
+                        options.map = Paths.get(value);
+                        break;
+                    case "--record":
+                        options.record = Paths.get(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + arg);
+                }
+            }
+            if (options.size <= 0 || options.generations < 0 || options.threads <= 0 || options.workers <= 0
+                    || options.soups <= 0 || options.checkpointEvery <= 0) {
+                throw new IllegalArgumentException("Size, threads, workers, soups and checkpoint-every must be positive,"
+                        + " generations not negative");
+            }
+            if (options.workers > options.size) {
+                throw new IllegalArgumentException("At most one cluster worker per row");
+            }
+            if (options.density < 0 || options.density > 1) {
+                throw new IllegalArgumentException("Density must be between 0 and 1");
+            }
+            if (!options.engine.equals("dense") && !options.engine.equals("parallel")
+                    && !options.engine.equals("sparse") && !options.engine.equals("cluster")
+                    && !options.engine.equals("offheap")) {
+                throw new IllegalArgumentException("Unknown engine " + options.engine);
+            }
+            boolean dense = options.engine.equals("dense") || options.engine.equals("parallel");
+            if (options.record != null && !dense) {
+                throw new IllegalArgumentException("--record needs the dense or parallel engine");
+            }
+            if (options.boundary != Boundary.DEAD
+                    && (options.engine.equals("sparse") || options.engine.equals("offheap"))) {
+                throw new IllegalArgumentException("The " + options.engine + " engine only has dead edges");
+            }
+            if (options.map != null && !options.engine.equals("offheap")) {
+                throw new IllegalArgumentException("--map needs the offheap engine");
+            }
+            if (options.metrics && !dense) {
+                throw new IllegalArgumentException("--metrics needs the dense or parallel engine");
+            }
+            if (!options.rule.equals(Rule.CONWAY) && options.engine.equals("sparse")) {
+                throw new IllegalArgumentException("The sparse engine only plays B3/S23");
+            }
+            if (options.soups > 1 && (!options.engine.equals("dense") || options.record != null || options.metrics
+                    || options.checkpoint != null || options.resume != null)) {
+                throw new IllegalArgumentException("--soups runs the dense engine, without --record, --metrics,"
+                        + " --checkpoint or --resume");
+            }
+            if ((options.checkpoint != null || options.resume != null) && !dense) {
+                throw new IllegalArgumentException("--checkpoint and --resume need the dense or parallel engine");
+            }
+            if (options.resume != null && options.startGiven) {
+                throw new IllegalArgumentException("A resumed run takes its grid, rule and boundary from the checkpoint");
+            }
+            return options;
+        }
+    }
+
+    public static void main(String[] args) {
+        int code = run(args, System.out, System.err);
+        if (code != 0) {
+            System.exit(code);
+        }
+    }
+
+    // Parse, simulate and print the result. Returns the process exit code
+    static int run(String[] args, PrintStream out, PrintStream err) {
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            err.println(USAGE);
+            return 2;
+        }
+
+        Checkpoint resumed = null;
+        if (options.resume != null) {
+            try {
+                resumed = Checkpoint.read(options.resume);
+                resumeOptions(options, resumed);
+            } catch (IOException | IllegalArgumentException e) {
+                err.println("Can't resume from " + options.resume + ": " + e.getMessage());
+                return 1;
+            }
+        }
+        BacteriaLifeLogic logic = new BacteriaLifeLogic(options.size);
+
+        long start = System.nanoTime();
+        String result;
+        GenerationRecorder recorder = null;
+        CheckpointWriter checkpoints = null;
+        try {
+            if (options.record != null) {
+                recorder = new GenerationRecorder(options.record, options.size, options.size);
+                logic.setRecorder(recorder);
+            }
+            if (options.checkpoint != null) {
+                checkpoints = new CheckpointWriter(options.checkpoint);
+                logic.setCheckpointWriter(checkpoints, options.checkpointEvery);
+            }
+            result = simulate(logic, options, resumed);
+            if (checkpoints != null) {
+                // Wait for the last one, a failed write fails the run
+                try {
+                    checkpoints.close();
+                } catch (IOException e) {
+                    err.println("Can't write checkpoint " + options.checkpoint + ": " + e.getMessage());
+                    return 1;
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            // Only the recording, the mapped grid and the cluster connections do IO
+            err.println(failure(options) + ": " + e.getMessage());
+            return 1;
+        } finally {
+            closeQuietly(recorder, err);
+            if (checkpoints != null) {
+                try {
+                    checkpoints.close();
+                } catch (IOException e) {
+                    // Reported by the first close, or the run failed already
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        out.println(result + format(",\"elapsedMs\":%.3f}", elapsed / 1e6));
+        return 0;
+    }
+
+    // Run the chosen engine, parse already checked the name
+    private static String simulate(BacteriaLifeLogic logic, Options options, Checkpoint resumed) {
+        if (options.soups > 1) {
+            return runEnsemble(options);
+        }
+        switch (options.engine) {
+            case "parallel":
+                ForkJoinPool pool = new ForkJoinPool(options.threads);
+                try {
+                    return runDense(logic, options, new ParallelStepper(pool, 0), resumed);
+                } finally {
+                    pool.shutdown();
+                }
+            case "sparse":
+                return runSparse(logic.generateInitialGen(options.seed, options.density), options);
+            case "cluster":
+                return runCluster(options);
+            case "offheap":
+                return runOffHeap(options);
+            default:
+                return runDense(logic, options, null, resumed);
+        }
+    }
+
+    private static String failure(Options options) {
+        if (options.record != null) {
+            return "Can't record to " + options.record;
+        }
+        return options.map != null ? "Can't map " + options.map : "Cluster run failed";
+    }
+
+    // The run is described by the checkpoint; only the limit can still be changed
+    private static void resumeOptions(Options options, Checkpoint checkpoint) {
+        if (checkpoint.getRows() != checkpoint.getCols()) {
+            throw new IllegalArgumentException("Only square grids can be resumed here");
+        }
+        options.size = checkpoint.getRows();
+        options.seed = checkpoint.getSeed();
+        if (!Double.isNaN(checkpoint.getDensity())) {
+            options.density = checkpoint.getDensity();
+        }
+        options.rule = checkpoint.getRule();
+        options.boundary = checkpoint.getBoundary();
+        if (!options.generationsGiven) {
+            options.generations = checkpoint.getMaxRounds();
+        }
+    }
+
+    // The index is written on close, a failure there leaves the recording unreadable
+    private static void closeQuietly(GenerationRecorder recorder, PrintStream err) {
+        if (recorder == null) {
+            return;
+        }
+        try {
+            recorder.close();
+        } catch (IOException e) {
+            err.println("Can't finish the recording: " + e.getMessage());
+        }
+    }
+
+    // Dense bit-packed engine: stops on a still life, an oscillator or the generation limit
+    private static String runDense(BacteriaLifeLogic logic, Options options,
+                                   ParallelStepper parallel, Checkpoint resumed) {
+        logic.setParallelStepper(parallel);
+        logic.setRule(options.rule);
+        logic.setBoundary(options.boundary);
+        logic.setMaxRounds(options.generations);
+        StepMetrics metrics = options.metrics ? new StepMetrics() : null;
+        logic.setStepListener(metrics);
+        if (resumed != null) {
+            logic.resume(resumed);
+            logic.setMaxRounds(options.generations);
+        } else {
+            // Filled on the stepper's pool, the same grid as the sparse engine's for the seed
+            logic.loadRandom(options.seed, options.density);
+        }
+        // A resumed run starts past round 0, and those rounds took no time in this process
+        int firstRound = logic.getRound();
+        long start = System.nanoTime();
+        while (logic.step() && !logic.isCycling()) {
+            // Keep stepping
+        }
+        long elapsed = System.nanoTime() - start;
+        int generations = Math.min(logic.getRound(), options.generations);
+        return header(options) + result(generations, logic.getCycleStart(), logic.getCyclePeriod(),
+                logic.getPopulation(), perSecond(Math.max(0, generations - firstRound), elapsed))
+                + (metrics != null ? metrics(metrics) : "");
+    }
+
+    // Latencies in microseconds, allocation of the stepping thread (-1 if the JVM can't tell)
+    private static String metrics(StepMetrics metrics) {
+        return format(",\"metrics\":{\"stepP50Micros\":%.3f,\"stepP99Micros\":%.3f,\"stepMaxMicros\":%.3f"
+                        + ",\"births\":%d,\"deaths\":%d,\"allocatedBytesPerStep\":%.1f}",
+                metrics.getLatencyPercentile(50) / 1e3, metrics.getLatencyPercentile(99) / 1e3,
+                metrics.getMaxLatency() / 1e3, metrics.getBirths(), metrics.getDeaths(),
+                metrics.getAllocatedBytesPerStep());
+    }
+
+    // Sparse engine bounded to the same grid: stops on a still life or the generation limit
+    private static String runSparse(int[][] initial, Options options) {
+        SparseLife life = SparseLife.fromGen(initial, true);
+        long start = System.nanoTime();
+        boolean stable = false;
+        while (life.getGeneration() < options.generations && !stable) {
+            life.step();
+            stable = life.getBirths() == 0 && life.getDeaths() == 0;
+        }
+        long elapsed = System.nanoTime() - start;
+        long generations = life.getGeneration();
+        return header(options) + result(generations, stable ? generations - 1 : -1, stable ? 1 : 0,
+                life.getPopulation(), perSecond(generations, elapsed));
+    }
+
+    // Worker JVMs on this machine: stops on a still life or the generation limit, like the sparse engine
+    private static String runCluster(Options options) {
+        ClusterCoordinator cluster = new ClusterCoordinator(options.size, options.workers);
+        cluster.setRule(options.rule);
+        cluster.setBoundary(options.boundary);
+        cluster.setMaxRounds(options.generations);
+        long start = System.nanoTime();
+        ClusterCoordinator.Result run;
+        try {
+            run = cluster.run(options.seed, options.density);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        long elapsed = System.nanoTime() - start;
+        int generations = run.getRounds();
+        return header(options) + format(",\"workers\":%d", options.workers)
+                + result(generations, run.getCycleStart(), run.getCyclePeriod(), run.getPopulation(),
+                perSecond(generations, elapsed));
+    }
+
+    // Independent soups on a pool of --threads workers, each one a dense run of its own
+    private static String runEnsemble(Options options) {
+        EnsembleRunner ensemble = new EnsembleRunner(options.size);
+        ensemble.setDensity(options.density);
+        ensemble.setMaxRounds(options.generations);
+        ensemble.setRule(options.rule);
+        ensemble.setBoundary(options.boundary);
+        ForkJoinPool pool = new ForkJoinPool(options.threads);
+        EnsembleRunner.Result run;
+        try {
+            run = ensemble.run(options.seed, options.soups, pool);
+        } finally {
+            pool.shutdown();
+        }
+        return header(options) + format(",\"soups\":%d,\"stabilized\":%d,\"roundsToStability\":%s"
+                        + ",\"population\":%s,\"soupsPerSecond\":%.1f",
+                run.getSoups(), run.getStabilized(), distribution(run.getRoundsToStabilityDistribution()),
+                distribution(run.getPopulationDistribution()), run.getSoupsPerSecond());
+    }
+
+    private static String distribution(EnsembleRunner.Distribution values) {
+        return format("{\"min\":%d,\"p50\":%d,\"p90\":%d,\"p99\":%d,\"max\":%d,\"mean\":%.3f}",
+                values.getMin(), values.getPercentile(50), values.getPercentile(90), values.getPercentile(99),
+                values.getMax(), values.getMean());
+    }
+
+    // Grid outside the heap, in direct memory or mapped to --map FILE (the other generation to
+    // FILE.next, removed at the end). Stops on a still life or the generation limit, like the sparse engine
+    private static String runOffHeap(Options options) {
+        Path spare = options.map == null ? null : options.map.resolveSibling(options.map.getFileName() + ".next");
+        OffHeapGrid current = null;
+        OffHeapGrid next = null;
+        try {
+            current = options.map != null ? OffHeapGrid.map(options.map, options.size, options.size)
+                    : OffHeapGrid.allocate(options.size, options.size);
+            next = spare != null ? OffHeapGrid.map(spare, options.size, options.size)
+                    : OffHeapGrid.allocate(options.size, options.size);
+            OffHeapGrid file = current;
+            current.fillRandom(options.seed, options.density);
+            StepStats stats = new StepStats();
+            long start = System.nanoTime();
+            int generations = 0;
+            boolean stable = false;
+            while (generations < options.generations && !stable) {
+                stats.reset();
+                OffHeapGrid.step(current, next, options.rule, stats);
+                OffHeapGrid swap = current;
+                current = next;
+                next = swap;
+                generations++;
+                stable = stats.getBirths() == 0 && stats.getDeaths() == 0;
+            }
+            long elapsed = System.nanoTime() - start;
+            if (current != file) {
+                // The last generation ends up in FILE
+                file.copyFrom(current);
+            }
+            return header(options) + result(generations, stable ? generations - 1 : -1, stable ? 1 : 0,
+                    current.population(), perSecond(generations, elapsed));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            closeOffHeap(current, next, spare);
+        }
+    }
+
+    private static void closeOffHeap(OffHeapGrid current, OffHeapGrid next, Path spare) {
+        try {
+            if (current != null) {
+                current.close();
+            }
+            if (next != null) {
+                next.close();
+            }
+            if (spare != null) {
+                Files.deleteIfExists(spare);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String header(Options options) {
+        return format("{\"engine\":\"%s\",\"size\":%d,\"seed\":%d,\"density\":%s,\"generationLimit\":%d"
+                        + ",\"rule\":\"%s\",\"boundary\":\"%s\"",
+                options.engine, options.size, options.seed, options.density, options.generations, options.rule,
+                options.boundary);
+    }
+
+    // roundsToStability is the round the still life or cycle started, -1 if the limit came first
+    private static String result(long rounds, long roundsToStability, int period, long population,
+                                 double generationsPerSecond) {
+        return format(",\"rounds\":%d,\"roundsToStability\":%d,\"period\":%d,\"population\":%d"
+                        + ",\"generationsPerSecond\":%.1f",
+                rounds, roundsToStability, period, population, generationsPerSecond);
+    }
+
+    private static double perSecond(long generations, long nanos) {
+        return nanos == 0 ? 0 : generations * 1e9 / nanos;
+    }
+
+    // Machine readable output always uses '.' as decimal separator
+    private static String format(String pattern, Object... values) {
+        return String.format(Locale.ROOT, pattern, values);
+    }
+}
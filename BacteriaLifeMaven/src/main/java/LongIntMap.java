@@ -0,0 +1,145 @@
+// Open addressing hash map from long keys to int values, with no boxing.
+// Used by the sparse engine with packed cell coordinates as keys.
+// The used slots are also kept in a list, so clearing and iterating cost the entries, not the
+// capacity, and clear gives back the room of a past burst once the map is mostly empty
+public class LongIntMap {
+    // Largest table: 2^30 slots, half of them usable
+    static final int MAX_CAPACITY = 1 << 30;
+    private final int minCapacity;
+    private long[] keys;
+    private int[] values;
+    private boolean[] used;
+    private int[] order; // Used slots in insertion order, size of them
+    private int size = 0;
+    private int mask;
+
+    public LongIntMap() {
+        this(16);
+    }
+
+    public LongIntMap(int expected) {
+        this.minCapacity = capacityFor(expected);
+        allocate(minCapacity);
+    }
+
+    // Smallest power of two keeping expected entries at most half full
+    private static int capacityFor(int expected) {
+        return Integer.highestOneBit(Math.max(8, Math.min(expected, MAX_CAPACITY >>> 1) * 2 - 1)) << 1;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+        order = new int[(capacity >>> 1) + 1];
+        mask = capacity - 1;
+    }
+
+    // Add delta to the value of key (a missing key counts as 0)
+    public void add(long key, int delta) {
+        int slot = find(key);
+        if (used[slot]) {
+            values[slot] += delta;
+            return;
+        }
+        keys[slot] = key;
+        values[slot] = delta;
+        used[slot] = true;
+        order[size] = slot;
+        if (++size > (keys.length >>> 1)) {
+            grow();
+        }
+    }
+
+    public void put(long key, int value) {
+        int slot = find(key);
+        if (used[slot]) {
+            values[slot] = value;
+        } else {
+            add(key, value);
+        }
+    }
+
+    // Value of key, 0 if missing
+    public int get(long key) {
+        int slot = find(key);
+        return used[slot] ? values[slot] : 0;
+    }
+
+    public boolean containsKey(long key) {
+        return used[find(key)];
+    }
+
+    // Empty the map, visiting only the used slots. When the entries just dropped filled less than an
+    // eighth of the table, it shrinks to fit them: the next round is likely about as big
+    public void clear() {
+        int entries = size;
+        for (int i = 0; i < size; i++) {
+            used[order[i]] = false;
+        }
+        size = 0;
+        int fit = Math.max(minCapacity, capacityFor(entries));
+        if (fit * 4 <= keys.length) {
+            allocate(fit);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Slots, to iterate: for (i < size()) slotAt(i), then keyAt(slot) / valueAt(slot)
+    public int slotAt(int i) {
+        return order[i];
+    }
+
+    // Length of the table
+    public int capacity() {
+        return keys.length;
+    }
+
+    public boolean isUsed(int slot) {
+        return used[slot];
+    }
+
+    public long keyAt(int slot) {
+        return keys[slot];
+    }
+
+    public int valueAt(int slot) {
+        return values[slot];
+    }
+
+    // Slot holding key, or the free slot where it would go (linear probing)
+    private int find(long key) {
+        int slot = mix(key) & mask;
+        while (used[slot] && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        if (keys.length == MAX_CAPACITY) {
+            throw new IllegalStateException("Map is full: " + size + " entries");
+        }
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        int[] oldOrder = order;
+        int entries = size;
+        allocate(keys.length << 1);
+        for (int i = 0; i < entries; i++) {
+            int old = oldOrder[i];
+            int slot = find(oldKeys[old]);
+            keys[slot] = oldKeys[old];
+            values[slot] = oldValues[old];
+            used[slot] = true;
+            order[i] = slot;
+        }
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -3,15 +3,109 @@ import java.awt.*;
 
 public class Main {
     public static void main(String[] args) {
+        // java -jar ... --headless [options]: batch run without touching Swing
+        if (args.length > 0 && args[0].equals("--headless")) {
+            HeadlessMain.main(java.util.Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         // Variables
         int dimension = 30;
+        String sizeArg = null;
+        String resumeArg = null;
+        String replayArg = null;
+        // Options in any order, each followed by its value:
+        //   --size N       N x N grid, shown in a pan and zoom viewport when large
+        //   --resume FILE  go on with a run from a checkpoint (--headless --checkpoint FILE)
+        //   --replay FILE  play a run recorded with --headless --record FILE
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 >= args.length) {
+                usage("Missing value for " + args[i]);
+            }
+            switch (args[i]) {
+                case "--size":
+                    sizeArg = args[i + 1];
+                    break;
+                case "--resume":
+                    resumeArg = args[i + 1];
+                    break;
+                case "--replay":
+                    replayArg = args[i + 1];
+                    break;
+                default:
+                    usage("Unknown option: " + args[i]);
+            }
+        }
+        if (resumeArg != null && replayArg != null) {
+            usage("--resume and --replay can't be used together");
+        }
+        if (sizeArg != null) {
+            try {
+                dimension = Integer.parseInt(sizeArg);
+            } catch (NumberFormatException e) {
+                dimension = 0;
+            }
+            if (dimension <= 0) {
+                usage("Bad --size: " + sizeArg);
+            }
+        }
+
+        Checkpoint checkpoint = null;
+        if (resumeArg != null) {
+            try {
+                checkpoint = Checkpoint.read(java.nio.file.Paths.get(resumeArg));
+            } catch (java.io.IOException e) {
+                System.err.println("Can't resume from " + resumeArg + ": " + e.getMessage());
+                System.exit(1);
+            }
+            dimension = fileDimension(checkpoint.getRows(), checkpoint.getCols(), sizeArg, dimension);
+        }
+        Checkpoint resumed = checkpoint;
+
+        // The window takes its size from the recording, startReplay refuses any other
+        GenerationReplay replay = null;
+        if (replayArg != null) {
+            try {
+                replay = GenerationReplay.open(java.nio.file.Paths.get(replayArg));
+            } catch (java.io.IOException e) {
+                System.err.println("Can't open " + replayArg + ": " + e.getMessage());
+                System.exit(1);
+            }
+            dimension = fileDimension(replay.getRows(), replay.getCols(), sizeArg, dimension);
+        }
+        GenerationReplay recording = replay;
 
         // Create logic
         BacteriaLifeLogic logic = new BacteriaLifeLogic(dimension);
 
         // Create UI
+        int size = dimension;
         SwingUtilities.invokeLater(() -> {
-            new BacteriaLifeUI(logic);
+            BacteriaLifeUI ui = new BacteriaLifeUI(logic, size);
+            if (recording != null) {
+                ui.startReplay(recording);
+            }
+            if (resumed != null) {
+                ui.resume(resumed);
+            }
         });
     }
+
+    // Size of the window for a checkpoint or recording: square, and the same as --size if given
+    private static int fileDimension(int rows, int cols, String sizeArg, int size) {
+        if (rows != cols) {
+            System.err.println("Only square grids can be shown: " + rows + "x" + cols);
+            System.exit(1);
+        }
+        if (sizeArg != null && size != rows) {
+            System.err.println("--size " + size + " doesn't match the file, which is " + rows + "x" + cols);
+            System.exit(1);
+        }
+        return rows;
+    }
+
+    private static void usage(String message) {
+        System.err.println(message);
+        System.err.println("Usage: [--size N] [--resume FILE | --replay FILE], or --headless [options]");
+        System.exit(2);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,231 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Bit-packed generation stored outside the Java heap, in direct memory or in a file mapped into
+// memory, for grids far larger than the heap. Same bit layout as BitGrid (getWords() longs per row,
+// bit j of word w = column w*64 + j) but unpadded, split in chunks of whole rows because one
+// ByteBuffer holds at most 2 GB. The step streams the grid through a small heap BitGrid window a
+// band of rows at a time, so it is the same kernel (and SIMD path) as the in-heap engines and the
+// heap needed only depends on the width of the grid. ByteBuffers rather than the Java 17 incubator
+// jdk.incubator.foreign, whose API changed in every release until 22.
+// Stepped only by HeadlessMain --engine offheap: dead edges, still lifes detected, no cycle hash
+public class OffHeapGrid implements Closeable {
+    // Largest chunk, well under the 2 GB limit of a ByteBuffer
+    static final long CHUNK_BYTES = 1L << 30;
+    // Rows stepped per window
+    static final int BAND_ROWS = 64;
+
+    private final int rows;
+    private final int cols;
+    private final int words;
+    private final int chunkRows; // Rows per chunk, the last chunk may have fewer
+    private final ByteBuffer[] buffers;
+    private final LongBuffer[] chunks;
+    private final FileChannel file; // Null in direct memory
+
+    private OffHeapGrid(int rows, int cols, long chunkBytes, FileChannel file) throws IOException {
+        this.rows = rows;
+        this.cols = cols;
+        this.words = (cols + 63) >>> 6;
+        this.chunkRows = (int) Math.min(rows, Math.max(1, chunkBytes / ((long) words * Long.BYTES)));
+        this.buffers = new ByteBuffer[(rows + chunkRows - 1) / chunkRows];
+        this.chunks = new LongBuffer[buffers.length];
+        this.file = file;
+        for (int c = 0; c < chunks.length; c++) {
+            long bytes = (long) Math.min(chunkRows, rows - c * chunkRows) * words * Long.BYTES;
+            buffers[c] = file == null
+                    ? ByteBuffer.allocateDirect((int) bytes)
+                    : file.map(FileChannel.MapMode.READ_WRITE, (long) c * chunkRows * words * Long.BYTES, bytes);
+            chunks[c] = buffers[c].order(ByteOrder.nativeOrder()).asLongBuffer();
+        }
+    }
+
+    // All dead, in direct memory (counted by -XX:MaxDirectMemorySize, not by the heap)
+    public static OffHeapGrid allocate(int rows, int cols) {
+        return allocate(rows, cols, CHUNK_BYTES);
+    }
+
+    // With smaller chunks, for tests
+    static OffHeapGrid allocate(int rows, int cols, long chunkBytes) {
+        checkSize(rows, cols);
+        try {
+            return new OffHeapGrid(rows, cols, chunkBytes, null);
+        } catch (IOException e) {
+            // Only mapping a file does IO
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Backed by a file, created or resized to fit. The page cache holds what the heap can't:
+    // the grid can be larger than the RAM, at the cost of paging. A new file starts all dead
+    public static OffHeapGrid map(Path path, int rows, int cols) throws IOException {
+        return map(path, rows, cols, CHUNK_BYTES);
+    }
+
+    static OffHeapGrid map(Path path, int rows, int cols, long chunkBytes) throws IOException {
+        checkSize(rows, cols);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            long bytes = (long) rows * ((cols + 63) >>> 6) * Long.BYTES;
+            if (channel.size() > bytes) {
+                channel.truncate(bytes);
+            } else if (channel.size() < bytes) {
+                // Grow the file, the new part reads as zeros
+                channel.write(ByteBuffer.allocate(1), bytes - 1);
+            }
+            return new OffHeapGrid(rows, cols, chunkBytes, channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static void checkSameShape(OffHeapGrid a, OffHeapGrid b) {
+        if (a.rows != b.rows || a.cols != b.cols) {
+            throw new IllegalArgumentException("Grid size mismatch: " + a.rows + "x" + a.cols
+                    + " vs " + b.rows + "x" + b.cols);
+        }
+    }
+
+    private static void checkSize(int rows, int cols) {
+        if (rows <= 0 || cols <= 0) {
+            throw new IllegalArgumentException("Grid dimensions must be positive: " + rows + "x" + cols);
+        }
+    }
+
+    // Same cells as BitGrid.fillRandom(seed, density) on a grid of this size
+    public void fillRandom(long seed, double density) {
+        BitGrid.densityThreshold(density);
+        for (int from = 0; from < rows; from += BAND_ROWS) {
+            BitGrid band = new BitGrid(Math.min(BAND_ROWS, rows - from), cols);
+            band.fillRandomBand(seed, density, from);
+            long[] cells = band.getCells();
+            for (int i = 0; i < band.getRows(); i++) {
+                writeRow(from + i, cells, band.index(i, 0));
+            }
+        }
+    }
+
+    // Next generation of src into dst, band after band of rows. Births and deaths are added to stats
+    // (its hash isn't: cell numbers inside a window are not the grid's)
+    public static void step(OffHeapGrid src, OffHeapGrid dst, Rule rule, StepStats stats) {
+        checkSameShape(src, dst);
+        int bandRows = Math.min(BAND_ROWS, src.rows);
+        BitGrid window = new BitGrid(bandRows, src.cols);
+        BitGrid next = new BitGrid(bandRows, src.cols);
+        long[] in = window.getCells();
+        long[] out = next.getCells();
+        for (int from = 0; from < src.rows; from += bandRows) {
+            int count = Math.min(bandRows, src.rows - from);
+            // The band and one row on each side; outside the grid they stay dead
+            for (int i = -1; i <= count; i++) {
+                int row = from + i;
+                if (row >= 0 && row < src.rows) {
+                    src.readRow(row, in, window.index(i, 0));
+                } else {
+                    Arrays.fill(in, window.index(i, 0), window.index(i, src.words), 0);
+                }
+            }
+            BitGrid.step(window, next, 0, count, rule, stats);
+            for (int i = 0; i < count; i++) {
+                dst.writeRow(from + i, out, next.index(i, 0));
+            }
+        }
+    }
+
+    // getWords() words of a row into dst from offset on
+    void readRow(int row, long[] dst, int offset) {
+        chunk(row).get(position(row), dst, offset, words);
+    }
+
+    void writeRow(int row, long[] src, int offset) {
+        chunk(row).put(position(row), src, offset, words);
+    }
+
+    private LongBuffer chunk(int row) {
+        return chunks[row / chunkRows];
+    }
+
+    private int position(int row) {
+        return (row % chunkRows) * words;
+    }
+
+    public boolean isAlive(int row, int col) {
+        return (chunk(row).get(position(row) + (col >>> 6)) >>> col & 1) != 0;
+    }
+
+    public void setAlive(int row, int col, boolean alive) {
+        LongBuffer chunk = chunk(row);
+        int i = position(row) + (col >>> 6);
+        long bit = 1L << col;
+        chunk.put(i, alive ? chunk.get(i) | bit : chunk.get(i) & ~bit);
+    }
+
+    // Live cells, a long: the grid may hold more than 2^31 of them
+    public long population() {
+        long population = 0;
+        for (LongBuffer chunk : chunks) {
+            for (int i = 0; i < chunk.capacity(); i++) {
+                population += Long.bitCount(chunk.get(i));
+            }
+        }
+        return population;
+    }
+
+    // Copy the cells of another grid of the same size
+    public void copyFrom(OffHeapGrid other) {
+        checkSameShape(this, other);
+        long[] row = new long[words];
+        for (int i = 0; i < rows; i++) {
+            other.readRow(i, row, 0);
+            writeRow(i, row, 0);
+        }
+    }
+
+    // Copy into a heap grid of the same size (small grids, tests)
+    public BitGrid toBitGrid() {
+        BitGrid grid = new BitGrid(rows, cols);
+        for (int i = 0; i < rows; i++) {
+            readRow(i, grid.getCells(), grid.index(i, 0));
+        }
+        return grid;
+    }
+
+    // Flush a mapped grid to its file and release it. The mapping itself goes away with the buffers
+    @Override
+    public void close() throws IOException {
+        if (file != null) {
+            for (ByteBuffer buffer : buffers) {
+                ((MappedByteBuffer) buffer).force();
+            }
+            file.close();
+        }
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getWords() {
+        return words;
+    }
+
+    // Rows per chunk, for tests
+    int getChunkRows() {
+        return chunkRows;
+    }
+}
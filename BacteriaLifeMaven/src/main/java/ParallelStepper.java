@@ -0,0 +1,191 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Steps a BitGrid on a fork/join pool, splitting the rows into bands.
+// Every band only reads the source and writes its own rows of the destination,
+// so the result is bit for bit the same as the sequential step.
+public class ParallelStepper {
+    // Below this many cells the fork/join overhead costs more than it saves
+    public static final int DEFAULT_THRESHOLD = 256 * 256;
+    // Smallest band worth its own task
+    private static final int MIN_BAND_ROWS = 16;
+
+    private final ForkJoinPool pool;
+    private final int threshold;
+
+    public ParallelStepper() {
+        this(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+    }
+
+    public ParallelStepper(ForkJoinPool pool, int threshold) {
+        this.pool = pool;
+        this.threshold = threshold;
+    }
+
+    public void step(BitGrid src, BitGrid dst) {
+        step(src, dst, new StepStats());
+    }
+
+    // Step and add the change information of every band to stats
+    public void step(BitGrid src, BitGrid dst, StepStats stats) {
+        step(src, dst, Rule.CONWAY, stats);
+    }
+
+    public void step(BitGrid src, BitGrid dst, Rule rule, StepStats stats) {
+        int rows = src.getRows();
+        if ((long) rows * src.getCols() < threshold || rows < 2 * MIN_BAND_ROWS) {
+            BitGrid.step(src, dst, rule, stats);
+            return;
+        }
+        // A few bands per worker so a slow band doesn't leave the rest idle
+        int bands = pool.getParallelism() * 4;
+        int bandRows = Math.max(MIN_BAND_ROWS, (rows + bands - 1) / bands);
+        Band all = new Band(src, dst, rule, 0, rows, bandRows, stats.isLogging());
+        pool.invoke(all);
+        stats.add(all.stats);
+    }
+
+    // Tiled step: bands are made of whole tile rows, only the active tiles are computed
+    public void step(BitGrid src, BitGrid dst, TileTracker tiles, StepStats stats) {
+        step(src, dst, tiles, Rule.CONWAY, stats);
+    }
+
+    public void step(BitGrid src, BitGrid dst, TileTracker tiles, Rule rule, StepStats stats) {
+        int tileRows = tiles.getTileRows();
+        if ((long) src.getRows() * src.getCols() < threshold || tileRows < 2) {
+            tiles.step(src, dst, rule, stats);
+            return;
+        }
+        int bands = pool.getParallelism() * 4;
+        int bandTiles = Math.max(1, (tileRows + bands - 1) / bands);
+        TileBand all = new TileBand(src, dst, tiles, rule, 0, tileRows, bandTiles, stats.isLogging());
+        pool.invoke(all);
+        stats.add(all.stats);
+    }
+
+    // BitGrid.fillRandom split into row bands. Rows draw from their own seeded streams,
+    // so the grid doesn't depend on the pool size or on which worker took which band
+    public void fillRandom(BitGrid grid, long seed, double density) {
+        int rows = grid.getRows();
+        BitGrid.densityThreshold(density);
+        if ((long) rows * grid.getCols() < threshold || rows < 2 * MIN_BAND_ROWS) {
+            grid.fillRandom(seed, density);
+            return;
+        }
+        int bands = pool.getParallelism() * 4;
+        int bandRows = Math.max(MIN_BAND_ROWS, (rows + bands - 1) / bands);
+        pool.invoke(new FillBand(grid, seed, density, 0, rows, bandRows));
+    }
+
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    // Split rows in halves until the band is small enough, then step it.
+    // Each band counts (and logs, if the step does) its own changes, the parent merges them after the join
+    private static class Band extends RecursiveAction {
+        private final StepStats stats = new StepStats();
+        private final BitGrid src;
+        private final BitGrid dst;
+        private final Rule rule;
+        private final int from;
+        private final int to;
+        private final int bandRows;
+
+        Band(BitGrid src, BitGrid dst, Rule rule, int from, int to, int bandRows, boolean logging) {
+            stats.setLogging(logging);
+            this.src = src;
+            this.dst = dst;
+            this.rule = rule;
+            this.from = from;
+            this.to = to;
+            this.bandRows = bandRows;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= bandRows) {
+                BitGrid.step(src, dst, from, to, rule, stats);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            Band top = new Band(src, dst, rule, from, mid, bandRows, stats.isLogging());
+            Band bottom = new Band(src, dst, rule, mid, to, bandRows, stats.isLogging());
+            invokeAll(top, bottom);
+            stats.add(top.stats);
+            stats.add(bottom.stats);
+        }
+    }
+
+    // Same split for tile rows. Every tile belongs to one band, so the changed flags don't race
+    private static class TileBand extends RecursiveAction {
+        private final StepStats stats = new StepStats();
+        private final BitGrid src;
+        private final BitGrid dst;
+        private final TileTracker tiles;
+        private final Rule rule;
+        private final int from;
+        private final int to;
+        private final int bandTiles;
+
+        TileBand(BitGrid src, BitGrid dst, TileTracker tiles, Rule rule, int from, int to, int bandTiles,
+                 boolean logging) {
+            stats.setLogging(logging);
+            this.src = src;
+            this.dst = dst;
+            this.tiles = tiles;
+            this.rule = rule;
+            this.from = from;
+            this.to = to;
+            this.bandTiles = bandTiles;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= bandTiles) {
+                tiles.step(src, dst, from, to, rule, stats);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            TileBand top = new TileBand(src, dst, tiles, rule, from, mid, bandTiles, stats.isLogging());
+            TileBand bottom = new TileBand(src, dst, tiles, rule, mid, to, bandTiles, stats.isLogging());
+            invokeAll(top, bottom);
+            stats.add(top.stats);
+            stats.add(bottom.stats);
+        }
+    }
+
+    // Same split for the random fill, nothing to merge
+    private static class FillBand extends RecursiveAction {
+        private final BitGrid grid;
+        private final long seed;
+        private final double density;
+        private final int from;
+        private final int to;
+        private final int bandRows;
+
+        FillBand(BitGrid grid, long seed, double density, int from, int to, int bandRows) {
+            this.grid = grid;
+            this.seed = seed;
+            this.density = density;
+            this.from = from;
+            this.to = to;
+            this.bandRows = bandRows;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= bandRows) {
+                grid.fillRandom(seed, density, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new FillBand(grid, seed, density, from, mid, bandRows),
+                    new FillBand(grid, seed, density, mid, to, bandRows));
+        }
+    }
+}
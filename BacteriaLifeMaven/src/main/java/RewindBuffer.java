@@ -0,0 +1,286 @@
+import java.util.Arrays;
+
+// The last generations of a run kept in memory, to step back and scrub through them. Stored like a
+// GenerationRecorder file: a keyframe (every word) every keyframeInterval generations and, in
+// between, only the words that changed as (word index, old XOR new) pairs. Reading a generation
+// copies the keyframe before it and applies the deltas up to it, so it costs the distance to that
+// keyframe, never the whole window.
+// Bounded by a number of generations and a memory budget, the oldest ones go first. The window always
+// starts with a keyframe: when the oldest keyframe goes, the delta after it is folded into its words
+// and takes its place. Thread safe, the simulation thread records while the EDT reads
+public class RewindBuffer {
+    public static final int DEFAULT_GENERATIONS = 1000;
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 32;
+    public static final long DEFAULT_MAX_BYTES = 32L << 20;
+    // Rough cost of an entry besides its arrays (object and array headers)
+    static final int ENTRY_BYTES = 64;
+
+    // One generation: a keyframe (words != null) or a delta against the generation before
+    private static final class Entry {
+        long[] words;
+        int[] indexes;
+        long[] xors;
+
+        long bytes() {
+            return ENTRY_BYTES + (words != null ? (long) words.length * Long.BYTES
+                    : (long) indexes.length * (Integer.BYTES + Long.BYTES));
+        }
+    }
+
+    private final int rows;
+    private final int cols;
+    private final int keyframeInterval;
+    private final long maxBytes;
+    private final Entry[] ring;
+    private int head;           // Slot of the oldest generation
+    private int size;
+    private int firstRound;     // Round of the oldest generation
+    private int sinceKeyframe;  // Deltas recorded after the newest keyframe
+    private long bytes;
+    private final long[] previous; // Words of the newest generation
+    private final long[] words;    // Scratch for the generation being recorded
+    private final int[] changed;   // Indexes of the changed words, reused every generation
+
+    public RewindBuffer(int rows, int cols) {
+        this(rows, cols, DEFAULT_GENERATIONS, DEFAULT_KEYFRAME_INTERVAL, DEFAULT_MAX_BYTES);
+    }
+
+    public RewindBuffer(int rows, int cols, int generations, int keyframeInterval, long maxBytes) {
+        if (rows <= 0 || cols <= 0 || generations <= 0 || keyframeInterval <= 0 || maxBytes <= 0) {
+            throw new IllegalArgumentException("Invalid rewind buffer: " + rows + "x" + cols + ", " + generations
+                    + " generations, keyframe interval " + keyframeInterval + ", " + maxBytes + " bytes");
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.keyframeInterval = keyframeInterval;
+        this.maxBytes = maxBytes;
+        this.ring = new Entry[generations];
+        int size = rows * ((cols + 63) >>> 6);
+        this.previous = new long[size];
+        this.words = new long[size];
+        this.changed = new int[size];
+    }
+
+    // Add the generation of a round. Normally the round after the newest one; an older round means the
+    // run went back (a load), the generations from it on are replaced. A gap starts the window again
+    public synchronized void record(int round, BitGrid grid) {
+        record(round, grid, null);
+    }
+
+    // Same, for the round the step that filled stats computed. When the step logged its changed words
+    // (StepStats.setLogging) the delta is built from them: it costs the changes, not an export and
+    // a comparison of the whole grid. Keyframes still copy every word
+    public synchronized void record(int round, BitGrid grid, StepStats stats) {
+        if (grid.getRows() != rows || grid.getCols() != cols) {
+            throw new IllegalArgumentException("Grid size mismatch: " + grid.getRows() + "x" + grid.getCols()
+                    + " vs " + rows + "x" + cols);
+        }
+        // The log only holds what changed since the newest generation recorded
+        boolean following = size > 0 && round == getLastRound() + 1;
+        if (size > 0 && (round < firstRound || round > getLastRound() + 1)) {
+            clear();
+        } else if (size > 0 && round <= getLastRound()) {
+            truncate(round);
+        }
+        if (size == ring.length) {
+            evictOldest();
+        }
+        if (size == 0) {
+            firstRound = round;
+        }
+
+        Entry entry = new Entry();
+        boolean due = size == 0 || sinceKeyframe + 1 >= keyframeInterval;
+        int count = 0;
+        if (!due && following && stats != null && stats.isLogging()) {
+            count = stats.getLoggedWords();
+            if (!tooMany(count)) {
+                int wordsPerRow = (cols + 63) >>> 6;
+                entry.indexes = new int[count];
+                entry.xors = new long[count];
+                for (int k = 0; k < count; k++) {
+                    long cell = stats.getLoggedCell(k);
+                    int i = (int) (cell / cols) * wordsPerRow + (int) (cell % cols >>> 6);
+                    long xor = stats.getLoggedBirths(k) | stats.getLoggedDeaths(k);
+                    entry.indexes[k] = i;
+                    entry.xors[k] = xor;
+                    previous[i] ^= xor;
+                }
+                sinceKeyframe++;
+                add(entry);
+                return;
+            }
+            due = true;
+        }
+
+        grid.exportWords(words);
+        if (!due) {
+            for (int i = 0; i < words.length; i++) {
+                if (words[i] != previous[i]) {
+                    changed[count++] = i;
+                }
+            }
+        }
+        if (due || tooMany(count)) {
+            entry.words = words.clone();
+            sinceKeyframe = 0;
+        } else {
+            entry.indexes = new int[count];
+            entry.xors = new long[count];
+            for (int k = 0; k < count; k++) {
+                int i = changed[k];
+                entry.indexes[k] = i;
+                entry.xors[k] = words[i] ^ previous[i];
+            }
+            sinceKeyframe++;
+        }
+        System.arraycopy(words, 0, previous, 0, words.length);
+        add(entry);
+    }
+
+    // A keyframe takes less room than this many (index, xor) pairs
+    private boolean tooMany(int count) {
+        return (long) count * (Integer.BYTES + Long.BYTES) >= (long) words.length * Long.BYTES;
+    }
+
+    private void add(Entry entry) {
+        ring[slot(size)] = entry;
+        size++;
+        bytes += entry.bytes();
+        while (bytes > maxBytes && size > 1) {
+            evictOldest();
+        }
+    }
+
+    // Write the generation of a round in the window into grid
+    public synchronized void read(int round, BitGrid grid) {
+        if (!contains(round)) {
+            throw new IllegalArgumentException("Round " + round + " is not in the rewind window "
+                    + (size == 0 ? "(empty)" : firstRound + ".." + getLastRound()));
+        }
+        if (grid.getRows() != rows || grid.getCols() != cols) {
+            throw new IllegalArgumentException("Grid size mismatch: " + grid.getRows() + "x" + grid.getCols()
+                    + " vs " + rows + "x" + cols);
+        }
+        rebuild(round - firstRound, words);
+        grid.loadWords(words);
+    }
+
+    // Words of the generation at position n of the window: its keyframe, then the deltas after it
+    private void rebuild(int n, long[] dst) {
+        int key = n;
+        while (ring[slot(key)].words == null) {
+            key--;
+        }
+        System.arraycopy(ring[slot(key)].words, 0, dst, 0, dst.length);
+        for (int k = key + 1; k <= n; k++) {
+            Entry delta = ring[slot(k)];
+            for (int j = 0; j < delta.indexes.length; j++) {
+                dst[delta.indexes[j]] ^= delta.xors[j];
+            }
+        }
+    }
+
+    // Drop the oldest generation. If the next one is a delta it becomes a keyframe, reusing the words
+    private void evictOldest() {
+        Entry oldest = ring[head];
+        ring[head] = null;
+        head = (head + 1) % ring.length;
+        size--;
+        firstRound++;
+        bytes -= oldest.bytes();
+        if (size == 0) {
+            return;
+        }
+        Entry next = ring[head];
+        if (next.words == null) {
+            bytes -= next.bytes();
+            long[] folded = oldest.words;
+            for (int j = 0; j < next.indexes.length; j++) {
+                folded[next.indexes[j]] ^= next.xors[j];
+            }
+            next.words = folded;
+            next.indexes = null;
+            next.xors = null;
+            bytes += next.bytes();
+        }
+    }
+
+    // Keep only the generations before round, so round can be recorded again
+    private void truncate(int round) {
+        while (size > 0 && getLastRound() >= round) {
+            int last = slot(size - 1);
+            bytes -= ring[last].bytes();
+            ring[last] = null;
+            size--;
+        }
+        if (size == 0) {
+            return;
+        }
+        rebuild(size - 1, previous);
+        sinceKeyframe = 0;
+        while (ring[slot(size - 1 - sinceKeyframe)].words == null) {
+            sinceKeyframe++;
+        }
+    }
+
+    private int slot(int n) {
+        return (head + n) % ring.length;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(ring, null);
+        head = 0;
+        size = 0;
+        bytes = 0;
+        sinceKeyframe = 0;
+    }
+
+    public synchronized boolean contains(int round) {
+        return size > 0 && round >= firstRound && round <= getLastRound();
+    }
+
+    // Generations in the window
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Oldest round that can be read, -1 when empty
+    public synchronized int getFirstRound() {
+        return size == 0 ? -1 : firstRound;
+    }
+
+    // Newest round recorded, -1 when empty
+    public synchronized int getLastRound() {
+        return size == 0 ? -1 : firstRound + size - 1;
+    }
+
+    // Memory the window takes now, approximately
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public int getCapacity() {
+        return ring.length;
+    }
+
+    public int getKeyframeInterval() {
+        return keyframeInterval;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+}
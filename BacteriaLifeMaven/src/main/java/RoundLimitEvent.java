@@ -0,0 +1,22 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// JFR event for a run stopped by the generation limit before it became stable
+@Name("bacteria.RoundLimit")
+@Label("Generation Limit Reached")
+@Category("Bacteria Life")
+@Description("The simulation hit its generation limit without a still life")
+class RoundLimitEvent extends Event {
+    // Checked before creating an event, as StepEvent.TYPE
+    static final EventType TYPE = EventType.getEventType(RoundLimitEvent.class);
+
+    @Label("Generation Limit")
+    int maxRounds;
+
+    @Label("Population")
+    long population;
+}
@@ -0,0 +1,151 @@
+import java.util.Locale;
+
+// Outer-totalistic life-like rule in B/S notation: "B3/S23" is born with 3 neighbours and survives
+// with 2 or 3. Compiled once into a 512-entry table indexed by the 3x3 neighbourhood bits for the
+// int[][] path, and into per-count bit-plane masks for the bit-packed step
+public final class Rule {
+    // The original game: birth on 3, death on 0-1 or more than 3
+    public static final Rule CONWAY = parse("B3/S23");
+    // Bit of the centre cell in a neighbourhood index (bit row*3 + col of the 3x3 block)
+    public static final int CENTER_BIT = 1 << 4;
+
+    private final int birth;    // Bit c set: a dead cell with c neighbours is born
+    private final int survival; // Bit c set: a live cell with c neighbours survives
+    private final boolean conway;
+    private final byte[] table = new byte[512];
+    // For each count the rule uses: the four sum planes it matches and which cells it applies to
+    private final long[] planes;
+    private final long[] bornMasks;
+    private final long[] keptMasks;
+
+    private Rule(int birth, int survival) {
+        this.birth = birth;
+        this.survival = survival;
+        this.conway = birth == 1 << 3 && survival == (1 << 2 | 1 << 3);
+        for (int index = 0; index < 512; index++) {
+            int count = Integer.bitCount(index & ~CENTER_BIT);
+            int set = (index & CENTER_BIT) != 0 ? survival : birth;
+            table[index] = (byte) ((set >>> count) & 1);
+        }
+
+        int counts = Integer.bitCount(birth | survival);
+        this.planes = new long[counts * 4];
+        this.bornMasks = new long[counts];
+        this.keptMasks = new long[counts];
+        int k = 0;
+        for (int count = 0; count <= 8; count++) {
+            if (((birth | survival) >>> count & 1) == 0) {
+                continue;
+            }
+            for (int bit = 0; bit < 4; bit++) {
+                planes[k * 4 + bit] = (count >>> bit & 1) != 0 ? -1L : 0;
+            }
+            bornMasks[k] = (birth >>> count & 1) != 0 ? -1L : 0;
+            keptMasks[k] = (survival >>> count & 1) != 0 ? -1L : 0;
+            k++;
+        }
+    }
+
+    // Parse "B3/S23" (also "b36/s23", "S23/B3", "B2/S"). Counts go from 0 to 8
+    public static Rule parse(String rule) {
+        String[] parts = rule.trim().toUpperCase(Locale.ROOT).split("/", -1);
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Rule must look like B3/S23: " + rule);
+        }
+        if (parts[0].startsWith("S") && parts[1].startsWith("B")) {
+            String swap = parts[0];
+            parts[0] = parts[1];
+            parts[1] = swap;
+        }
+        if (!parts[0].startsWith("B") || !parts[1].startsWith("S")) {
+            throw new IllegalArgumentException("Rule must look like B3/S23: " + rule);
+        }
+        return new Rule(counts(parts[0].substring(1), rule), counts(parts[1].substring(1), rule));
+    }
+
+    private static int counts(String digits, String rule) {
+        int mask = 0;
+        for (int i = 0; i < digits.length(); i++) {
+            int count = digits.charAt(i) - '0';
+            if (count < 0 || count > 8 || (mask >>> count & 1) != 0) {
+                throw new IllegalArgumentException("Bad neighbour count '" + digits.charAt(i) + "' in rule " + rule);
+            }
+            mask |= 1 << count;
+        }
+        return mask;
+    }
+
+    // Next state (0 or 1) of the centre cell of a 3x3 neighbourhood index
+    public int next(int neighbourhood) {
+        return table[neighbourhood];
+    }
+
+    // 64 cells at once from the neighbour sum planes (sum = r0 + 2*r1 + 4*r2 + 8*r3)
+    long next(long alive, long r0, long r1, long r2, long r3) {
+        if (conway) {
+            // Birth on 3, survival on 2 or 3: sum is 2 or 3 and (sum is 3 or the cell is alive)
+            return r1 & ~r2 & ~r3 & (r0 | alive);
+        }
+        long next = 0;
+        for (int k = 0; k < bornMasks.length; k++) {
+            int p = k * 4;
+            long equal = ~(r0 ^ planes[p]) & ~(r1 ^ planes[p + 1]) & ~(r2 ^ planes[p + 2]) & ~(r3 ^ planes[p + 3]);
+            next |= equal & ((bornMasks[k] & ~alive) | (keptMasks[k] & alive));
+        }
+        return next;
+    }
+
+    // Compiled form, for the SIMD step
+    boolean isConway() {
+        return conway;
+    }
+
+    int getTermCount() {
+        return bornMasks.length;
+    }
+
+    // Sign mask (0 or -1) of bit `bit` of the neighbour count matched by term k
+    long getPlane(int k, int bit) {
+        return planes[k * 4 + bit];
+    }
+
+    long getBornMask(int k) {
+        return bornMasks[k];
+    }
+
+    long getKeptMask(int k) {
+        return keptMasks[k];
+    }
+
+    public boolean isBorn(int neighbours) {
+        return (birth >>> neighbours & 1) != 0;
+    }
+
+    public boolean survives(int neighbours) {
+        return (survival >>> neighbours & 1) != 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Rule && ((Rule) o).birth == birth && ((Rule) o).survival == survival;
+    }
+
+    @Override
+    public int hashCode() {
+        return birth * 512 + survival;
+    }
+
+    // Canonical form, counts in increasing order
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder("B");
+        for (int count = 0; count <= 8; count++) {
+            if (isBorn(count)) s.append(count);
+        }
+        s.append("/S");
+        for (int count = 0; count <= 8; count++) {
+            if (survives(count)) s.append(count);
+        }
+        return s.toString();
+    }
+}
@@ -0,0 +1,279 @@
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+// Computes generations on its own thread, away from the Swing EDT, and publishes immutable frames.
+// Only the latest frame is kept: a frame the UI did not pick up in time is dropped (and reused).
+// Pause, resume and stop only flip flags, so none of them blocks the caller
+public class SimulationRunner {
+    public static final double DEFAULT_TARGET_RATE = 10; // Generations per second, the old 100 ms timer
+    // At most one frame per display refresh is published, faster generations are skipped
+    public static final long FRAME_INTERVAL_NANOS = 1_000_000_000L / 60;
+    private static final long RATE_WINDOW_NANOS = 500_000_000L;
+
+    // One published generation. Never modified while it is visible to the UI
+    public static final class Frame {
+        private final int[][] gen;
+        private final BitGrid grid;
+        private int round;
+        private long population;
+        private boolean finished;
+
+        private Frame(int[][] gen, BitGrid grid) {
+            this.gen = gen;
+            this.grid = grid;
+        }
+
+        // The generation, when the runner was started from an int[][] (null otherwise)
+        public int[][] getGen() {
+            return gen;
+        }
+
+        // The generation, when the runner was started from a BitGrid (null otherwise)
+        public BitGrid getGrid() {
+            return grid;
+        }
+
+        public int getRound() {
+            return round;
+        }
+
+        public long getPopulation() {
+            return population;
+        }
+
+        // Last frame: the gen is stable, cycling or the round limit was reached
+        public boolean isFinished() {
+            return finished;
+        }
+    }
+
+    private final BacteriaLifeLogic logic;
+    private final int[][] initialGen;
+    // Large grids go through the bit-packed form only, an int per cell would not fit
+    private final BitGrid initialGrid;
+    // Run to go on with instead of a new one, frames carry a BitGrid then
+    private final Checkpoint checkpoint;
+    private final AtomicReference<Frame> latest = new AtomicReference<>();
+    private final AtomicReference<Frame> recycled = new AtomicReference<>();
+    private volatile double targetRate = DEFAULT_TARGET_RATE;
+    private volatile double achievedRate;
+    private volatile boolean paused;
+    // Paused and parked: the step in flight when pause was called has finished and published
+    private volatile boolean parked;
+    private volatile boolean running;
+    private volatile long publishedFrames;
+    private volatile long droppedFrames;
+    private Thread thread;
+
+    public SimulationRunner(BacteriaLifeLogic logic, int[][] initialGen) {
+        this.logic = logic;
+        // Own copy, the caller keeps using its array for what is on screen
+        this.initialGen = new int[initialGen.length][];
+        for (int i = 0; i < initialGen.length; i++) {
+            this.initialGen[i] = initialGen[i].clone();
+        }
+        this.initialGrid = null;
+        this.checkpoint = null;
+    }
+
+    // Frames carry a BitGrid instead of an int[][]
+    public SimulationRunner(BacteriaLifeLogic logic, BitGrid initialGrid) {
+        this.logic = logic;
+        this.initialGen = null;
+        this.initialGrid = new BitGrid(initialGrid.getRows(), initialGrid.getCols());
+        this.initialGrid.copyFrom(initialGrid);
+        this.checkpoint = null;
+    }
+
+    // Resume the run of a checkpoint: same round, limit, rule and boundary. Frames carry a BitGrid
+    public SimulationRunner(BacteriaLifeLogic logic, Checkpoint checkpoint) {
+        this.logic = logic;
+        this.initialGen = null;
+        this.initialGrid = checkpoint.toBitGrid();
+        this.checkpoint = checkpoint;
+    }
+
+    // Start the simulation thread. The logic must not be used by anyone else from now on
+    public synchronized void start() {
+        if (thread != null) {
+            throw new IllegalStateException("Simulation already started");
+        }
+        running = true;
+        thread = new Thread(this::run, "bacteria-simulation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void pause() {
+        paused = true;
+    }
+
+    public void resume() {
+        paused = false;
+        parked = false;
+        wake();
+    }
+
+    // Ask the thread to finish, without waiting for it
+    public void stop() {
+        running = false;
+        wake();
+    }
+
+    // Wait for the thread to finish. Returns false on timeout
+    public boolean awaitTermination(long millis) throws InterruptedException {
+        Thread t;
+        synchronized (this) {
+            t = thread;
+        }
+        if (t == null) {
+            return true;
+        }
+        t.join(millis);
+        return !t.isAlive();
+    }
+
+    // Latest frame not seen yet, or null. Hand it back with release once it is drawn
+    public Frame poll() {
+        return latest.getAndSet(null);
+    }
+
+    // Give a drawn frame back so the simulation can fill it again instead of allocating
+    public void release(Frame frame) {
+        recycled.compareAndSet(null, frame);
+    }
+
+    private void run() {
+        if (checkpoint != null) {
+            logic.resume(checkpoint);
+        } else if (initialGrid != null) {
+            logic.loadGrid(initialGrid);
+        } else {
+            logic.load(initialGen);
+        }
+        long windowStart = System.nanoTime();
+        long windowGenerations = 0;
+        long lastPublish = windowStart;
+        long deadline = windowStart;
+        while (running) {
+            if (paused) {
+                achievedRate = 0;
+                if (!parked) {
+                    // Frames are throttled: make sure the UI gets the round the pause stopped at
+                    publish(false);
+                    parked = true;
+                }
+                LockSupport.park(this);
+                windowStart = deadline = System.nanoTime();
+                windowGenerations = 0;
+                continue;
+            }
+            parked = false;
+
+            boolean more = logic.step() && !logic.isStable() && !logic.isCycling();
+            windowGenerations++;
+            long now = System.nanoTime();
+            if (now - windowStart >= RATE_WINDOW_NANOS) {
+                achievedRate = windowGenerations * 1e9 / (now - windowStart);
+                windowStart = now;
+                windowGenerations = 0;
+            }
+            if (!more) {
+                publish(true);
+                break;
+            }
+            if (now - lastPublish >= FRAME_INTERVAL_NANOS) {
+                publish(false);
+                lastPublish = now;
+            }
+
+            // Pace to the target rate. After a long stall start again instead of bursting to catch up
+            double rate = targetRate;
+            if (rate > 0) {
+                deadline += (long) (1e9 / rate);
+                long wait = deadline - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(this, wait);
+                } else if (wait < -RATE_WINDOW_NANOS) {
+                    deadline = System.nanoTime();
+                }
+            }
+        }
+        running = false;
+    }
+
+    // Fill a spare frame with the current gen and make it the latest one
+    private void publish(boolean finished) {
+        Frame frame = recycled.getAndSet(null);
+        if (frame == null) {
+            frame = initialGrid != null
+                    ? new Frame(null, new BitGrid(initialGrid.getRows(), initialGrid.getCols()))
+                    : new Frame(new int[initialGen.length][initialGen[0].length], null);
+        }
+        if (frame.grid != null) {
+            frame.grid.copyFrom(logic.getCurrentGrid());
+        } else {
+            logic.exportGen(frame.gen);
+        }
+        frame.round = Math.min(logic.getRound(), logic.getMaxRounds());
+        frame.population = logic.getPopulation();
+        frame.finished = finished;
+
+        Frame dropped = latest.getAndSet(frame);
+        publishedFrames++;
+        if (dropped != null) {
+            // The UI never saw it, so it can be filled again
+            droppedFrames++;
+            recycled.compareAndSet(null, dropped);
+        }
+    }
+
+    private void wake() {
+        Thread t;
+        synchronized (this) {
+            t = thread;
+        }
+        if (t != null) {
+            LockSupport.unpark(t);
+        }
+    }
+
+    // Generations per second to aim for, 0 runs as fast as possible
+    public void setTargetRate(double targetRate) {
+        if (targetRate < 0 || Double.isNaN(targetRate)) {
+            throw new IllegalArgumentException("Target rate must not be negative: " + targetRate);
+        }
+        this.targetRate = targetRate;
+        wake();
+    }
+
+    public double getTargetRate() {
+        return targetRate;
+    }
+
+    // Generations per second measured over the last half second, 0 while paused
+    public double getAchievedRate() {
+        return achievedRate;
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    // True once a pause has taken effect: no step runs and no frame comes until resume
+    public boolean isParked() {
+        return parked;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public long getPublishedFrames() {
+        return publishedFrames;
+    }
+
+    public long getDroppedFrames() {
+        return droppedFrames;
+    }
+}
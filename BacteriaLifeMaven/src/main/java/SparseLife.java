@@ -0,0 +1,176 @@
+import java.util.Arrays;
+
+// Sparse engine for low density patterns: only live cells are stored, as packed (row, col) longs,
+// so memory and work per step follow the population instead of the grid size.
+// Unbounded by default (any int coordinate); bounded mode keeps the dead edges of BacteriaLifeLogic.
+public class SparseLife {
+    private final boolean bounded;
+    private final int rows;
+    private final int cols;
+    // Live cells of the current gen, as a list to step over and a set to look up
+    private long[] live = new long[64];
+    private int population = 0;
+    private final LongIntMap cells = new LongIntMap();
+    // Per step: 2 per live neighbour + 1 if the cell itself is alive
+    private final LongIntMap counts = new LongIntMap();
+    private long generation = 0;
+    private int births = 0;
+    private int deaths = 0;
+
+    // Unbounded universe
+    public SparseLife() {
+        this(false, 0, 0);
+    }
+
+    private SparseLife(boolean bounded, int rows, int cols) {
+        this.bounded = bounded;
+        this.rows = rows;
+        this.cols = cols;
+    }
+
+    // Universe limited to rows x cols, cells past the edges are always dead
+    public static SparseLife bounded(int rows, int cols) {
+        return new SparseLife(true, rows, cols);
+    }
+
+    // Import an int[][] gen, its top left cell at (0, 0). Bounded to its size if asked
+    public static SparseLife fromGen(int[][] gen, boolean bounded) {
+        SparseLife life = bounded ? bounded(gen.length, gen[0].length) : new SparseLife();
+        for (int i = 0; i < gen.length; i++) {
+            for (int j = 0; j < gen[i].length; j++) {
+                if (gen[i][j] == 1) {
+                    life.setAlive(i, j);
+                }
+            }
+        }
+        return life;
+    }
+
+    public void setAlive(int row, int col) {
+        if (!inside(row, col)) {
+            throw new IllegalArgumentException("Cell outside the bounded universe: " + row + ", " + col);
+        }
+        long key = pack(row, col);
+        if (!cells.containsKey(key)) {
+            cells.put(key, 1);
+            append(key);
+        }
+    }
+
+    public boolean isAlive(int row, int col) {
+        return cells.containsKey(pack(row, col));
+    }
+
+    // Compute the next generation. Only live cells and their neighbours are visited
+    public void step() {
+        counts.clear();
+        for (int k = 0; k < population; k++) {
+            long key = live[k];
+            int row = row(key);
+            int col = col(key);
+            counts.add(key, 1);
+            for (int dr = -1; dr <= 1; dr++) {
+                for (int dc = -1; dc <= 1; dc++) {
+                    if (dr != 0 || dc != 0) {
+                        counts.add(pack(row + dr, col + dc), 2);
+                    }
+                }
+            }
+        }
+
+        int before = population;
+        int survivors = 0;
+        population = 0;
+        cells.clear();
+        for (int i = 0; i < counts.size(); i++) {
+            int slot = counts.slotAt(i);
+            int value = counts.valueAt(slot);
+            // Birth on 3 (value 6), survival on 2 or 3 (value 5 or 7)
+            if (value == 6 || value == 5 || value == 7) {
+                long key = counts.keyAt(slot);
+                if (bounded && !inside(row(key), col(key))) {
+                    continue;
+                }
+                if (value != 6) {
+                    survivors++;
+                }
+                cells.put(key, 1);
+                append(key);
+            }
+        }
+        births = population - survivors;
+        deaths = before - survivors;
+        if (live.length > 64 && population < live.length >>> 3) {
+            // The burst is over, give its room back
+            live = Arrays.copyOf(live, Math.max(64, population << 1));
+        }
+        generation++;
+    }
+
+    // Write the window starting at (row, col) into an existing int[][]
+    public void exportTo(int[][] gen, long row, long col) {
+        for (int[] line : gen) {
+            Arrays.fill(line, 0);
+        }
+        for (int k = 0; k < population; k++) {
+            long r = row(live[k]) - row;
+            long c = col(live[k]) - col;
+            if (r >= 0 && c >= 0 && r < gen.length && c < gen[0].length) {
+                gen[(int) r][(int) c] = 1;
+            }
+        }
+    }
+
+    public int[][] toGen(int rows, int cols) {
+        int[][] gen = new int[rows][cols];
+        exportTo(gen, 0, 0);
+        return gen;
+    }
+
+    public int getPopulation() {
+        return population;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    public int getBirths() {
+        return births;
+    }
+
+    public int getDeaths() {
+        return deaths;
+    }
+
+    public boolean isBounded() {
+        return bounded;
+    }
+
+    private void append(long key) {
+        if (population == live.length) {
+            if (live.length > Integer.MAX_VALUE >>> 1) {
+                // The maps give up well before this, an int population can't wrap
+                throw new IllegalStateException("Too many live cells for the sparse engine: " + population);
+            }
+            live = Arrays.copyOf(live, live.length << 1);
+        }
+        live[population++] = key;
+    }
+
+    private boolean inside(int row, int col) {
+        return !bounded || (row >= 0 && row < rows && col >= 0 && col < cols);
+    }
+
+    static long pack(int row, int col) {
+        return ((long) row << 32) | (col & 0xFFFFFFFFL);
+    }
+
+    static int row(long key) {
+        return (int) (key >> 32);
+    }
+
+    static int col(long key) {
+        return (int) key;
+    }
+}
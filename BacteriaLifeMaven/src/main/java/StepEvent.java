@@ -0,0 +1,37 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// JFR event for one generation, its duration is the step time. Off unless a recording enables it:
+//   java -XX:StartFlightRecording:settings=profile,filename=run.jfr ... (then jfr print --events bacteria.Step)
+@Name("bacteria.Step")
+@Label("Generation Step")
+@Category("Bacteria Life")
+@Description("One generation computed by BacteriaLifeLogic")
+@StackTrace(false)
+class StepEvent extends Event {
+    // Checked before creating an event, so a step without a recording allocates nothing
+    static final EventType TYPE = EventType.getEventType(StepEvent.class);
+
+    @Label("Round")
+    int round;
+
+    @Label("Population")
+    long population;
+
+    @Label("Births")
+    long births;
+
+    @Label("Deaths")
+    long deaths;
+
+    @Label("Allocated")
+    @Description("Bytes allocated by the stepping thread, -1 if unknown")
+    @DataAmount
+    long allocated;
+}
@@ -0,0 +1,11 @@
+// Receives the numbers of every generation BacteriaLifeLogic steps (setStepListener).
+// Called on the stepping thread right after the step, so it should be cheap
+public interface StepListener {
+    // nanos: time the step took. allocatedBytes: bytes the stepping thread allocated meanwhile,
+    // -1 when the JVM can't tell (bands of a parallel step allocate on pool threads, not counted)
+    void stepped(int round, long nanos, long population, long births, long deaths, long allocatedBytes);
+
+    // The generation limit stopped the run before it became stable
+    default void roundLimitReached(int maxRounds, long population) {
+    }
+}
@@ -0,0 +1,129 @@
+import java.util.Arrays;
+
+// StepListener that sums up a run: step latency histogram, births, deaths, last population,
+// generations per second of step time and allocation per step. Fixed size, recording a step
+// allocates nothing. Read it from the stepping thread or once the run is over
+public class StepMetrics implements StepListener {
+    // Latency buckets: exact below 8 ns, then 8 per power of two (at most 12.5% off)
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private final long[] latency = new long[64 * SUB_BUCKETS];
+
+    private long steps;
+    private long totalNanos;
+    private long maxNanos;
+    private long births;
+    private long deaths;
+    private long population;
+    private long allocatedBytes;
+    // Steps the allocation is known for
+    private long allocationSteps;
+    private boolean roundLimitReached;
+
+    @Override
+    public void stepped(int round, long nanos, long population, long births, long deaths, long allocatedBytes) {
+        steps++;
+        totalNanos += nanos;
+        maxNanos = Math.max(maxNanos, nanos);
+        latency[bucket(Math.max(0, nanos))]++;
+        this.births += births;
+        this.deaths += deaths;
+        this.population = population;
+        if (allocatedBytes >= 0) {
+            this.allocatedBytes += allocatedBytes;
+            allocationSteps++;
+        }
+    }
+
+    @Override
+    public void roundLimitReached(int maxRounds, long population) {
+        roundLimitReached = true;
+        this.population = population;
+    }
+
+    static int bucket(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int sub = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    // Largest latency that falls in the bucket
+    static long bucketLimit(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long low = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - SUB_BUCKET_BITS);
+        return low + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    // Step latency at percentile p (0-100) in ns, rounded up to its bucket, 0 before any step
+    public long getLatencyPercentile(double p) {
+        if (p < 0 || p > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + p);
+        }
+        long rank = Math.max(1, (long) Math.ceil(p / 100 * steps));
+        long seen = 0;
+        for (int b = 0; b < latency.length; b++) {
+            seen += latency[b];
+            if (seen >= rank) {
+                return Math.min(bucketLimit(b), maxNanos);
+            }
+        }
+        return 0;
+    }
+
+    public long getMaxLatency() {
+        return maxNanos;
+    }
+
+    public double getMeanLatency() {
+        return steps == 0 ? 0 : (double) totalNanos / steps;
+    }
+
+    // Rate of the steps alone, without the time spent between them
+    public double getGenerationsPerSecond() {
+        return totalNanos == 0 ? 0 : steps * 1e9 / totalNanos;
+    }
+
+    // Average bytes allocated by the stepping thread per step, -1 if the JVM didn't tell
+    public double getAllocatedBytesPerStep() {
+        return allocationSteps == 0 ? -1 : (double) allocatedBytes / allocationSteps;
+    }
+
+    public long getSteps() {
+        return steps;
+    }
+
+    public long getBirths() {
+        return births;
+    }
+
+    public long getDeaths() {
+        return deaths;
+    }
+
+    public long getPopulation() {
+        return population;
+    }
+
+    public boolean isRoundLimitReached() {
+        return roundLimitReached;
+    }
+
+    public void reset() {
+        Arrays.fill(latency, 0);
+        steps = 0;
+        totalNanos = 0;
+        maxNanos = 0;
+        births = 0;
+        deaths = 0;
+        population = 0;
+        allocatedBytes = 0;
+        allocationSteps = 0;
+        roundLimitReached = false;
+    }
+}
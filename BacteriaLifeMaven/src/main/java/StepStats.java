@@ -0,0 +1,120 @@
+import java.util.Arrays;
+
+// Change information collected while a generation is computed,
+// so stability is known as soon as the step ends without comparing both gens again
+public class StepStats {
+    private long births;
+    private long deaths;
+    // XOR of the Zobrist keys of every changed cell
+    private long hashDelta;
+    // The words that changed, only while logging: for each, the cell of its bit 0, the births and the
+    // deaths. GenerationDelta and RewindBuffer read them instead of comparing both gens again
+    private boolean logging;
+    private long[] log = new long[0];
+    private int logged;
+    // Added to every cell number: a band of a larger grid numbers its cells as the whole grid does
+    private long cellOffset;
+
+    public void reset() {
+        births = 0;
+        deaths = 0;
+        hashDelta = 0;
+        logged = 0;
+    }
+
+    // Keep the changed words of the next steps. The log grows to the busiest step and is then reused
+    public void setLogging(boolean logging) {
+        this.logging = logging;
+        if (!logging) {
+            log = new long[0];
+            logged = 0;
+        }
+    }
+
+    public boolean isLogging() {
+        return logging;
+    }
+
+    // Cell number of the band's first cell in the whole grid, see cellOffset
+    public void setCellOffset(long cellOffset) {
+        this.cellOffset = cellOffset;
+    }
+
+    // Account one word of cells: before and after the step. firstCell is the index of its bit 0
+    void addWord(long before, long after, long firstCell) {
+        long changed = before ^ after;
+        if (changed == 0) {
+            return;
+        }
+        firstCell += cellOffset;
+        births += Long.bitCount(changed & after);
+        deaths += Long.bitCount(changed & before);
+        if (logging) {
+            log(firstCell, changed & after, changed & before);
+        }
+        while (changed != 0) {
+            hashDelta ^= CycleDetector.zobrist(firstCell + Long.numberOfTrailingZeros(changed));
+            changed &= changed - 1;
+        }
+    }
+
+    private void log(long firstCell, long born, long died) {
+        if (3 * logged == log.length) {
+            log = Arrays.copyOf(log, Math.max(3 * 64, 2 * log.length));
+        }
+        log[3 * logged] = firstCell;
+        log[3 * logged + 1] = born;
+        log[3 * logged + 2] = died;
+        logged++;
+    }
+
+    // Merge the stats of another band of the same step, its changed words after these
+    void add(StepStats other) {
+        births += other.births;
+        deaths += other.deaths;
+        hashDelta ^= other.hashDelta;
+        for (int i = 0; i < other.logged; i++) {
+            log(other.log[3 * i], other.log[3 * i + 1], other.log[3 * i + 2]);
+        }
+    }
+
+    // Changed words logged since the last reset, in the order the step computed them
+    int getLoggedWords() {
+        return logged;
+    }
+
+    // Cell of bit 0 of logged word i, numbered row * cols + col
+    long getLoggedCell(int i) {
+        return log[3 * i];
+    }
+
+    // Bits of logged word i that were born, and that died
+    long getLoggedBirths(int i) {
+        return log[3 * i + 1];
+    }
+
+    long getLoggedDeaths(int i) {
+        return log[3 * i + 2];
+    }
+
+    public long getBirths() {
+        return births;
+    }
+
+    public long getDeaths() {
+        return deaths;
+    }
+
+    public long getChangedCells() {
+        return births + deaths;
+    }
+
+    // XOR it into the hash of the old gen to get the hash of the new one
+    public long getHashDelta() {
+        return hashDelta;
+    }
+
+    public boolean hasChanged() {
+        return births != 0 || deaths != 0;
+    }
+}
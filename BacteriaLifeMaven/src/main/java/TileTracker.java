@@ -0,0 +1,138 @@
+import java.util.Arrays;
+
+// Splits a grid into tiles and remembers which ones changed in the last step.
+// A tile is only recomputed when it or one of its 8 neighbour tiles changed, every other
+// tile is a still area and its cells are already right in both generation buffers.
+public class TileTracker {
+    public static final int TILE_ROWS = 32;
+    public static final int TILE_WORDS = 2; // 128 columns
+
+    private final int rows;
+    private final int words;
+    private final int tileRows; // Tiles per column
+    private final int tileCols; // Tiles per row
+    private final boolean[] changed; // Changed in the last step
+    private final boolean[] active;  // To be computed in this step
+    private int activeCount;
+    // Torus: tiles on opposite edges are neighbours
+    private boolean wrapped;
+
+    public TileTracker(BitGrid grid) {
+        this.rows = grid.getRows();
+        this.words = grid.getWords();
+        this.tileRows = (rows + TILE_ROWS - 1) / TILE_ROWS;
+        this.tileCols = (words + TILE_WORDS - 1) / TILE_WORDS;
+        this.changed = new boolean[tileRows * tileCols];
+        this.active = new boolean[tileRows * tileCols];
+        markAllDirty();
+    }
+
+    // Recompute everything in the next step. Needed whenever a buffer was written from outside
+    public void markAllDirty() {
+        Arrays.fill(changed, true);
+    }
+
+    // Work out the active tiles (changed ones and their neighbours) before stepping
+    public int prepare() {
+        activeCount = 0;
+        for (int tr = 0; tr < tileRows; tr++) {
+            for (int tc = 0; tc < tileCols; tc++) {
+                boolean dirty = false;
+                for (int dr = -1; dr <= 1 && !dirty; dr++) {
+                    int r = neighbour(tr + dr, tileRows);
+                    for (int dc = -1; dc <= 1 && r >= 0; dc++) {
+                        int c = neighbour(tc + dc, tileCols);
+                        if (c >= 0 && changed[r * tileCols + c]) {
+                            dirty = true;
+                            break;
+                        }
+                    }
+                }
+                active[tr * tileCols + tc] = dirty;
+                if (dirty) {
+                    activeCount++;
+                }
+            }
+        }
+        return activeCount;
+    }
+
+    // Tile index across an edge: the opposite one on a torus, -1 (none) otherwise
+    private int neighbour(int index, int count) {
+        if (index >= 0 && index < count) {
+            return index;
+        }
+        return wrapped ? Math.floorMod(index, count) : -1;
+    }
+
+    // Tiles on opposite edges affect each other (torus boundary)
+    public void setWrapped(boolean wrapped) {
+        this.wrapped = wrapped;
+    }
+
+    public boolean isWrapped() {
+        return wrapped;
+    }
+
+    // Step the active tiles of tile rows [tileRowFrom, tileRowTo) and record which ones changed
+    public void step(BitGrid src, BitGrid dst, int tileRowFrom, int tileRowTo, Rule rule, StepStats stats) {
+        // Tiles are narrower than a SIMD register: with the vector step on, neighbouring active tiles
+        // are stepped as one block and their changed flags are read back afterwards
+        boolean merge = VectorSupport.getLanes() > TILE_WORDS;
+        for (int tr = tileRowFrom; tr < tileRowTo; tr++) {
+            int rowFrom = tr * TILE_ROWS;
+            int rowTo = Math.min(rows, rowFrom + TILE_ROWS);
+            int tc = 0;
+            while (tc < tileCols) {
+                int tile = tr * tileCols + tc;
+                if (!active[tile]) {
+                    changed[tile] = false;
+                    tc++;
+                    continue;
+                }
+                int end = tc + 1;
+                while (merge && end < tileCols && active[tile + end - tc]) {
+                    end++;
+                }
+                int wordFrom = tc * TILE_WORDS;
+                int wordTo = Math.min(words, end * TILE_WORDS);
+                boolean any = BitGrid.stepBlock(src, dst, rowFrom, rowTo, wordFrom, wordTo, rule, stats);
+                if (end - tc == 1) {
+                    changed[tile] = any;
+                } else {
+                    for (int t = tc; t < end; t++) {
+                        int from = t * TILE_WORDS;
+                        changed[tile + t - tc] = any
+                                && dst.differs(src, rowFrom, rowTo, from, Math.min(words, from + TILE_WORDS));
+                    }
+                }
+                tc = end;
+            }
+        }
+    }
+
+    public void step(BitGrid src, BitGrid dst, int tileRowFrom, int tileRowTo, StepStats stats) {
+        step(src, dst, tileRowFrom, tileRowTo, Rule.CONWAY, stats);
+    }
+
+    public void step(BitGrid src, BitGrid dst, StepStats stats) {
+        step(src, dst, 0, tileRows, Rule.CONWAY, stats);
+    }
+
+    public void step(BitGrid src, BitGrid dst, Rule rule, StepStats stats) {
+        step(src, dst, 0, tileRows, rule, stats);
+    }
+
+    // Tiles computed in the last prepared step
+    public int getActiveTiles() {
+        return activeCount;
+    }
+
+    public int getTileCount() {
+        return changed.length;
+    }
+
+    public int getTileRows() {
+        return tileRows;
+    }
+}
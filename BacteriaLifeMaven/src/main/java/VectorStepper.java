@@ -0,0 +1,123 @@
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// BitGrid.stepRow with the Vector API: the same full-adder bit planes, LANES words of a row per
+// instruction (4 with AVX2, 8 with AVX-512). Only loaded once VectorSupport found the module.
+// -Dbacteria.vector.bits=128|256|512 forces a width, by default the widest the CPU has
+final class VectorStepper {
+    static final VectorSpecies<Long> SPECIES = species(Integer.getInteger("bacteria.vector.bits", 0));
+    static final int LANES = SPECIES.length();
+
+    private VectorStepper() {
+    }
+
+    static VectorSpecies<Long> species(int bits) {
+        switch (bits) {
+            case 0:
+                return LongVector.SPECIES_PREFERRED;
+            case 128:
+                return LongVector.SPECIES_128;
+            case 256:
+                return LongVector.SPECIES_256;
+            case 512:
+                return LongVector.SPECIES_512;
+            default:
+                throw new IllegalArgumentException("Vector width must be 128, 256 or 512 bits: " + bits);
+        }
+    }
+
+    // Words [wordFrom, wordTo) of one row. Returns the OR of the changed bits
+    static long stepRow(BitGrid src, BitGrid dst, int row, int wordFrom, int wordTo, Rule rule,
+                        StepStats stats) {
+        long[] in = src.getCells();
+        long[] out = dst.getCells();
+        int stride = src.getStride();
+        int base = src.index(row, 0);
+        long firstCell = (long) row * src.getCols();
+        // The last word of the row is masked, it is left to the scalar loop with the rest of the tail
+        int vectorWords = Math.max(0, Math.min(wordTo, src.getWords() - 1) - wordFrom);
+        int vectorTo = wordFrom + vectorWords - vectorWords % LANES;
+
+        long changed = 0;
+        for (int w = wordFrom; w < vectorTo; w += LANES) {
+            int i = base + w;
+            int up = i - stride;
+            int down = i + stride;
+
+            LongVector n = LongVector.fromArray(SPECIES, in, up);
+            LongVector nw = west(n, LongVector.fromArray(SPECIES, in, up - 1));
+            LongVector ne = east(n, LongVector.fromArray(SPECIES, in, up + 1));
+            LongVector alive = LongVector.fromArray(SPECIES, in, i);
+            LongVector west = west(alive, LongVector.fromArray(SPECIES, in, i - 1));
+            LongVector east = east(alive, LongVector.fromArray(SPECIES, in, i + 1));
+            LongVector s = LongVector.fromArray(SPECIES, in, down);
+            LongVector sw = west(s, LongVector.fromArray(SPECIES, in, down - 1));
+            LongVector se = east(s, LongVector.fromArray(SPECIES, in, down + 1));
+
+            // Row above and below: 3 inputs -> 2 bits each, own row: 2 inputs -> 2 bits
+            LongVector u0 = nw.lanewise(VectorOperators.XOR, n).lanewise(VectorOperators.XOR, ne);
+            LongVector u1 = nw.and(n).or(ne.and(nw.lanewise(VectorOperators.XOR, n)));
+            LongVector d0 = sw.lanewise(VectorOperators.XOR, s).lanewise(VectorOperators.XOR, se);
+            LongVector d1 = sw.and(s).or(se.and(sw.lanewise(VectorOperators.XOR, s)));
+            LongVector m0 = west.lanewise(VectorOperators.XOR, east);
+            LongVector m1 = west.and(east);
+
+            // Above + below, then + own row -> sum = r0 + 2*r1 + 4*r2 + 8*r3
+            LongVector s0 = u0.lanewise(VectorOperators.XOR, d0);
+            LongVector c0 = u0.and(d0);
+            LongVector u1d1 = u1.lanewise(VectorOperators.XOR, d1);
+            LongVector s1 = u1d1.lanewise(VectorOperators.XOR, c0);
+            LongVector c1 = u1.and(d1).or(c0.and(u1d1));
+            LongVector r0 = s0.lanewise(VectorOperators.XOR, m0);
+            LongVector k0 = s0.and(m0);
+            LongVector s1m1 = s1.lanewise(VectorOperators.XOR, m1);
+            LongVector r1 = s1m1.lanewise(VectorOperators.XOR, k0);
+            LongVector k1 = s1.and(m1).or(k0.and(s1m1));
+            LongVector r2 = c1.lanewise(VectorOperators.XOR, k1);
+            LongVector r3 = c1.and(k1);
+
+            LongVector next = next(rule, alive, r0, r1, r2, r3);
+            next.intoArray(out, i);
+
+            // Stats are per word, only for the words that changed
+            if (alive.compare(VectorOperators.NE, next).anyTrue()) {
+                for (int k = 0; k < LANES; k++) {
+                    long before = in[i + k];
+                    long after = out[i + k];
+                    changed |= before ^ after;
+                    stats.addWord(before, after, firstCell + ((long) (w + k) << 6));
+                }
+            }
+        }
+        return changed | BitGrid.stepRow(src, dst, row, vectorTo, wordTo, rule, stats);
+    }
+
+    // Neighbour to the west of every bit: shift left, carry in the top bit of the previous word
+    private static LongVector west(LongVector words, LongVector previous) {
+        return words.lanewise(VectorOperators.LSHL, 1).or(previous.lanewise(VectorOperators.LSHR, 63));
+    }
+
+    private static LongVector east(LongVector words, LongVector following) {
+        return words.lanewise(VectorOperators.LSHR, 1).or(following.lanewise(VectorOperators.LSHL, 63));
+    }
+
+    // Rule.next as lane-wise masks
+    private static LongVector next(Rule rule, LongVector alive, LongVector r0, LongVector r1, LongVector r2,
+                                   LongVector r3) {
+        if (rule.isConway()) {
+            return r1.and(r2.or(r3).not()).and(r0.or(alive));
+        }
+        LongVector dead = alive.not();
+        LongVector next = LongVector.zero(SPECIES);
+        for (int k = 0; k < rule.getTermCount(); k++) {
+            LongVector equal = r0.lanewise(VectorOperators.XOR, ~rule.getPlane(k, 0))
+                    .and(r1.lanewise(VectorOperators.XOR, ~rule.getPlane(k, 1)))
+                    .and(r2.lanewise(VectorOperators.XOR, ~rule.getPlane(k, 2)))
+                    .and(r3.lanewise(VectorOperators.XOR, ~rule.getPlane(k, 3)));
+            LongVector applies = dead.and(rule.getBornMask(k)).or(alive.and(rule.getKeptMask(k)));
+            next = next.or(equal.and(applies));
+        }
+        return next;
+    }
+}
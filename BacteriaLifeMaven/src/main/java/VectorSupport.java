@@ -0,0 +1,52 @@
+// Switch for the SIMD step (VectorStepper). It is on when the JVM was started with the incubating
+// Vector API module (java --add-modules jdk.incubator.vector ...), unless -Dbacteria.vector=false.
+// This class never touches the module itself, so it loads on any JVM and the scalar step is used.
+// Narrow blocks stay scalar: below DEFAULT_MIN_WORDS words per row the vector loop has too few full
+// registers to pay for its setup and the masked tail (-Dbacteria.vector.minWords=N to change it)
+public final class VectorSupport {
+    public static final boolean AVAILABLE = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+    // VectorStepBenchmark on an AVX-512 host, SIMD vs scalar: 512 columns (8 words) +2%, within the
+    // error; 1024 +11%; 2048 +12%; 4096 +21%. No AVX2 host was measured, forcing 256-bit registers
+    // there gave the same picture (+4% at 512, +9% at 1024)
+    public static final int DEFAULT_MIN_WORDS = 16;
+    private static boolean enabled = AVAILABLE && !"false".equals(System.getProperty("bacteria.vector"));
+    private static int minWords = Math.max(1, Integer.getInteger("bacteria.vector.minWords", DEFAULT_MIN_WORDS));
+
+    private VectorSupport() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    // Turn the SIMD step on or off, for comparisons. Not meant to change while a step runs
+    public static void setEnabled(boolean on) {
+        if (on && !AVAILABLE) {
+            throw new IllegalStateException("jdk.incubator.vector is not available, start java with"
+                    + " --add-modules jdk.incubator.vector");
+        }
+        enabled = on;
+    }
+
+    // Whether a block of this many words per row is stepped with SIMD
+    public static boolean isEnabledFor(int words) {
+        return enabled && words >= minWords;
+    }
+
+    public static int getMinWords() {
+        return minWords;
+    }
+
+    // Narrowest block stepped with SIMD, in words per row. Not meant to change while a step runs
+    public static void setMinWords(int words) {
+        if (words <= 0) {
+            throw new IllegalArgumentException("Minimum SIMD width must be positive: " + words);
+        }
+        minWords = words;
+    }
+
+    // Words stepped per SIMD instruction, 1 on the scalar step
+    public static int getLanes() {
+        return enabled ? VectorStepper.LANES : 1;
+    }
+}
@@ -1,6 +1,17 @@
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -31,6 +42,48 @@ public class BacteriaLifeLogicTest {
         }
     }
 
+    @Test
+    void testGenerateInitialGen_SeededAndDensity() {
+        int[][] a = logic.generateInitialGen(99, 0.5);
+        int[][] b = logic.generateInitialGen(99, 0.5);
+
+        // Misma semilla, mismo tablero
+        assertTrue(Arrays.deepEquals(a, b));
+        assertEquals(0, Arrays.stream(logic.generateInitialGen(99, 0)).flatMapToInt(Arrays::stream).sum());
+        assertEquals(SIZE * SIZE, Arrays.stream(logic.generateInitialGen(99, 1)).flatMapToInt(Arrays::stream).sum());
+        assertThrows(IllegalArgumentException.class, () -> logic.generateInitialGen(1, -0.1));
+    }
+
+    @Test
+    void testLoadRandom_SameGridAsGenerateInitialGen() {
+        int[][] expected = logic.generateInitialGen(5, 0.4);
+        logic.loadRandom(5, 0.4);
+        assertTrue(Arrays.deepEquals(expected, logic.getCurrentGrid().toGen()));
+        assertEquals(Arrays.stream(expected).flatMapToInt(Arrays::stream).sum(), logic.getPopulation());
+
+        // En modo paralelo el tablero es el mismo
+        BacteriaLifeLogic parallel = new BacteriaLifeLogic(SIZE);
+        parallel.setParallelStepper(new ParallelStepper(ForkJoinPool.commonPool(), 0));
+        assertTrue(Arrays.deepEquals(expected, parallel.generateInitialGen(5, 0.4)));
+        parallel.loadRandom(5, 0.4);
+        assertTrue(Arrays.deepEquals(expected, parallel.getCurrentGrid().toGen()));
+        assertThrows(IllegalArgumentException.class, () -> logic.loadRandom(5, 2));
+    }
+
+    @Test
+    void testLoadBitGrid_SameAsIntGen() {
+        BitGrid grid = logic.generateInitialGrid(7, 0.5);
+        assertTrue(Arrays.deepEquals(logic.generateInitialGen(7, 0.5), grid.toGen()));
+
+        logic.loadGrid(grid);
+        grid.setAlive(0, 0, !grid.isAlive(0, 0)); // La lógica se queda con una copia
+        assertTrue(Arrays.deepEquals(logic.generateInitialGen(7, 0.5), logic.getCurrentGrid().toGen()));
+        assertEquals(0, logic.getRound());
+        assertTrue(logic.step());
+        assertTrue(Arrays.deepEquals(BitGridTest.conway(logic.generateInitialGen(7, 0.5)),
+                logic.getCurrentGrid().toGen()));
+    }
+
     @Test
     void testCheckNeighbours_Center() {
         // Creamos un tablero manual 3x3
@@ -160,4 +213,451 @@ public class BacteriaLifeLogicTest {
         assertTrue(BacteriaLifeLogic.checkStableGen(genA, genB), "Debería detectar estabilidad (iguales)");
         assertFalse(BacteriaLifeLogic.checkStableGen(genA, genC), "Debería detectar inestabilidad (distintos)");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGenerateNewGen_WithBufferMatchesAllocatingVersion() {
+        int[][] gen = BitGridTest.randomGen(SIZE, SIZE, 7);
+        int[][] buffer = new int[SIZE][SIZE];
+
+        int[][] expected = new BacteriaLifeLogic(SIZE).generateNewGen(gen);
+        int[][] result = logic.generateNewGen(gen, buffer);
+
+        assertSame(buffer, result, "Debe escribir en el buffer recibido");
+        assertTrue(Arrays.deepEquals(expected, result));
+    }
+
+    @Test
+    void testGenerateNewGen_SwappedBuffersFollowStep() {
+        int[][] a = BitGridTest.randomGen(SIZE, SIZE, 8);
+        int[][] b = new int[SIZE][SIZE];
+        BacteriaLifeLogic stepped = new BacteriaLifeLogic(SIZE);
+        stepped.load(a);
+
+        // El array devuelto no se vuelve a cargar: mismo resultado que step()
+        for (int i = 0; i < 40; i++) {
+            int[][] r = logic.generateNewGen(a, b);
+            stepped.step();
+            assertTrue(Arrays.deepEquals(stepped.getCurrentGrid().toGen(), r), "Ronda " + (i + 1));
+            assertEquals(stepped.getPopulation(), logic.getPopulation());
+            b = a;
+            a = r;
+        }
+
+        // Otro array sí se carga
+        int[][] other = BitGridTest.randomGen(SIZE, SIZE, 9);
+        int[][] expected = new BacteriaLifeLogic(SIZE).generateNewGen(other);
+        assertTrue(Arrays.deepEquals(expected, logic.generateNewGen(other, b)));
+    }
+
+    @Test
+    void testStep_SteadyStateAllocatesNothing() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        int size = 256;
+        int iterations = 1000;
+        BacteriaLifeLogic big = new BacteriaLifeLogic(size);
+        // Sin llegar al límite de rondas durante la prueba
+        big.setMaxRounds(10_000);
+        int[][] a = BitGridTest.randomGen(size, size, 11);
+        int[][] b = new int[size][size];
+
+        // Calentamiento: los dos buffers ya existen y C2 ha compilado (y recompilado) el bucle
+        for (int i = 0; i < 200; i++) {
+            int[][] r = big.generateNewGen(a, b);
+            b = a;
+            a = r;
+            big.step();
+        }
+
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < iterations; i++) {
+            // Modo int[][] con dos buffers intercambiados
+            int[][] r = big.generateNewGen(a, b);
+            b = a;
+            a = r;
+            // Modo interno con BitGrid
+            big.step();
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        // Media por iteración: el JIT o la propia medida pueden reservar unos pocos bytes sueltos
+        // (152 alguna vez), pero cualquier objeto por paso pasaría de 8 bytes de media
+        double perIteration = (double) allocated / iterations;
+        assertTrue(perIteration < 8, "El bucle estable no debe reservar memoria: " + allocated + " bytes en "
+                + iterations + " iteraciones");
+    }
+
+    @Test
+    void testIsStable_ReportedByTheStep() {
+        int[][] block = {
+                {0, 0, 0, 0},
+                {0, 1, 1, 0},
+                {0, 1, 1, 0},
+                {0, 0, 0, 0}
+        };
+        int[][] blinker = {
+                {0, 0, 0},
+                {1, 1, 1},
+                {0, 0, 0}
+        };
+
+        logic.generateNewGen(block);
+        assertTrue(logic.isStable(), "El bloque no cambia, debe ser estable");
+        assertEquals(4, logic.getPopulation());
+
+        logic.generateNewGen(blinker);
+        assertFalse(logic.isStable(), "El blinker cambia en cada ronda");
+        assertEquals(2, logic.getStepStats().getBirths());
+        assertEquals(2, logic.getStepStats().getDeaths());
+    }
+
+    @Test
+    void testRecorder_ReplayMatchesRun(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("run.blg");
+        BacteriaLifeLogic run = new BacteriaLifeLogic(40);
+        int[][] gen = run.generateInitialGen(11, 0.4);
+        List<int[][]> gens = new ArrayList<>();
+        try (GenerationRecorder recorder = new GenerationRecorder(file, 40, 40, 16)) {
+            run.setRecorder(recorder);
+            assertSame(recorder, run.getRecorder());
+            // generateNewGen sigue desde el doble buffer con el array que devolvió, sin cargarlo otra vez
+            for (int i = 0; i < 60; i++) {
+                gens.add(gen);
+                gen = run.generateNewGen(gen);
+            }
+            gens.add(gen);
+            run.setRecorder(null);
+        }
+
+        try (GenerationReplay replay = GenerationReplay.open(file)) {
+            assertEquals(61, replay.getGenerationCount());
+            for (int g = 0; g < gens.size(); g++) {
+                assertTrue(Arrays.deepEquals(gens.get(g), replay.toGen(g)), "Generación " + g);
+            }
+
+            // Reanudar desde la generación 30 da lo mismo que la ejecución original
+            BacteriaLifeLogic resumed = new BacteriaLifeLogic(40);
+            resumed.load(replay, 30);
+            assertEquals(30, resumed.getRound());
+            resumed.step();
+            assertTrue(Arrays.deepEquals(gens.get(31), resumed.getCurrentGrid().toGen()));
+        }
+    }
+
+    @Test
+    void testRecorder_StepsAndReloadMidRun(@TempDir Path dir) throws IOException {
+        // Los pasos graban desde su registro de cambios; tras cargar otro tablero se vuelve a comparar
+        Path file = dir.resolve("steps.blg");
+        BacteriaLifeLogic run = new BacteriaLifeLogic(40);
+        List<int[][]> gens = new ArrayList<>();
+        try (GenerationRecorder recorder = new GenerationRecorder(file, 40, 40, 16)) {
+            run.setRecorder(recorder);
+            run.loadRandom(12, 0.4);
+            gens.add(run.getCurrentGrid().toGen());
+            for (int i = 0; i < 50; i++) {
+                if (i == 25) {
+                    // Un planeador solo: el siguiente delta es pequeño y no se convierte en keyframe
+                    int[][] glider = new int[40][40];
+                    glider[0][1] = glider[1][2] = glider[2][0] = glider[2][1] = glider[2][2] = 1;
+                    run.load(glider);
+                }
+                run.step();
+                gens.add(run.getCurrentGrid().toGen());
+            }
+            run.setRecorder(null);
+        }
+
+        try (GenerationReplay replay = GenerationReplay.open(file)) {
+            assertEquals(gens.size(), replay.getGenerationCount());
+            for (int g = 0; g < gens.size(); g++) {
+                assertTrue(Arrays.deepEquals(gens.get(g), replay.toGen(g)), "Generación " + g);
+            }
+        }
+    }
+
+    @Test
+    void testSetRule_HighLifeReplicator() {
+        // El replicador de HighLife (B36/S23) crece, con la regla original se comporta distinto
+        int[][] gen = new int[40][40];
+        int[][] cells = {{18, 19}, {18, 20}, {18, 21}, {19, 18}, {19, 21}, {20, 17}, {20, 21},
+                {21, 17}, {21, 20}, {22, 17}, {22, 18}, {22, 19}};
+        for (int[] c : cells) {
+            gen[c[0]][c[1]] = 1;
+        }
+        Rule highLife = Rule.parse("B36/S23");
+        BacteriaLifeLogic life = new BacteriaLifeLogic(40);
+        life.setRule(highLife);
+        assertEquals(highLife, life.getRule());
+        life.load(gen);
+
+        int[][] expected = gen;
+        for (int round = 0; round < 30; round++) {
+            life.step();
+            expected = BacteriaLifeLogic.stepReference(expected, highLife);
+            assertTrue(Arrays.deepEquals(expected, life.getCurrentGrid().toGen()), "Ronda " + round);
+        }
+        assertFalse(Arrays.deepEquals(expected, runConway(gen, 30)), "La regla debe cambiar el resultado");
+
+        // Volver a la regla por defecto recalcula todo el tablero
+        life.setRule(Rule.CONWAY);
+        life.step();
+        assertTrue(Arrays.deepEquals(BitGridTest.conway(expected), life.getCurrentGrid().toGen()));
+    }
+
+    private static int[][] runConway(int[][] gen, int rounds) {
+        for (int i = 0; i < rounds; i++) {
+            gen = BitGridTest.conway(gen);
+        }
+        return gen;
+    }
+
+    @Test
+    void testStepListener_EveryStepAndTheLimit() {
+        StepMetrics metrics = new StepMetrics();
+        logic.setStepListener(metrics);
+        assertSame(metrics, logic.getStepListener());
+        logic.setMaxRounds(3);
+        logic.load(new int[][]{
+                {0, 0, 0, 0, 0},
+                {0, 0, 1, 0, 0},
+                {0, 0, 1, 0, 0},
+                {0, 0, 1, 0, 0},
+                {0, 0, 0, 0, 0}
+        });
+
+        // El parpadeador: 2 nacimientos y 2 muertes por generación
+        while (logic.step()) {
+            // Hasta el límite
+        }
+        assertEquals(3, metrics.getSteps());
+        assertEquals(6, metrics.getBirths());
+        assertEquals(6, metrics.getDeaths());
+        assertEquals(3, metrics.getPopulation());
+        assertTrue(metrics.isRoundLimitReached(), "El límite se notifica en vez de imprimirse");
+        assertTrue(metrics.getMaxLatency() > 0);
+
+        // Sin oyente no se mide nada
+        logic.setStepListener(null);
+        logic.setMaxRounds(10);
+        logic.step();
+        assertEquals(3, metrics.getSteps());
+
+        // Un oyente lambda sólo recibe los pasos, el aviso del límite es opcional
+        List<Integer> rounds = new ArrayList<>();
+        logic.setStepListener((round, nanos, population, births, deaths, allocated) -> rounds.add(round));
+        int next = logic.getRound() + 1;
+        logic.setMaxRounds(next);
+        assertTrue(logic.step());
+        assertFalse(logic.step());
+        assertEquals(List.of(next), rounds);
+    }
+
+    @Test
+    void testRoundLimit_ReportedOnce() {
+        int[] reports = new int[1];
+        logic.setStepListener(new StepListener() {
+            @Override
+            public void stepped(int round, long nanos, long population, long births, long deaths, long allocated) {
+            }
+
+            @Override
+            public void roundLimitReached(int maxRounds, long population) {
+                reports[0]++;
+            }
+        });
+        logic.setMaxRounds(2);
+        logic.load(BitGridTest.randomGen(SIZE, SIZE, 5));
+        // Los pasos pasado el límite devuelven false sin volver a avisar
+        for (int i = 0; i < 6; i++) {
+            logic.step();
+        }
+        assertEquals(1, reports[0]);
+
+        // Cargar otro tablero empieza otra ejecución, que vuelve a avisar
+        logic.load(BitGridTest.randomGen(SIZE, SIZE, 6));
+        for (int i = 0; i < 6; i++) {
+            logic.step();
+        }
+        assertFalse(logic.step());
+        assertEquals(2, reports[0]);
+    }
+
+    @Test
+    void testJfrEvents_StepAndRoundLimit(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("run.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("bacteria.Step");
+            recording.enable("bacteria.RoundLimit");
+            recording.start();
+            logic.setMaxRounds(4);
+            logic.load(BitGridTest.randomGen(SIZE, SIZE, 3));
+            while (logic.step() && !logic.isStable()) {
+                // Hasta el límite o la estabilidad
+            }
+            logic.setMaxRounds(logic.getRound());
+            logic.step();
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        long steps = events.stream().filter(e -> e.getEventType().getName().equals("bacteria.Step")).count();
+        assertEquals(logic.getRound() - 1, steps, "Un evento por generación");
+        RecordedEvent limit = events.stream().filter(e -> e.getEventType().getName().equals("bacteria.RoundLimit"))
+                .findFirst().orElseThrow();
+        assertEquals(logic.getPopulation(), limit.getLong("population"));
+        RecordedEvent first = events.stream().filter(e -> e.getInt("round") == 1).findFirst().orElseThrow();
+        assertTrue(first.getLong("births") >= 0 && first.getLong("population") >= 0);
+    }
+
+    // Sigue hasta el final igual que HeadlessMain
+    private static void runToEnd(BacteriaLifeLogic logic) {
+        while (logic.step() && !logic.isCycling()) {
+            // Seguimos
+        }
+    }
+
+    @Test
+    void testResume_SameRunAsWithoutStopping() {
+        BacteriaLifeLogic straight = new BacteriaLifeLogic(48);
+        straight.setRule(Rule.parse("B36/S23"));
+        straight.setBoundary(Boundary.TORUS);
+        straight.setMaxRounds(400);
+        straight.loadRandom(21, 0.4);
+        BacteriaLifeLogic stopped = new BacteriaLifeLogic(48);
+        stopped.setRule(Rule.parse("B36/S23"));
+        stopped.setBoundary(Boundary.TORUS);
+        stopped.setMaxRounds(400);
+        stopped.loadRandom(21, 0.4);
+        for (int round = 0; round < 40; round++) {
+            assertTrue(stopped.step());
+        }
+        Checkpoint checkpoint = stopped.checkpoint();
+        stopped.step(); // La copia no cambia al seguir
+        assertEquals(40, checkpoint.getRound());
+        assertEquals(21, checkpoint.getSeed());
+        assertEquals(0.4, checkpoint.getDensity());
+
+        // Una lógica nueva, de otro tamaño y con otra regla, sigue desde la ronda 40
+        BacteriaLifeLogic resumed = new BacteriaLifeLogic(48);
+        resumed.load(new int[3][3]);
+        resumed.resume(checkpoint);
+        assertEquals(40, resumed.getRound());
+        assertEquals(Boundary.TORUS, resumed.getBoundary());
+        assertEquals(400, resumed.getMaxRounds());
+        runToEnd(straight);
+        runToEnd(resumed);
+
+        assertEquals(straight.getRound(), resumed.getRound());
+        assertEquals(straight.getCycleStart(), resumed.getCycleStart());
+        assertEquals(straight.getCyclePeriod(), resumed.getCyclePeriod());
+        assertEquals(straight.getPopulation(), resumed.getPopulation());
+        assertEquals(straight.getGenHash(), resumed.getGenHash());
+        assertTrue(straight.getCurrentGrid().sameCells(resumed.getCurrentGrid()));
+    }
+
+    @Test
+    void testResume_CycleStartedBeforeTheCheckpoint() {
+        // Un blinker: la ronda 2 repite la 0, que solo está en la historia guardada
+        int[][] blinker = new int[SIZE][SIZE];
+        blinker[2][1] = 1;
+        blinker[2][2] = 1;
+        blinker[2][3] = 1;
+        logic.load(blinker);
+        assertTrue(logic.step());
+        Checkpoint checkpoint = logic.checkpoint();
+        assertTrue(Double.isNaN(checkpoint.getDensity()), "No empezó desde una semilla");
+
+        BacteriaLifeLogic resumed = new BacteriaLifeLogic(SIZE);
+        resumed.resume(checkpoint);
+        assertTrue(resumed.step());
+        assertTrue(resumed.isCycling());
+        assertEquals(0, resumed.getCycleStart());
+        assertEquals(2, resumed.getCyclePeriod());
+    }
+
+    @Test
+    void testCheckpointWriter_EveryInterval(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("run.ckp");
+        BacteriaLifeLogic run = new BacteriaLifeLogic(40);
+        run.setMaxRounds(25);
+        run.loadRandom(6, 0.5);
+        CheckpointWriter writer = new CheckpointWriter(file);
+        run.setCheckpointWriter(writer, 10);
+        assertSame(writer, run.getCheckpointWriter());
+        for (int round = 1; round <= 25 && run.step(); round++) {
+            if (round == 20) {
+                assertEquals(20, run.checkpoint().getRound());
+            }
+        }
+        writer.close();
+        assertTrue(writer.getWritten() >= 1);
+        assertEquals(2, writer.getWritten() + writer.getSkipped(), "Rondas 10 y 20");
+        assertEquals(20, Checkpoint.read(file).getRound(), "Se queda el último");
+
+        assertThrows(IllegalArgumentException.class, () -> run.setCheckpointWriter(writer, 0));
+        run.setCheckpointWriter(null, 0);
+        assertNull(run.getCheckpointWriter());
+    }
+
+    @Test
+    void testBoundary_TorusMatchesReference() {
+        // Varias filas y columnas de tiles, para que los cambios crucen de un borde al otro
+        int[][] gen = BitGridTest.randomGen(70, 300, 21);
+        BacteriaLifeLogic torus = new BacteriaLifeLogic(70);
+        assertEquals(Boundary.DEAD, torus.getBoundary(), "Por defecto los bordes son muertos");
+        torus.setBoundary(Boundary.TORUS);
+        assertEquals(Boundary.TORUS, torus.getBoundary());
+        torus.setMaxRounds(1000);
+        torus.load(gen);
+
+        for (int round = 0; round < 120; round++) {
+            torus.step();
+            gen = BitGridTest.conway(gen, true);
+            assertTrue(Arrays.deepEquals(gen, torus.getCurrentGrid().toGen()), "Ronda " + round);
+            assertEquals(Arrays.stream(gen).flatMapToInt(Arrays::stream).sum(), torus.getPopulation());
+        }
+    }
+
+    @Test
+    void testBoundary_GliderCrossesTheEdges() {
+        // Un planeador en un toro de 8x8 vuelve a su sitio tras 32 generaciones
+        int[][] gen = new int[8][8];
+        gen[0][1] = gen[1][2] = gen[2][0] = gen[2][1] = gen[2][2] = 1;
+        BacteriaLifeLogic torus = new BacteriaLifeLogic(8);
+        torus.setBoundary(Boundary.TORUS);
+        torus.load(gen);
+        for (int i = 0; i < 32; i++) {
+            assertTrue(torus.step());
+            assertEquals(5, torus.getPopulation(), "El planeador no muere en el borde");
+        }
+        assertTrue(Arrays.deepEquals(gen, torus.getCurrentGrid().toGen()));
+        assertTrue(torus.isCycling(), "Vuelve a la misma posición: es un ciclo");
+
+        // Con bordes muertos se rompe contra la esquina
+        BacteriaLifeLogic dead = new BacteriaLifeLogic(8);
+        dead.load(gen);
+        for (int i = 0; i < 32; i++) {
+            dead.step();
+        }
+        assertFalse(Arrays.deepEquals(gen, dead.getCurrentGrid().toGen()));
+    }
+
+    @Test
+    void testBoundary_ParallelTorusMatchesSequential() {
+        int[][] gen = BitGridTest.randomGen(200, 200, 17);
+        BacteriaLifeLogic sequential = new BacteriaLifeLogic(200);
+        BacteriaLifeLogic parallel = new BacteriaLifeLogic(200);
+        parallel.setParallelStepper(new ParallelStepper(ForkJoinPool.commonPool(), 0));
+        sequential.setBoundary(Boundary.TORUS);
+        parallel.setBoundary(Boundary.TORUS);
+        sequential.load(gen);
+        parallel.load(gen);
+        for (int i = 0; i < 40; i++) {
+            sequential.step();
+            parallel.step();
+        }
+        assertTrue(sequential.getCurrentGrid().sameCells(parallel.getCurrentGrid()));
+    }
+}
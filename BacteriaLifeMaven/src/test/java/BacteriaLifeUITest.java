@@ -1,10 +1,12 @@
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mockito;
 
 import javax.swing.*;
 import java.awt.*;
+import java.nio.file.Path;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -42,7 +44,7 @@ class BacteriaLifeUITest {
     void testInitialization_Structure() {
         assertNotNull(ui.getFrame());
         assertTrue(ui.getFrame().isVisible());
-        assertNotNull(ui.getGenPanel());
+        assertNotNull(ui.getGridCanvas());
         assertNotNull(ui.getStartButton());
 
         // Verificamos que se llamó a la lógica para crear el tablero inicial
@@ -51,18 +53,15 @@ class BacteriaLifeUITest {
 
     @Test
     void testGridCreation_CorrectNumberOfCells() {
-        JPanel genPanel = ui.getGenPanel();
+        GridCanvas canvas = ui.getGridCanvas();
 
-        // El panel debe tener DIMENSION * DIMENSION componentes (30*30 = 900)
-        assertEquals(900, genPanel.getComponentCount(), "El grid debe tener 900 células");
+        // Un único componente pinta las DIMENSION * DIMENSION células (30*30 = 900)
+        assertEquals(DIMENSION, canvas.getRows());
+        assertEquals(DIMENSION, canvas.getCols());
 
-        // Verificamos que el primer componente es un Círculo y es NEGRO (porque initialBoard[0][0] = 1)
-        Component c = genPanel.getComponent(0);
-        assertTrue(c instanceof BacteriaLifeUI.Circle);
-        BacteriaLifeUI.Circle circle = (BacteriaLifeUI.Circle) c;
-
-        // Nota: En tu UI, 1 = BLACK, 0 = WHITE
-        assertEquals(Color.BLACK, circle.getColor(), "La célula viva debe ser negra");
+        // Nota: En tu UI, 1 = BLACK, 0 = WHITE (initialBoard[0][0] = 1)
+        assertEquals(Color.BLACK, canvas.getCellColor(0, 0), "La célula viva debe ser negra");
+        assertEquals(Color.WHITE, canvas.getCellColor(0, 1), "La célula muerta debe ser blanca");
     }
 
     @Test
@@ -73,23 +72,34 @@ class BacteriaLifeUITest {
     }
 
     @Test
-    void testEvolutionStep_UpdatesUI() {
+    void testEvolutionStep_UpdatesUI() throws Exception {
         // PREPARAR
-        // Simulamos que la lógica devuelve un nuevo tablero en el paso 1
+        // Simulamos que la lógica exporta un nuevo tablero en el paso 1
         int[][] nextBoard = new int[DIMENSION][DIMENSION];
         // En el nuevo tablero, la posición 0,0 muere (0) y la 0,1 nace (1)
         nextBoard[0][1] = 1;
 
-        when(mockLogic.generateNewGen(any())).thenReturn(nextBoard);
+        doAnswer(inv -> {
+            int[][] gen = inv.getArgument(0);
+            for (int i = 0; i < DIMENSION; i++) {
+                System.arraycopy(nextBoard[i], 0, gen[i], 0, DIMENSION);
+            }
+            return null;
+        }).when(mockLogic).exportGen(any());
         when(mockLogic.getRound()).thenReturn(1);
+        when(mockLogic.getMaxRounds()).thenReturn(300);
 
         // ACTUAR
-        // Llamamos manualmente al método que ejecutaría el Timer
-        ui.performEvolutionStep();
+        // step() del mock devuelve false: la simulación publica su último frame y termina
+        ui.getStartButton().doClick();
+        assertTrue(ui.getRunner().awaitTermination(2000), "La simulación debe terminar");
+        // Pintamos en el EDT, igual que el timer
+        SwingUtilities.invokeAndWait(ui::renderLatestFrame);
 
         // VERIFICAR
-        // 1. La lógica fue llamada
-        verify(mockLogic, times(1)).generateNewGen(any());
+        // 1. La lógica fue llamada desde el hilo de simulación
+        verify(mockLogic, times(1)).load(any());
+        verify(mockLogic, times(1)).step();
 
         // 2. El array interno de la UI se actualizó
         assertArrayEquals(nextBoard, ui.getBacteriaGen());
@@ -97,9 +107,211 @@ class BacteriaLifeUITest {
         // 3. La etiqueta de ronda se actualizó
         assertEquals("Round: 1", ui.getRoundLabel().getText());
 
-        // 4. Verificamos visualmente un cambio en el grid (Componente 1 ahora debe ser negro)
-        JPanel genPanel = ui.getGenPanel();
-        BacteriaLifeUI.Circle circleNewAlive = (BacteriaLifeUI.Circle) genPanel.getComponent(1); // fila 0, col 1
-        assertEquals(Color.BLACK, circleNewAlive.getColor(), "La nueva célula viva debe pintarse de negro");
+        // 4. Verificamos visualmente un cambio en el grid (fila 0, col 1 ahora debe ser negra)
+        GridCanvas canvas = ui.getGridCanvas();
+        assertEquals(Color.BLACK, canvas.getCellColor(0, 1), "La nueva célula viva debe pintarse de negro");
+        assertEquals(Color.WHITE, canvas.getCellColor(0, 0), "La célula muerta debe pintarse de blanco");
+
+        // 5. Al terminar el botón queda deshabilitado
+        assertFalse(ui.getStartButton().isEnabled());
+    }
+
+    @Test
+    void testPauseResume_TogglesWithoutBlocking() throws Exception {
+        // La simulación no termina nunca con este mock
+        when(mockLogic.step()).thenReturn(true);
+        when(mockLogic.getMaxRounds()).thenReturn(300);
+        JButton btn = ui.getStartButton();
+        assertTrue(ui.getRateLabel().getText().startsWith("Target: 10 gen/s"));
+
+        btn.doClick();
+        assertEquals("Pause", btn.getText());
+        btn.doClick();
+        assertEquals("Resume", btn.getText());
+        assertTrue(ui.getRunner().isPaused());
+        btn.doClick();
+        assertEquals("Pause", btn.getText());
+        assertFalse(ui.getRunner().isPaused());
+
+        ui.getRunner().stop();
+        assertTrue(ui.getRunner().awaitTermination(2000));
+    }
+
+    @Test
+    void testLargeGrid_UsesViewport() throws Exception {
+        // Por encima de MAX_CANVAS_DIMENSION la ventana usa el visor con zoom y trabaja con BitGrid
+        int size = 200;
+        BacteriaLifeLogic logic = new BacteriaLifeLogic(size);
+        logic.setMaxRounds(3);
+        BacteriaLifeUI large = new BacteriaLifeUI(logic, size);
+        try {
+            assertNull(large.getGridCanvas());
+            assertNull(large.getBacteriaGen());
+            GridViewport viewport = large.getGridViewport();
+            assertEquals(size, viewport.getRows());
+            assertTrue(viewport.getZoom() < 1, "Al abrir se ve el tablero entero");
+
+            large.getStartButton().doClick();
+            assertTrue(large.getRunner().awaitTermination(5000), "La simulación debe terminar");
+            SwingUtilities.invokeAndWait(large::renderLatestFrame);
+
+            assertEquals("Round: 3", large.getRoundLabel().getText());
+            BitGrid shown = logic.getCurrentGrid();
+            for (int col = 0; col < size; col++) {
+                Color expected = shown.isAlive(100, col) ? Color.BLACK : Color.WHITE;
+                assertEquals(expected, viewport.getCellColor(100, col), "Columna " + col);
+            }
+        } finally {
+            large.getFrame().dispose();
+        }
+    }
+
+    @Test
+    void testRewind_ScrubsThroughTheFinishedRun() throws Exception {
+        BacteriaLifeLogic logic = new BacteriaLifeLogic(DIMENSION);
+        logic.setMaxRounds(6);
+        BacteriaLifeUI rewound = new BacteriaLifeUI(logic);
+        try {
+            int[][] start = new int[DIMENSION][];
+            for (int i = 0; i < DIMENSION; i++) {
+                start[i] = rewound.getBacteriaGen()[i].clone();
+            }
+            assertFalse(rewound.getRewindSlider().isEnabled(), "Sin ejecución no hay nada que rebobinar");
+
+            rewound.getStartButton().doClick();
+            rewound.getRunner().setTargetRate(0);
+            assertTrue(rewound.getRunner().awaitTermination(5000));
+            SwingUtilities.invokeAndWait(rewound::renderLatestFrame);
+
+            // Terminada: el deslizador recorre lo que guarda el buffer
+            JSlider slider = rewound.getRewindSlider();
+            assertTrue(slider.isEnabled());
+            assertTrue(rewound.getBackButton().isEnabled());
+            assertEquals(rewound.getRewindBuffer().getLastRound(), slider.getValue());
+            SwingUtilities.invokeAndWait(() -> slider.setValue(slider.getMinimum()));
+            assertEquals("Round: 0 (rewind)", rewound.getRoundLabel().getText());
+            assertArrayEquals(start[7], rewound.getBacteriaGen()[7]);
+
+            // Un paso atrás desde la ronda 2 muestra la 1
+            SwingUtilities.invokeAndWait(() -> slider.setValue(2));
+            SwingUtilities.invokeAndWait(() -> rewound.getBackButton().doClick());
+            assertEquals("Round: 1 (rewind)", rewound.getRoundLabel().getText());
+            int[][] first = BacteriaLifeLogic.stepReference(start);
+            assertArrayEquals(first[7], rewound.getBacteriaGen()[7]);
+            assertFalse(rewound.rewindTo(-1));
+        } finally {
+            rewound.getFrame().dispose();
+        }
+    }
+
+    @Test
+    void testPause_RewindWaitsForTheRunnerAndKeepsTheScrubbedRound() throws Exception {
+        BacteriaLifeLogic logic = new BacteriaLifeLogic(DIMENSION);
+        logic.setMaxRounds(100_000);
+        BacteriaLifeUI paused = new BacteriaLifeUI(logic);
+        try {
+            SwingUtilities.invokeAndWait(() -> paused.getStartButton().doClick());
+            SimulationRunner runner = paused.getRunner();
+            runner.setTargetRate(1000);
+            Thread.sleep(100);
+            SwingUtilities.invokeAndWait(() -> paused.getStartButton().doClick());
+            assertFalse(paused.getRewindSlider().isEnabled(), "El rebobinado espera a que el simulador pare");
+
+            long deadline = System.nanoTime() + 5_000_000_000L;
+            while (!runner.isParked() && runner.isRunning() && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            SwingUtilities.invokeAndWait(paused::renderLatestFrame);
+            // El rango incluye la ronda que estaba en marcha al pulsar pausa, y es la que se ve
+            JSlider slider = paused.getRewindSlider();
+            assertTrue(slider.isEnabled());
+            int last = paused.getRewindBuffer().getLastRound();
+            assertEquals(logic.getRound(), last);
+            assertEquals(last, slider.getMaximum());
+            assertEquals("Round: " + last, paused.getRoundLabel().getText());
+
+            // Otro tic del temporizador no pisa la ronda rebobinada
+            SwingUtilities.invokeAndWait(() -> slider.setValue(slider.getMinimum()));
+            String label = paused.getRoundLabel().getText();
+            SwingUtilities.invokeAndWait(paused::renderLatestFrame);
+            assertEquals(label, paused.getRoundLabel().getText());
+        } finally {
+            paused.getFrame().dispose();
+        }
+    }
+
+    @Test
+    void testResume_GoesOnFromTheCheckpoint() throws Exception {
+        BacteriaLifeLogic source = new BacteriaLifeLogic(DIMENSION);
+        source.setMaxRounds(8);
+        source.loadRandom(2, 0.5);
+        for (int round = 0; round < 5; round++) {
+            source.step();
+        }
+        Checkpoint checkpoint = source.checkpoint();
+
+        BacteriaLifeUI resumed = new BacteriaLifeUI(new BacteriaLifeLogic(DIMENSION));
+        try {
+            resumed.resume(checkpoint);
+            assertEquals("Round: 5", resumed.getRoundLabel().getText());
+            Color expected = source.getCurrentGrid().isAlive(3, 4) ? Color.BLACK : Color.WHITE;
+            assertEquals(expected, resumed.getGridCanvas().getCellColor(3, 4));
+
+            // El botón sigue la misma ejecución: termina en el límite guardado (8)
+            resumed.getStartButton().doClick();
+            assertTrue(resumed.getRunner().awaitTermination(5000));
+            SwingUtilities.invokeAndWait(resumed::renderLatestFrame);
+            assertTrue(resumed.getRoundLabel().getText().matches("Round: [5-8]"), resumed.getRoundLabel().getText());
+            assertThrows(IllegalStateException.class, () -> resumed.resume(checkpoint));
+        } finally {
+            resumed.getFrame().dispose();
+        }
+        // Otro tamaño no cabe en la ventana
+        BacteriaLifeLogic other = new BacteriaLifeLogic(10);
+        other.loadRandom(1, 0.5);
+        assertThrows(IllegalArgumentException.class, () -> ui.resume(other.checkpoint()));
+    }
+
+    @Test
+    void testReplay_ShowsRecordedGenerations(@TempDir Path dir) throws Exception {
+        // Grabamos un blinker de 30x30: dos generaciones que se alternan
+        Path file = dir.resolve("blinker.blg");
+        BitGrid grid = new BitGrid(DIMENSION, DIMENSION);
+        grid.setAlive(5, 4, true);
+        grid.setAlive(5, 5, true);
+        grid.setAlive(5, 6, true);
+        BitGrid next = new BitGrid(DIMENSION, DIMENSION);
+        try (GenerationRecorder recorder = new GenerationRecorder(file, DIMENSION, DIMENSION)) {
+            recorder.record(grid);
+            BitGrid.step(grid, next);
+            recorder.record(next);
+        }
+
+        try (GenerationReplay replay = GenerationReplay.open(file)) {
+            ui.startReplay(replay);
+            assertFalse(ui.getStartButton().isEnabled(), "Durante la reproducción no se puede simular");
+
+            ui.showReplayStep();
+            assertEquals(Color.BLACK, ui.getGridCanvas().getCellColor(5, 4));
+            assertEquals("Round: 0", ui.getRoundLabel().getText());
+
+            ui.showReplayStep();
+            assertEquals(Color.WHITE, ui.getGridCanvas().getCellColor(5, 4));
+            assertEquals(Color.BLACK, ui.getGridCanvas().getCellColor(4, 5));
+            assertEquals("Round: 1", ui.getRoundLabel().getText());
+
+            // Fin de la grabación
+            ui.showReplayStep();
+            assertEquals("Done", ui.getStartButton().getText());
+        }
+
+        // Una grabación de otro tamaño no cabe en la ventana
+        Path other = dir.resolve("small.blg");
+        try (GenerationRecorder recorder = new GenerationRecorder(other, 5, 5)) {
+            recorder.record(new BitGrid(5, 5));
+        }
+        try (GenerationReplay replay = GenerationReplay.open(other)) {
+            assertThrows(IllegalArgumentException.class, () -> ui.startReplay(replay));
+        }
     }
-}
\ No newline at end of file
+}
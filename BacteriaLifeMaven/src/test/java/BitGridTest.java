@@ -0,0 +1,236 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitGridTest {
+
+    // Tablero aleatorio reproducible
+    static int[][] randomGen(int rows, int cols, long seed) {
+        Random rand = new Random(seed);
+        int[][] gen = new int[rows][cols];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                gen[i][j] = rand.nextInt(2);
+            }
+        }
+        return gen;
+    }
+
+    // B3/S23 contando los vecinos uno a uno, sin tablas ni bits. Es el oráculo de los motores:
+    // stepReference usa la misma tabla de Rule que ellos, así que una tabla mal hecha pasaría
+    static int[][] conway(int[][] gen) {
+        return conway(gen, false);
+    }
+
+    static int[][] conway(int[][] gen, boolean torus) {
+        int rows = gen.length;
+        int cols = gen[0].length;
+        int[][] newGen = new int[rows][cols];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                int neighbours = 0;
+                for (int di = -1; di <= 1; di++) {
+                    for (int dj = -1; dj <= 1; dj++) {
+                        int r = i + di;
+                        int c = j + dj;
+                        if (torus) {
+                            r = (r + rows) % rows;
+                            c = (c + cols) % cols;
+                        } else if (r < 0 || r >= rows || c < 0 || c >= cols) {
+                            continue;
+                        }
+                        // En un toro de 1 o 2 de lado la propia célula vuelve a aparecer como vecina
+                        if (di != 0 || dj != 0) {
+                            neighbours += gen[r][c];
+                        }
+                    }
+                }
+                int bacteria = gen[i][j];
+                if (bacteria == 0 && neighbours == 3) newGen[i][j] = 1; // Nacimiento
+                else if (bacteria == 1 && (neighbours < 2 || neighbours > 3)) newGen[i][j] = 0; // Soledad o asfixia
+                else newGen[i][j] = bacteria;
+            }
+        }
+        return newGen;
+    }
+
+    @Test
+    void testOracle_ClassicPatterns() {
+        // Blinker: horizontal pasa a vertical
+        int[][] blinker = new int[5][5];
+        blinker[2][1] = blinker[2][2] = blinker[2][3] = 1;
+        int[][] vertical = new int[5][5];
+        vertical[1][2] = vertical[2][2] = vertical[3][2] = 1;
+        assertTrue(Arrays.deepEquals(vertical, conway(blinker)));
+        // Bloque: estable
+        int[][] block = new int[4][4];
+        block[1][1] = block[1][2] = block[2][1] = block[2][2] = 1;
+        assertTrue(Arrays.deepEquals(block, conway(block)));
+        // En el toro el blinker de la fila 0 se apoya en la última fila
+        int[][] edge = new int[5][5];
+        edge[0][1] = edge[0][2] = edge[0][3] = 1;
+        int[][] wrapped = conway(edge, true);
+        assertEquals(1, wrapped[4][2], "La fila de arriba tiene por vecina a la de abajo");
+        assertEquals(0, conway(edge)[4][2]);
+    }
+
+    @Test
+    void testStepReference_MatchesOracle() {
+        // La tabla de Conway en Rule contra el recuento a mano, con bordes muertos y en toro
+        int[][] sizes = {{1, 1}, {2, 3}, {3, 3}, {8, 70}, {30, 30}};
+        long seed = 500;
+        for (int[] size : sizes) {
+            int[][] gen = randomGen(size[0], size[1], seed++);
+            String name = size[0] + "x" + size[1];
+            assertTrue(Arrays.deepEquals(conway(gen), BacteriaLifeLogic.stepReference(gen)), name);
+            assertTrue(Arrays.deepEquals(conway(gen, true),
+                    BacteriaLifeLogic.stepReference(gen, Rule.CONWAY, Boundary.TORUS)), "Toro " + name);
+        }
+    }
+
+    @Test
+    void testLoadAndExport_RoundTrip() {
+        int[][] gen = randomGen(7, 130, 1);
+        BitGrid grid = BitGrid.fromGen(gen);
+
+        assertTrue(Arrays.deepEquals(gen, grid.toGen()), "El tablero debe sobrevivir a la conversión");
+        assertEquals(Arrays.stream(gen).flatMapToInt(Arrays::stream).sum(), grid.population());
+    }
+
+    @Test
+    void testStep_MatchesReferenceOnRandomGrids() {
+        // Tamaños que cruzan los límites de palabra (63, 64, 65, 128...)
+        int[][] sizes = {{1, 1}, {3, 3}, {5, 63}, {9, 64}, {17, 65}, {30, 30}, {64, 128}, {33, 200}};
+        long seed = 0;
+        for (int[] size : sizes) {
+            int[][] gen = randomGen(size[0], size[1], seed++);
+            BitGrid current = BitGrid.fromGen(gen);
+            BitGrid next = new BitGrid(size[0], size[1]);
+            // Varias generaciones seguidas, comparando siempre con el motor de referencia
+            for (int round = 0; round < 20; round++) {
+                BitGrid.step(current, next);
+                gen = conway(gen);
+                assertTrue(Arrays.deepEquals(gen, next.toGen()),
+                        "Distinto del oráculo en " + size[0] + "x" + size[1] + ", ronda " + round);
+                BitGrid tmp = current;
+                current = next;
+                next = tmp;
+            }
+        }
+    }
+
+    @Test
+    void testSetAlive_AcrossWordBoundary() {
+        BitGrid grid = new BitGrid(3, 130);
+        grid.setAlive(1, 63, true);
+        grid.setAlive(1, 64, true);
+        grid.setAlive(1, 65, true);
+
+        assertTrue(grid.isAlive(1, 64));
+        assertEquals(3, grid.population());
+
+        // Un blinker que cruza dos palabras debe girar igual
+        BitGrid next = new BitGrid(3, 130);
+        BitGrid.step(grid, next);
+        assertTrue(next.isAlive(0, 64) && next.isAlive(1, 64) && next.isAlive(2, 64));
+        assertFalse(next.isAlive(1, 63) || next.isAlive(1, 65));
+
+        grid.setAlive(1, 64, false);
+        assertFalse(grid.isAlive(1, 64));
+    }
+
+    @Test
+    void testCopyFrom_AndSizeMismatch() {
+        BitGrid a = BitGrid.fromGen(randomGen(4, 70, 3));
+        BitGrid b = new BitGrid(4, 70);
+        b.copyFrom(a);
+        assertTrue(Arrays.deepEquals(a.toGen(), b.toGen()));
+
+        assertThrows(IllegalArgumentException.class, () -> BitGrid.step(a, new BitGrid(4, 71)));
+        assertThrows(IllegalArgumentException.class, () -> new BitGrid(0, 5));
+    }
+
+    @Test
+    void testExportAndLoadWords_RoundTrip() {
+        BitGrid a = BitGrid.fromGen(randomGen(5, 100, 4));
+        long[] words = new long[5 * a.getWords()];
+        a.exportWords(words);
+
+        // Los bits fuera del tablero se descartan al cargar
+        words[1] |= -1L << 36;
+        BitGrid b = new BitGrid(5, 100);
+        b.loadWords(words);
+        assertTrue(a.sameCells(b));
+    }
+
+    @Test
+    void testFillRandom_DensityAndMaskedTail() {
+        // 100 columnas: la última palabra sólo usa 36 bits
+        BitGrid grid = new BitGrid(200, 100);
+        grid.fillRandom(7, 1);
+        assertEquals(200 * 100, grid.population(), "Densidad 1: todas vivas y nada fuera del tablero");
+        grid.fillRandom(7, 0);
+        assertEquals(0, grid.population());
+
+        // Densidad 0,3 con 20000 células: la proporción debe quedar cerca
+        grid.fillRandom(7, 0.3);
+        assertEquals(0.3, grid.population() / 20000.0, 0.02);
+        assertThrows(IllegalArgumentException.class, () -> grid.fillRandom(7, 1.5));
+        assertThrows(IllegalArgumentException.class, () -> grid.fillRandom(7, Double.NaN));
+    }
+
+    @Test
+    void testFillRandom_RowsIndependentOfOrder() {
+        BitGrid whole = new BitGrid(50, 130);
+        whole.fillRandom(11, 0.5);
+
+        // Rellenar por bandas y en otro orden da el mismo tablero
+        BitGrid bands = new BitGrid(50, 130);
+        bands.fillRandom(11, 0.5, 30, 50);
+        bands.fillRandom(11, 0.5, 0, 30);
+        assertTrue(whole.sameCells(bands));
+
+        BitGrid other = new BitGrid(50, 130);
+        other.fillRandom(12, 0.5);
+        assertFalse(whole.sameCells(other), "Otra semilla, otro tablero");
+    }
+
+    @Test
+    void testWrapHalo_StepMatchesTorusReference() {
+        // Anchos con y sin bits sobrantes en la última palabra, y tableros de 1 fila o columna
+        int[][] sizes = {{1, 1}, {1, 70}, {3, 1}, {2, 63}, {5, 64}, {6, 65}, {9, 128}, {7, 130}};
+        for (int[] size : sizes) {
+            int[][] gen = randomGen(size[0], size[1], size[0] * 1000L + size[1]);
+            BitGrid src = BitGrid.fromGen(gen);
+            BitGrid copy = BitGrid.fromGen(gen);
+            BitGrid dst = new BitGrid(size[0], size[1]);
+            StepStats stats = new StepStats();
+
+            src.wrapHalo();
+            BitGrid.step(src, dst, Rule.CONWAY, stats);
+            src.clearHalo();
+
+            int[][] expected = conway(gen, true);
+            String name = size[0] + "x" + size[1];
+            assertTrue(Arrays.deepEquals(expected, dst.toGen()), "Toro " + name);
+            // El halo no cuenta como células ni queda en el tablero
+            assertTrue(copy.sameCells(src), "clearHalo debe dejar el tablero como estaba en " + name);
+            assertEquals(dst.population() - src.population(), stats.getBirths() - stats.getDeaths(), name);
+        }
+    }
+
+    @Test
+    void testWrapHalo_DiffersIgnoresHaloBit() {
+        BitGrid a = new BitGrid(2, 70);
+        a.setAlive(0, 0, true);
+        BitGrid b = BitGrid.fromGen(a.toGen());
+        a.wrapHalo();
+        // El bit tras la última columna vale lo que la primera, pero no es una célula
+        assertFalse(a.differs(b, 0, 2, 0, 2));
+        a.clearHalo();
+        assertTrue(a.sameCells(b));
+    }
+}
@@ -0,0 +1,33 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundaryTest {
+
+    @Test
+    void testParse_AnyCase() {
+        assertEquals(Boundary.DEAD, Boundary.parse("dead"));
+        assertEquals(Boundary.TORUS, Boundary.parse(" Torus "));
+        assertEquals("torus", Boundary.TORUS.toString());
+        // El nombre impreso se vuelve a leer igual
+        for (Boundary boundary : Boundary.values()) {
+            assertEquals(boundary, Boundary.parse(boundary.toString()));
+        }
+        assertThrows(IllegalArgumentException.class, () -> Boundary.parse("klein"));
+    }
+
+    @Test
+    void testReference_DeadEdgesByDefault() {
+        int[][] gen = BitGridTest.randomGen(9, 11, 5);
+        // El paso de referencia sin borde explícito sigue usando bordes muertos
+        assertArrayEquals(BacteriaLifeLogic.stepReference(gen, Rule.CONWAY, Boundary.DEAD),
+                BacteriaLifeLogic.stepReference(gen));
+
+        // Una fila completa viva: en un toro cada célula tiene 2 vecinos y sobrevive
+        int[][] row = new int[3][5];
+        row[1] = new int[]{1, 1, 1, 1, 1};
+        assertArrayEquals(new int[]{1, 1, 1, 1, 1},
+                BacteriaLifeLogic.stepReference(row, Rule.CONWAY, Boundary.TORUS)[1]);
+        assertArrayEquals(new int[]{0, 1, 1, 1, 0}, BacteriaLifeLogic.stepReference(row)[1]);
+    }
+}
@@ -0,0 +1,85 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CheckpointTest {
+
+    private static Checkpoint sample() {
+        BacteriaLifeLogic logic = new BacteriaLifeLogic(70);
+        logic.setRule(Rule.parse("B36/S23"));
+        logic.setBoundary(Boundary.TORUS);
+        logic.setMaxRounds(500);
+        logic.loadRandom(13, 0.3);
+        for (int round = 0; round < 12; round++) {
+            logic.step();
+        }
+        return logic.checkpoint();
+    }
+
+    @Test
+    void testWriteRead_RoundTrip(@TempDir Path dir) throws IOException {
+        Checkpoint checkpoint = sample();
+        Path file = dir.resolve("run.ckp");
+        checkpoint.write(file);
+        Checkpoint read = Checkpoint.read(file);
+
+        assertEquals(70, read.getRows());
+        assertEquals(70, read.getCols());
+        assertEquals(12, read.getRound());
+        assertEquals(500, read.getMaxRounds());
+        assertEquals(Rule.parse("B36/S23"), read.getRule());
+        assertEquals(Boundary.TORUS, read.getBoundary());
+        assertEquals(13, read.getSeed());
+        assertEquals(0.3, read.getDensity());
+        assertEquals(checkpoint.getCyclePeriod(), read.getCyclePeriod());
+        assertEquals(checkpoint.getCycleStart(), read.getCycleStart());
+        assertArrayEquals(checkpoint.getHistoryHashes(), read.getHistoryHashes());
+        assertArrayEquals(checkpoint.getHistoryRounds(), read.getHistoryRounds());
+        assertEquals(13, read.getHistoryRounds().length, "Rondas 0 a 12");
+        assertTrue(checkpoint.toBitGrid().sameCells(read.toBitGrid()));
+
+        // Un bit por célula (70 filas de 2 palabras), la historia y una cabecera pequeña
+        long history = 13 * (Long.BYTES + Integer.BYTES);
+        assertTrue(Files.size(file) < 70 * 2 * Long.BYTES + history + 100, "Tamaño " + Files.size(file));
+        assertFalse(Files.exists(dir.resolve("run.ckp.tmp")), "El fichero temporal se renombra");
+
+        // Escribir otra vez sustituye el fichero
+        BacteriaLifeLogic fresh = new BacteriaLifeLogic(70);
+        fresh.loadRandom(1, 0.5);
+        fresh.checkpoint().write(file);
+        assertEquals(0, Checkpoint.read(file).getRound());
+    }
+
+    @Test
+    void testRead_DamagedFiles(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("run.ckp");
+        sample().write(file);
+        byte[] bytes = Files.readAllBytes(file);
+
+        // Un bit cambiado en las células: lo detecta el CRC
+        byte[] flipped = bytes.clone();
+        flipped[bytes.length - 20] ^= 1;
+        Files.write(file, flipped);
+        IOException e = assertThrows(IOException.class, () -> Checkpoint.read(file));
+        assertTrue(e.getMessage().contains("checksum"), e.getMessage());
+
+        // Cortado a la mitad
+        Files.write(file, java.util.Arrays.copyOf(bytes, bytes.length / 2));
+        assertThrows(IOException.class, () -> Checkpoint.read(file));
+
+        // Otro tipo de fichero
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        assertThrows(IOException.class, () -> Checkpoint.read(file));
+
+        // Otra versión
+        byte[] version = bytes.clone();
+        version[7] = 9;
+        Files.write(file, version);
+        assertThrows(IOException.class, () -> Checkpoint.read(file));
+    }
+}
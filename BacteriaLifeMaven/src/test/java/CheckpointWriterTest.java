@@ -0,0 +1,41 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CheckpointWriterTest {
+
+    @Test
+    void testSubmit_LatestEndsInTheFile(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("run.ckp");
+        BacteriaLifeLogic logic = new BacteriaLifeLogic(64);
+        logic.loadRandom(3, 0.5);
+        CheckpointWriter writer = new CheckpointWriter(file);
+        assertEquals(file, writer.getFile());
+
+        // Más rápido de lo que se escribe: algunos se saltan, nunca el último
+        for (int round = 1; round <= 50; round++) {
+            logic.step();
+            writer.submit(logic.checkpoint());
+        }
+        writer.close();
+        assertEquals(50, writer.getWritten() + writer.getSkipped());
+        assertEquals(50, Checkpoint.read(file).getRound());
+
+        assertThrows(IllegalStateException.class, () -> writer.submit(logic.checkpoint()));
+        writer.close(); // Cerrar dos veces no hace nada
+    }
+
+    @Test
+    void testClose_ReportsFailedWrite(@TempDir Path dir) {
+        BacteriaLifeLogic logic = new BacteriaLifeLogic(8);
+        logic.loadRandom(3, 0.5);
+        CheckpointWriter writer = new CheckpointWriter(dir.resolve("missing").resolve("run.ckp"));
+        writer.submit(logic.checkpoint());
+        assertThrows(IOException.class, writer::close, "La carpeta no existe");
+        assertEquals(0, writer.getWritten());
+    }
+}
@@ -0,0 +1,115 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClusterCoordinatorTest {
+
+    // Referencia: el mismo tablero en un solo proceso, parando igual (estable, ciclo o límite)
+    private static BacteriaLifeLogic reference(int size, long seed, double density, Rule rule, Boundary boundary,
+                                               int maxRounds, long[] populations) {
+        BacteriaLifeLogic logic = new BacteriaLifeLogic(size);
+        logic.setRule(rule);
+        logic.setBoundary(boundary);
+        logic.setMaxRounds(maxRounds);
+        logic.loadRandom(seed, density);
+        for (int round = 1; round < populations.length; round++) {
+            assertTrue(logic.step());
+            assertEquals(populations[round], logic.getPopulation(), "Población en la ronda " + round);
+        }
+        return logic;
+    }
+
+    @Test
+    void testRun_ThreadsMatchSingleProcess() throws IOException {
+        ClusterCoordinator cluster = new ClusterCoordinator(90, 3);
+        cluster.setInProcess(true);
+        cluster.setMaxRounds(400);
+        cluster.setCollectGrid(true);
+        assertEquals(3, cluster.getWorkers());
+        ClusterCoordinator.Result run = cluster.run(8, 0.4);
+
+        long[] populations = run.getPopulations();
+        assertEquals(run.getRounds() + 1, populations.length);
+        assertEquals(populations[run.getRounds()], run.getPopulation());
+        BacteriaLifeLogic logic = reference(90, 8, 0.4, Rule.CONWAY, Boundary.DEAD, 400, populations);
+        assertEquals(populations[0], BitGrid.fromGen(new BacteriaLifeLogic(90).generateInitialGen(8, 0.4))
+                .population(), "Las bandas se rellenan como el tablero completo");
+        assertTrue(logic.getCurrentGrid().sameCells(run.getGrid()), "Mismo tablero final que un solo proceso");
+        // Se para en cuanto ninguna banda cambia o el tablero se repite, o en el límite
+        assertEquals(run.isStable(), logic.isStable());
+        assertEquals(logic.getCycleStart(), run.getCycleStart());
+        assertEquals(logic.getCyclePeriod(), run.getCyclePeriod());
+        assertTrue(logic.isCycling() || run.getRounds() == 400);
+    }
+
+    @Test
+    void testRun_TorusAndOtherRule() throws IOException {
+        Rule highLife = Rule.parse("B36/S23");
+        // 2 trabajadores en anillo (dos conexiones entre ellos) y 1 solo con el toro entero
+        for (int workers = 1; workers <= 4; workers++) {
+            ClusterCoordinator cluster = new ClusterCoordinator(70, workers);
+            cluster.setInProcess(true);
+            cluster.setRule(highLife);
+            cluster.setBoundary(Boundary.TORUS);
+            cluster.setMaxRounds(60);
+            cluster.setCollectGrid(true);
+            ClusterCoordinator.Result run = cluster.run(3, 0.5);
+
+            BacteriaLifeLogic logic = reference(70, 3, 0.5, highLife, Boundary.TORUS, 60, run.getPopulations());
+            assertTrue(logic.getCurrentGrid().sameCells(run.getGrid()), "Distinto con " + workers + " trabajadores");
+        }
+    }
+
+    @Test
+    void testRun_EmptyGridIsStableAtOnce() throws IOException {
+        ClusterCoordinator cluster = new ClusterCoordinator(16, 1);
+        cluster.setInProcess(true);
+        ClusterCoordinator.Result run = cluster.run(1, 0);
+        assertTrue(run.isStable());
+        assertEquals(1, run.getRounds());
+        assertEquals(0, run.getPopulation());
+        assertEquals(0, run.getCycleStart());
+        assertEquals(1, run.getCyclePeriod());
+        assertNull(run.getGrid(), "Sin setCollectGrid no se devuelve el tablero");
+    }
+
+    @Test
+    void testRun_OscillatorStopsAtTheCycle() throws IOException {
+        // Sopa que acaba en osciladores: se para donde BacteriaLifeLogic detecta el ciclo, no en el límite
+        for (long seed = 1; seed <= 20; seed++) {
+            ClusterCoordinator cluster = new ClusterCoordinator(40, 3);
+            cluster.setInProcess(true);
+            cluster.setMaxRounds(1000);
+            ClusterCoordinator.Result run = cluster.run(seed, 0.35);
+
+            BacteriaLifeLogic logic = reference(40, seed, 0.35, Rule.CONWAY, Boundary.DEAD, 1000,
+                    run.getPopulations());
+            assertTrue(logic.isCycling(), "Semilla " + seed);
+            assertEquals(logic.getCycleStart(), run.getCycleStart(), "Semilla " + seed);
+            assertEquals(logic.getCyclePeriod(), run.getCyclePeriod(), "Semilla " + seed);
+            assertEquals(logic.isStable(), run.isStable(), "Semilla " + seed);
+        }
+    }
+
+    @Test
+    void testRun_WorkerProcesses() throws IOException {
+        // Dos JVM de verdad en localhost
+        ClusterCoordinator cluster = new ClusterCoordinator(64, 2);
+        cluster.setMaxRounds(30);
+        cluster.setCollectGrid(true);
+        ClusterCoordinator.Result run = cluster.run(5, 0.5);
+
+        assertEquals(30, run.getRounds());
+        BacteriaLifeLogic logic = reference(64, 5, 0.5, Rule.CONWAY, Boundary.DEAD, 30, run.getPopulations());
+        assertTrue(logic.getCurrentGrid().sameCells(run.getGrid()));
+    }
+
+    @Test
+    void testArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new ClusterCoordinator(4, 5), "Más bandas que filas");
+        assertThrows(IllegalArgumentException.class, () -> new ClusterCoordinator(4, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ClusterCoordinator(4, 2).run(1, 2));
+    }
+}
@@ -0,0 +1,112 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CycleDetectorTest {
+
+    @Test
+    void testFindRound_MostRecentAndEviction() {
+        CycleDetector detector = new CycleDetector(3);
+        detector.record(10, 0);
+        detector.record(20, 1);
+        detector.record(10, 2);
+
+        assertEquals(2, detector.findRound(10), "Debe devolver la ronda más reciente");
+        assertEquals(1, detector.findRound(20));
+        assertEquals(-1, detector.findRound(30));
+
+        // La historia es acotada: al pasar de 3 se olvida la más antigua
+        detector.record(30, 3);
+        detector.record(40, 4);
+        assertEquals(-1, detector.findRound(20));
+        assertEquals(3, detector.getHistory());
+
+        detector.clear();
+        assertEquals(-1, detector.findRound(40));
+    }
+
+    @Test
+    void testExport_OldestFirst() {
+        CycleDetector detector = new CycleDetector(3);
+        for (int round = 0; round < 5; round++) {
+            detector.record(100 + round, round);
+        }
+        long[] hashes = new long[3];
+        int[] rounds = new int[3];
+        // Quedan las rondas 2, 3 y 4, en orden aunque el anillo haya dado la vuelta
+        assertEquals(3, detector.export(hashes, rounds));
+        assertArrayEquals(new int[]{2, 3, 4}, rounds);
+        assertArrayEquals(new long[]{102, 103, 104}, hashes);
+        assertEquals(3, detector.size());
+
+        detector.clear();
+        assertEquals(0, detector.export(hashes, rounds));
+    }
+
+    @Test
+    void testRecord_SameRoundTwiceIsIgnored() {
+        CycleDetector detector = new CycleDetector(2);
+        detector.record(1, 5);
+        detector.record(1, 5);
+        detector.record(2, 6);
+        // Si la ronda 5 se hubiera guardado dos veces, ya se habría perdido
+        assertEquals(5, detector.findRound(1));
+        assertThrows(IllegalArgumentException.class, () -> new CycleDetector(0));
+    }
+
+    @Test
+    void testZobrist_DistinctKeys() {
+        assertNotEquals(CycleDetector.zobrist(0), CycleDetector.zobrist(1));
+        assertEquals(CycleDetector.zobrist(42), CycleDetector.zobrist(42));
+    }
+
+    @Test
+    void testLogic_BlinkerDetectedAsPeriodTwo() {
+        int[][] blinker = new int[5][5];
+        blinker[2][1] = blinker[2][2] = blinker[2][3] = 1;
+        BacteriaLifeLogic logic = new BacteriaLifeLogic(5);
+        logic.load(blinker);
+
+        logic.step();
+        assertFalse(logic.isCycling());
+        logic.step();
+
+        assertTrue(logic.isCycling(), "El blinker vuelve a su estado cada 2 rondas");
+        assertEquals(2, logic.getCyclePeriod());
+        assertEquals(0, logic.getCycleStart());
+    }
+
+    @Test
+    void testLogic_StillLifeIsPeriodOne() {
+        int[][] gen = new int[4][4];
+        gen[1][1] = gen[1][2] = gen[2][1] = gen[2][2] = 1;
+        BacteriaLifeLogic logic = new BacteriaLifeLogic(4);
+        logic.generateNewGen(gen);
+
+        assertEquals(1, logic.getCyclePeriod());
+        assertEquals(0, logic.getCycleStart());
+    }
+
+    @Test
+    void testLogic_IncrementalHashMatchesFullHash() {
+        BacteriaLifeLogic logic = new BacteriaLifeLogic(90);
+        logic.load(BitGridTest.randomGen(90, 90, 31));
+        for (int i = 0; i < 40; i++) {
+            logic.step();
+            assertEquals(logic.getCurrentGrid().hash(), logic.getGenHash(), "Hash incremental distinto en ronda " + i);
+        }
+    }
+
+    @Test
+    void testLogic_GliderIsNotACycle() {
+        // Un glider se desplaza: nunca repite el mismo tablero hasta chocar con el borde
+        int[][] glider = new int[30][30];
+        glider[0][1] = glider[1][2] = glider[2][0] = glider[2][1] = glider[2][2] = 1;
+        BacteriaLifeLogic logic = new BacteriaLifeLogic(30);
+        logic.load(glider);
+        for (int i = 0; i < 40; i++) {
+            logic.step();
+            assertFalse(logic.isCycling(), "Falso positivo en la ronda " + logic.getRound());
+        }
+    }
+}
@@ -0,0 +1,143 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeltaPublisherTest {
+
+    // Suscriptor que pide de n en n y guarda lo que recibe
+    private static class Collector implements Flow.Subscriber<GenerationDelta> {
+        final List<GenerationDelta> received = new ArrayList<>();
+        final CountDownLatch done = new CountDownLatch(1);
+        final long demand;
+        Flow.Subscription subscription;
+        BitGrid copy;
+
+        Collector(long demand, BitGrid start) {
+            this.demand = demand;
+            this.copy = start;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(demand);
+        }
+
+        @Override
+        public void onNext(GenerationDelta delta) {
+            received.add(delta);
+            if (copy != null) {
+                delta.applyTo(copy);
+            }
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            done.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            done.countDown();
+        }
+    }
+
+    private static BitGrid copyOf(BitGrid grid) {
+        BitGrid copy = new BitGrid(grid.getRows(), grid.getCols());
+        copy.copyFrom(grid);
+        return copy;
+    }
+
+    @Test
+    void testSubscribers_RebuildTheRunFromDeltas() throws InterruptedException {
+        BacteriaLifeLogic logic = new BacteriaLifeLogic(90);
+        logic.setBoundary(Boundary.TORUS);
+        logic.loadRandom(41, 0.4);
+        // Bloqueante: ningún delta se pierde
+        DeltaPublisher deltas = new DeltaPublisher(ForkJoinPool.commonPool(), 4, true);
+        assertTrue(deltas.isBlocking());
+        Collector first = new Collector(Long.MAX_VALUE, copyOf(logic.getCurrentGrid()));
+        Collector second = new Collector(Long.MAX_VALUE, copyOf(logic.getCurrentGrid()));
+        deltas.subscribe(first);
+        deltas.subscribe(second);
+        assertEquals(2, deltas.getSubscriberCount());
+        logic.setDeltaPublisher(deltas);
+        assertSame(deltas, logic.getDeltaPublisher());
+
+        for (int i = 0; i < 40; i++) {
+            logic.step();
+        }
+        deltas.close();
+        assertTrue(first.done.await(5, TimeUnit.SECONDS));
+        assertTrue(second.done.await(5, TimeUnit.SECONDS));
+
+        assertEquals(40, deltas.getPublished());
+        assertEquals(0, deltas.getDropped());
+        for (Collector collector : List.of(first, second)) {
+            assertEquals(40, collector.received.size());
+            for (int i = 0; i < 40; i++) {
+                assertEquals(i + 1, collector.received.get(i).getRound(), "Rondas seguidas");
+            }
+            assertTrue(collector.copy.sameCells(logic.getCurrentGrid()), "Misma generación que la lógica");
+        }
+        assertSame(first.received.get(0), second.received.get(0), "El mismo delta para todos");
+    }
+
+    @Test
+    void testSlowSubscriber_DropsInsteadOfBlocking() throws InterruptedException {
+        BacteriaLifeLogic logic = new BacteriaLifeLogic(40);
+        logic.loadRandom(42, 0.5);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        DeltaPublisher deltas = new DeltaPublisher(executor, 2, false);
+        // Sólo pide uno y no vuelve a pedir: su buffer se llena enseguida
+        Collector slow = new Collector(1, null);
+        deltas.subscribe(slow);
+        logic.setDeltaPublisher(deltas);
+
+        for (int i = 0; i < 30; i++) {
+            logic.step();
+        }
+        assertEquals(30, deltas.getPublished());
+        assertTrue(deltas.getDropped() > 0, "El stepper no espera al suscriptor lento");
+        assertTrue(deltas.getLag() <= deltas.getBufferCapacity());
+
+        deltas.close();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(1, slow.received.size());
+        assertEquals(1, slow.received.get(0).getRound());
+    }
+
+    @Test
+    void testNoSubscribers_NothingIsComputed() {
+        BacteriaLifeLogic logic = new BacteriaLifeLogic(20);
+        logic.loadRandom(43, 0.5);
+        DeltaPublisher deltas = new DeltaPublisher();
+        assertFalse(deltas.isBlocking());
+        assertEquals(Flow.defaultBufferSize(), deltas.getBufferCapacity());
+        logic.setDeltaPublisher(deltas);
+
+        logic.step();
+        assertFalse(deltas.hasSubscribers());
+        assertEquals(0, deltas.getPublished());
+
+        // Cerrado: tampoco se publica
+        deltas.subscribe(new Collector(1, null));
+        deltas.close();
+        logic.step();
+        assertEquals(0, deltas.getPublished());
+
+        logic.setDeltaPublisher(null);
+        assertNull(logic.getDeltaPublisher());
+        assertThrows(IllegalArgumentException.class, () -> new DeltaPublisher(ForkJoinPool.commonPool(), 0, false));
+    }
+}
@@ -0,0 +1,105 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EnsembleRunnerTest {
+
+    @Test
+    void testRun_EachSoupMatchesASingleRun() {
+        EnsembleRunner ensemble = new EnsembleRunner(32);
+        ensemble.setDensity(0.4);
+        ensemble.setMaxRounds(200);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        EnsembleRunner.Result run;
+        try {
+            run = ensemble.run(100, 24, pool);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(24, run.getSoups());
+        for (int soup = 0; soup < run.getSoups(); soup++) {
+            // La sopa i es la misma ejecución que con la semilla 100 + i
+            BacteriaLifeLogic logic = new BacteriaLifeLogic(32);
+            logic.setMaxRounds(200);
+            logic.loadRandom(100 + soup, 0.4);
+            while (logic.step() && !logic.isCycling()) {
+                // Seguimos
+            }
+            assertEquals(100 + soup, run.getSeed(soup));
+            assertEquals(logic.getCycleStart(), run.getRoundsToStability(soup), "Sopa " + soup);
+            assertEquals(logic.getCyclePeriod(), run.getPeriod(soup));
+            assertEquals(logic.getPopulation(), run.getPopulation(soup));
+        }
+        assertTrue(run.getSoupsPerSecond() > 0);
+
+        EnsembleRunner.Distribution rounds = run.getRoundsToStabilityDistribution();
+        assertEquals(run.getStabilized(), rounds.getCount());
+        assertTrue(rounds.getMin() <= rounds.getPercentile(50) && rounds.getPercentile(50) <= rounds.getMax());
+        EnsembleRunner.Distribution population = run.getPopulationDistribution();
+        assertEquals(24, population.getCount());
+        assertTrue(population.getMin() <= population.getMean() && population.getMean() <= population.getMax());
+    }
+
+    @Test
+    void testRun_SameResultWithAnyNumberOfThreads() {
+        EnsembleRunner ensemble = new EnsembleRunner(24);
+        ensemble.setRule(Rule.parse("B36/S23"));
+        ensemble.setBoundary(Boundary.TORUS);
+        ensemble.setMaxRounds(100);
+        ForkJoinPool single = new ForkJoinPool(1);
+        EnsembleRunner.Result one;
+        try {
+            one = ensemble.run(5, 9, single);
+        } finally {
+            single.shutdown();
+        }
+        EnsembleRunner.Result many = ensemble.run(5, 9, ForkJoinPool.commonPool());
+        for (int soup = 0; soup < 9; soup++) {
+            assertEquals(one.getRoundsToStability(soup), many.getRoundsToStability(soup));
+            assertEquals(one.getPopulation(soup), many.getPopulation(soup));
+        }
+    }
+
+    @Test
+    void testRun_LimitReachedIsNotStable() {
+        EnsembleRunner ensemble = new EnsembleRunner(40);
+        ensemble.setMaxRounds(2);
+        EnsembleRunner.Result run = ensemble.run(1, 3, ForkJoinPool.commonPool());
+        assertEquals(0, run.getStabilized(), "Ninguna sopa se estabiliza en 2 rondas");
+        assertEquals(-1, run.getRoundsToStability(0));
+        assertEquals(0, run.getPeriod(0));
+        EnsembleRunner.Distribution rounds = run.getRoundsToStabilityDistribution();
+        assertEquals(0, rounds.getCount());
+        assertEquals(0, rounds.getMin());
+        assertEquals(0, rounds.getMax());
+        assertEquals(0, rounds.getMean());
+        assertEquals(0, rounds.getPercentile(50));
+    }
+
+    @Test
+    void testDistribution_Percentiles() {
+        EnsembleRunner.Distribution values = new EnsembleRunner.Distribution(new long[]{40, 10, 30, 20, 50,
+                60, 70, 80, 90, 100});
+        assertEquals(10, values.getMin());
+        assertEquals(100, values.getMax());
+        assertEquals(55, values.getMean(), 1e-9);
+        assertEquals(10, values.getPercentile(0));
+        assertEquals(50, values.getPercentile(50));
+        assertEquals(90, values.getPercentile(90));
+        assertEquals(100, values.getPercentile(99));
+        assertEquals(100, values.getPercentile(100));
+        assertThrows(IllegalArgumentException.class, () -> values.getPercentile(101));
+    }
+
+    @Test
+    void testArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new EnsembleRunner(0));
+        EnsembleRunner ensemble = new EnsembleRunner(8);
+        assertThrows(IllegalArgumentException.class, () -> ensemble.run(1, 0, ForkJoinPool.commonPool()));
+        ensemble.setDensity(2);
+        assertThrows(IllegalArgumentException.class, () -> ensemble.run(1, 1, ForkJoinPool.commonPool()));
+    }
+}
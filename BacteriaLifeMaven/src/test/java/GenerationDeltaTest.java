@@ -0,0 +1,109 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenerationDeltaTest {
+
+    @Test
+    void testOf_MatchesCellByCellDiff() {
+        // 150 columnas: la última palabra de cada fila está a medias
+        int[][] gen = BitGridTest.randomGen(40, 150, 31);
+        BitGrid before = BitGrid.fromGen(gen);
+        BitGrid after = new BitGrid(40, 150);
+        StepStats stats = new StepStats();
+        stats.setLogging(true);
+        BitGrid.step(before, after, stats);
+
+        GenerationDelta delta = GenerationDelta.of(7, 150, stats);
+        assertEquals(7, delta.getRound());
+        assertEquals(150, delta.getCols());
+        assertEquals(stats.getBirths(), delta.getBirthCount());
+        assertEquals(stats.getDeaths(), delta.getDeathCount());
+        assertFalse(delta.isEmpty());
+
+        int[][] next = after.toGen();
+        long previous = -1;
+        for (int i = 0; i < delta.getBirthCount(); i++) {
+            long cell = delta.getBirth(i);
+            assertTrue(cell > previous, "En orden de filas");
+            previous = cell;
+            int row = delta.row(cell);
+            int col = delta.col(cell);
+            assertEquals(0, gen[row][col], "Nace en (" + row + "," + col + ")");
+            assertEquals(1, next[row][col]);
+        }
+        for (int i = 0; i < delta.getDeathCount(); i++) {
+            long cell = delta.getDeath(i);
+            assertEquals(1, gen[delta.row(cell)][delta.col(cell)]);
+            assertEquals(0, next[delta.row(cell)][delta.col(cell)]);
+        }
+    }
+
+    @Test
+    void testApplyTo_RebuildsTheNextGen() {
+        BitGrid before = BitGrid.fromGen(BitGridTest.randomGen(30, 70, 32));
+        BitGrid after = new BitGrid(30, 70);
+        StepStats stats = new StepStats();
+        stats.setLogging(true);
+        BitGrid.step(before, after, stats);
+
+        BitGrid copy = new BitGrid(30, 70);
+        copy.copyFrom(before);
+        GenerationDelta.of(1, 70, stats).applyTo(copy);
+        assertTrue(copy.sameCells(after));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> GenerationDelta.of(1, 70, stats).applyTo(new BitGrid(30, 71)));
+    }
+
+    @Test
+    void testOf_StillLifeIsEmpty() {
+        // Bloque 2x2: no cambia nada
+        BitGrid block = new BitGrid(6, 6);
+        block.setAlive(2, 2, true);
+        block.setAlive(2, 3, true);
+        block.setAlive(3, 2, true);
+        block.setAlive(3, 3, true);
+        BitGrid after = new BitGrid(6, 6);
+        StepStats stats = new StepStats();
+        stats.setLogging(true);
+        BitGrid.step(block, after, stats);
+
+        GenerationDelta delta = GenerationDelta.of(3, 6, stats);
+        assertTrue(delta.isEmpty());
+        assertEquals(0, delta.getBirthCount());
+        assertEquals(0, delta.getDeathCount());
+    }
+
+    @Test
+    void testOf_TiledParallelStepInRowOrder() {
+        // Teselas y bandas registran sus palabras por bloques; el delta sale igualmente ordenado
+        int[][] gen = BitGridTest.randomGen(300, 400, 33);
+        BitGrid before = BitGrid.fromGen(gen);
+        BitGrid after = new BitGrid(300, 400);
+        TileTracker tiles = new TileTracker(before);
+        tiles.prepare();
+        StepStats stats = new StepStats();
+        stats.setLogging(true);
+        new ParallelStepper(ForkJoinPool.commonPool(), 0).step(before, after, tiles, Rule.CONWAY, stats);
+
+        GenerationDelta delta = GenerationDelta.of(1, 400, stats);
+        assertEquals(stats.getBirths(), delta.getBirthCount());
+        assertEquals(stats.getDeaths(), delta.getDeathCount());
+        for (int i = 1; i < delta.getBirthCount(); i++) {
+            assertTrue(delta.getBirth(i) > delta.getBirth(i - 1), "En orden de filas");
+        }
+        BitGrid copy = BitGrid.fromGen(gen);
+        delta.applyTo(copy);
+        assertTrue(copy.sameCells(after));
+    }
+
+    @Test
+    void testOf_NeedsALoggedStep() {
+        StepStats stats = new StepStats();
+        BitGrid.step(new BitGrid(4, 4), new BitGrid(4, 4), stats);
+        assertThrows(IllegalStateException.class, () -> GenerationDelta.of(1, 4, stats));
+    }
+}
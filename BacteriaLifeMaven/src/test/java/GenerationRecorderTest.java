@@ -0,0 +1,122 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenerationRecorderTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testHeaderAndKeyframes() throws IOException {
+        Path file = dir.resolve("run.blg");
+        BitGrid grid = BitGrid.fromGen(BitGridTest.randomGen(8, 70, 1));
+        try (GenerationRecorder recorder = new GenerationRecorder(file, 8, 70, 4)) {
+            for (int g = 0; g < 10; g++) {
+                recorder.record(grid);
+            }
+            assertEquals(10, recorder.getGenerationCount());
+            // Generaciones 0, 4 y 8 se guardan completas
+            assertEquals(3, recorder.getKeyframeCount());
+        }
+
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            assertEquals(GenerationRecorder.MAGIC, in.readInt());
+            assertEquals(GenerationRecorder.VERSION, in.readInt());
+            assertEquals(8, in.readInt());
+            assertEquals(70, in.readInt());
+            assertEquals(4, in.readInt());
+        }
+    }
+
+    @Test
+    void testDeltas_AreMuchSmallerThanTheGrid() throws IOException {
+        Path file = dir.resolve("glider.blg");
+        BitGrid current = new BitGrid(256, 256);
+        current.setAlive(0, 1, true);
+        current.setAlive(1, 2, true);
+        current.setAlive(2, 0, true);
+        current.setAlive(2, 1, true);
+        current.setAlive(2, 2, true);
+        BitGrid next = new BitGrid(256, 256);
+
+        long written;
+        try (GenerationRecorder recorder = new GenerationRecorder(file, 256, 256)) {
+            for (int g = 0; g < 100; g++) {
+                recorder.record(current);
+                BitGrid.step(current, next);
+                BitGrid tmp = current;
+                current = next;
+                next = tmp;
+            }
+            written = recorder.getBytesWritten();
+        }
+
+        // Un planeador cambia unas pocas palabras por generación: el fichero ocupa poco más que un keyframe
+        long keyframe = 256 * 4 * Long.BYTES;
+        assertTrue(written < keyframe * 2, "Bytes escritos: " + written);
+        assertTrue(Files.size(file) > written, "El índice se añade al cerrar");
+    }
+
+    @Test
+    void testRecord_FromTheStepLog() throws IOException {
+        // Deltas sacados del registro de palabras del paso: mismo fichero que comparando los tableros
+        Path compared = dir.resolve("compared.blg");
+        Path logged = dir.resolve("logged.blg");
+        BitGrid current = BitGrid.fromGen(BitGridTest.randomGen(30, 100, 4));
+        BitGrid next = new BitGrid(30, 100);
+        StepStats stats = new StepStats();
+        stats.setLogging(true);
+        try (GenerationRecorder byCompare = new GenerationRecorder(compared, 30, 100, 16);
+             GenerationRecorder byLog = new GenerationRecorder(logged, 30, 100, 16)) {
+            byCompare.record(current);
+            byLog.record(current, stats);
+            for (int g = 1; g < 60; g++) {
+                stats.reset();
+                BitGrid.step(current, next, Rule.CONWAY, stats);
+                BitGrid tmp = current;
+                current = next;
+                next = tmp;
+                byCompare.record(current);
+                byLog.record(current, stats);
+            }
+        }
+        assertArrayEquals(Files.readAllBytes(compared), Files.readAllBytes(logged));
+    }
+
+    @Test
+    void testFullChange_FallsBackToKeyframe() throws IOException {
+        BitGrid empty = new BitGrid(4, 64);
+        BitGrid full = BitGrid.fromGen(new int[][]{
+                filled(64), filled(64), filled(64), filled(64)});
+        try (GenerationRecorder recorder = new GenerationRecorder(dir.resolve("flip.blg"), 4, 64)) {
+            recorder.record(empty);
+            recorder.record(full);
+            // Cambian todas las palabras: el delta ocuparía más que el tablero
+            assertEquals(2, recorder.getKeyframeCount());
+        }
+    }
+
+    private static int[] filled(int cols) {
+        int[] row = new int[cols];
+        java.util.Arrays.fill(row, 1);
+        return row;
+    }
+
+    @Test
+    void testInvalidUse() throws IOException {
+        Path file = dir.resolve("bad.blg");
+        assertThrows(IllegalArgumentException.class, () -> new GenerationRecorder(file, 0, 5));
+        GenerationRecorder recorder = new GenerationRecorder(file, 5, 5, 1);
+        assertThrows(IllegalArgumentException.class, () -> recorder.record(new BitGrid(5, 6)));
+        recorder.close();
+        recorder.close();
+        assertThrows(IllegalStateException.class, () -> recorder.record(new BitGrid(5, 5)));
+    }
+}
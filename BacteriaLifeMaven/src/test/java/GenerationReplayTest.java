@@ -0,0 +1,111 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenerationReplayTest {
+
+    @TempDir
+    Path dir;
+
+    private Path file;
+    private final List<int[][]> expected = new ArrayList<>();
+
+    // Graba 50 generaciones de un tablero aleatorio con un keyframe cada 8
+    @BeforeEach
+    void record() throws IOException {
+        file = dir.resolve("run.blg");
+        BitGrid current = BitGrid.fromGen(BitGridTest.randomGen(20, 90, 7));
+        BitGrid next = new BitGrid(20, 90);
+        try (GenerationRecorder recorder = new GenerationRecorder(file, 20, 90, 8)) {
+            for (int g = 0; g < 50; g++) {
+                recorder.record(current);
+                expected.add(current.toGen());
+                BitGrid.step(current, next);
+                BitGrid tmp = current;
+                current = next;
+                next = tmp;
+            }
+        }
+    }
+
+    @Test
+    void testRead_EveryGenerationInOrder() throws IOException {
+        try (GenerationReplay replay = GenerationReplay.open(file)) {
+            assertEquals(20, replay.getRows());
+            assertEquals(90, replay.getCols());
+            assertEquals(50, replay.getGenerationCount());
+            assertEquals(8, replay.getKeyframeInterval());
+            assertTrue(replay.getKeyframeCount() >= 7);
+
+            BitGrid grid = new BitGrid(20, 90);
+            for (int g = 0; g < 50; g++) {
+                replay.read(g, grid);
+                assertTrue(Arrays.deepEquals(expected.get(g), grid.toGen()), "Generación " + g);
+            }
+        }
+    }
+
+    @Test
+    void testRead_RandomAccess() throws IOException {
+        try (GenerationReplay replay = GenerationReplay.open(file)) {
+            // Saltos hacia delante, hacia atrás y dentro del mismo tramo entre keyframes
+            for (int g : new int[]{49, 3, 17, 16, 18, 0, 31, 9, 49}) {
+                assertTrue(Arrays.deepEquals(expected.get(g), replay.toGen(g)), "Generación " + g);
+            }
+        }
+    }
+
+    @Test
+    void testRead_SmallChunks() throws IOException {
+        // Trozos que cortan enteros, longs y keyframes: se leen igual que de una sola proyección
+        for (long chunk : new long[]{37, 100, 4096}) {
+            try (GenerationReplay replay = GenerationReplay.open(file, chunk)) {
+                assertEquals(50, replay.getGenerationCount());
+                for (int g : new int[]{0, 49, 3, 17, 16, 31}) {
+                    assertTrue(Arrays.deepEquals(expected.get(g), replay.toGen(g)), "Generación " + g + ", trozo " + chunk);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testInvalidFiles() throws IOException {
+        Path garbage = dir.resolve("garbage.blg");
+        Files.write(garbage, new byte[64]);
+        assertThrows(IOException.class, () -> GenerationReplay.open(garbage));
+
+        Path tiny = dir.resolve("tiny.blg");
+        Files.write(tiny, new byte[3]);
+        assertThrows(IOException.class, () -> GenerationReplay.open(tiny));
+
+        // Grabación cortada: falta el final del índice
+        Path truncated = dir.resolve("truncated.blg");
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 1));
+        assertThrows(IOException.class, () -> GenerationReplay.open(truncated));
+
+        try (GenerationReplay replay = GenerationReplay.open(file)) {
+            assertThrows(IllegalArgumentException.class, () -> replay.toGen(50));
+            assertThrows(IllegalArgumentException.class, () -> replay.toGen(-1));
+            assertThrows(IllegalArgumentException.class, () -> replay.read(0, new BitGrid(20, 91)));
+        }
+    }
+
+    @Test
+    void testOtherVersion_Rejected() throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[7] = 9; // Versión en el byte bajo del segundo int
+        Path other = dir.resolve("v9.blg");
+        Files.write(other, bytes);
+        assertThrows(IOException.class, () -> GenerationReplay.open(other));
+    }
+}
@@ -0,0 +1,75 @@
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GridCanvasTest {
+
+    private static final Color BG = new Color(141, 69, 220);
+
+    @Test
+    void testInitialState_AllDead() {
+        GridCanvas canvas = new GridCanvas(4, 5, 10, 3, BG);
+
+        assertEquals(Color.WHITE, canvas.getCellColor(3, 4));
+        // 5 columnas de 10 píxeles con 4 huecos de 3
+        assertEquals(new Dimension(5 * 13 - 3, 4 * 13 - 3), canvas.getPreferredSize());
+    }
+
+    @Test
+    void testSetGen_RedrawsOnlyChangedCells() {
+        GridCanvas canvas = new GridCanvas(3, 3, 10, 3, BG);
+        int[][] gen = new int[3][3];
+        gen[1][1] = 1;
+        gen[2][0] = 1;
+
+        assertEquals(2, canvas.setGen(gen), "Solo cambian dos células");
+        assertEquals(Color.BLACK, canvas.getCellColor(1, 1));
+        assertEquals(0, canvas.setGen(gen), "El mismo tablero no debe repintar nada");
+
+        gen[1][1] = 0;
+        assertEquals(1, canvas.setGen(gen));
+        assertEquals(Color.WHITE, canvas.getCellColor(1, 1));
+        assertEquals(Color.BLACK, canvas.getCellColor(2, 0));
+    }
+
+    @Test
+    void testImage_MatchesCells() {
+        GridCanvas canvas = new GridCanvas(2, 2, 10, 3, BG);
+        int[][] gen = {{0, 1}, {0, 0}};
+        canvas.setGen(gen);
+        BufferedImage image = canvas.getImage();
+
+        // Centro de cada círculo y el hueco entre células
+        assertEquals(Color.WHITE.getRGB(), image.getRGB(5, 5));
+        assertEquals(Color.BLACK.getRGB(), image.getRGB(13 + 5, 5));
+        assertEquals(BG.getRGB(), image.getRGB(11, 5), "El hueco debe tener el color de fondo");
+    }
+
+    @Test
+    void testPaint_CopiesImageInsideBorder() {
+        GridCanvas canvas = new GridCanvas(2, 2, 10, 3, BG);
+        canvas.setBorder(javax.swing.BorderFactory.createEmptyBorder(4, 4, 4, 4));
+        canvas.setGen(new int[][]{{1, 0}, {0, 0}});
+        Dimension size = canvas.getPreferredSize();
+        canvas.setSize(size);
+        assertEquals(new Dimension(23 + 8, 23 + 8), size);
+
+        BufferedImage screen = new BufferedImage(size.width, size.height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = screen.createGraphics();
+        canvas.paint(g);
+        g.dispose();
+
+        assertEquals(BG.getRGB(), screen.getRGB(1, 1), "El borde usa el color de fondo");
+        assertEquals(Color.BLACK.getRGB(), screen.getRGB(4 + 5, 4 + 5));
+    }
+
+    @Test
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new GridCanvas(0, 3, 10, 3, BG));
+        GridCanvas canvas = new GridCanvas(3, 3, 10, 3, BG);
+        assertThrows(IllegalArgumentException.class, () -> canvas.setGen(new int[2][3]));
+    }
+}
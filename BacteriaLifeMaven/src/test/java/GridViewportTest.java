@@ -0,0 +1,188 @@
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GridViewportTest {
+
+    private static final Color BG = new Color(141, 69, 220);
+
+    private static GridViewport viewport(BitGrid grid, int width, int height) {
+        GridViewport view = new GridViewport(grid.getRows(), grid.getCols(), BG);
+        view.setSize(width, height);
+        view.setGrid(grid);
+        return view;
+    }
+
+    private static int grey(int value) {
+        return new Color(value, value, value).getRGB();
+    }
+
+    @Test
+    void testCells_ZoomedIn() {
+        BitGrid grid = new BitGrid(10, 10);
+        grid.setAlive(0, 0, true);
+        grid.setAlive(9, 9, true);
+        GridViewport view = viewport(grid, 60, 60);
+        view.setZoom(4, 0, 0);
+        assertEquals(0, view.getLevel());
+        BufferedImage image = view.render();
+
+        // Células de 4 píxeles, el último de cada una es hueco
+        assertEquals(Color.BLACK.getRGB(), image.getRGB(1, 1));
+        assertEquals(BG.getRGB(), image.getRGB(3, 1), "Hueco entre células");
+        assertEquals(Color.WHITE.getRGB(), image.getRGB(5, 1));
+        assertEquals(Color.BLACK.getRGB(), image.getRGB(37, 37));
+        assertEquals(BG.getRGB(), image.getRGB(45, 10), "Fuera del tablero se ve el fondo");
+        assertEquals(Color.BLACK, view.getCellColor(9, 9));
+        assertEquals(Color.WHITE, view.getCellColor(9, 8));
+
+        // A 1 píxel por célula no hay huecos
+        view.setZoom(1, 0, 0);
+        image = view.render();
+        assertEquals(Color.BLACK.getRGB(), image.getRGB(9, 9));
+        assertEquals(Color.WHITE.getRGB(), image.getRGB(8, 9));
+    }
+
+    @Test
+    void testCounted_DensityPerPixel() {
+        BitGrid grid = new BitGrid(16, 16);
+        grid.setAlive(0, 0, true);
+        grid.setAlive(1, 1, true);
+        for (int col = 0; col < 16; col++) {
+            grid.setAlive(14, col, true);
+            grid.setAlive(15, col, true);
+        }
+        GridViewport view = viewport(grid, 10, 10);
+        view.setZoom(0.5, 0, 0);
+        assertEquals(1, view.getLevel());
+        BufferedImage image = view.render();
+
+        assertEquals(grey(128), image.getRGB(0, 0), "Media celda de 2x2 viva");
+        assertEquals(Color.WHITE.getRGB(), image.getRGB(1, 0));
+        assertEquals(Color.BLACK.getRGB(), image.getRGB(3, 7));
+        assertEquals(BG.getRGB(), image.getRGB(8, 8), "Fuera del tablero");
+    }
+
+    @Test
+    void testLevels_BlockCountsMatchCells() {
+        BitGrid grid = BitGrid.fromGen(BitGridTest.randomGen(300, 200, 4));
+        GridViewport view = viewport(grid, 20, 20);
+        for (int level = 3; level <= 8; level++) {
+            int[] counts = view.level(level);
+            int blockCols = ((200 - 1) >> level) + 1;
+            long total = 0;
+            for (int i = 0; i < counts.length; i++) {
+                // Cuenta directa del bloque
+                int rowFrom = (i / blockCols) << level;
+                int colFrom = (i % blockCols) << level;
+                int live = 0;
+                for (int row = rowFrom; row < Math.min(300, rowFrom + (1 << level)); row++) {
+                    live += grid.countRange(row, colFrom, Math.min(200, colFrom + (1 << level)));
+                }
+                assertEquals(live, counts[i], "Bloque " + i + " del nivel " + level);
+                total += counts[i];
+            }
+            assertEquals(grid.population(), total);
+        }
+        assertSame(view.level(5), view.level(5), "Los niveles se calculan una vez por generación");
+    }
+
+    @Test
+    void testLevels_ZoomedOut() {
+        // Mitad superior llena
+        BitGrid grid = new BitGrid(256, 256);
+        for (int row = 0; row < 128; row++) {
+            for (int col = 0; col < 256; col++) {
+                grid.setAlive(row, col, true);
+            }
+        }
+        GridViewport view = viewport(grid, 16, 16);
+        view.zoomToFit();
+        assertEquals(1.0 / 16, view.getZoom());
+        assertEquals(4, view.getLevel());
+        BufferedImage image = view.render();
+        assertEquals(Color.BLACK.getRGB(), image.getRGB(5, 7));
+        assertEquals(Color.WHITE.getRGB(), image.getRGB(5, 8));
+
+        // Una nueva generación rehace los niveles
+        view.setGrid(new BitGrid(256, 256));
+        assertEquals(Color.WHITE.getRGB(), view.render().getRGB(5, 7));
+
+        // Tamaño que no es potencia de 2: el borde cuenta solo las células que existen
+        BitGrid full = new BitGrid(100, 100);
+        for (int row = 0; row < 100; row++) {
+            for (int col = 0; col < 100; col++) {
+                full.setAlive(row, col, true);
+            }
+        }
+        view = viewport(full, 12, 10);
+        view.zoomToFit();
+        assertEquals(3, view.getLevel());
+        image = view.render();
+        assertEquals(Color.BLACK.getRGB(), image.getRGB(1, 9), "Última fila de bloques incompleta");
+        assertEquals(BG.getRGB(), image.getRGB(0, 5), "Margen a la izquierda del tablero centrado");
+        assertEquals(BG.getRGB(), image.getRGB(11, 5));
+    }
+
+    @Test
+    void testZoomAndPan_KeepAnchor() {
+        GridViewport view = viewport(new BitGrid(1000, 1000), 100, 100);
+        view.setZoom(2, 0, 0);
+        view.panBy(-20, -40);
+        assertEquals(10, view.getViewLeft(), 1e-9);
+        assertEquals(20, view.getViewTop(), 1e-9);
+
+        // La célula bajo el puntero sigue bajo el puntero
+        double col = view.getViewLeft() + 30 / view.getZoom();
+        view.setZoom(8, 30, 50);
+        assertEquals(col, view.getViewLeft() + 30 / view.getZoom(), 1e-9);
+
+        view.setZoom(1000, 0, 0);
+        assertEquals(GridViewport.MAX_ZOOM, view.getZoom());
+        view.setZoom(0, 0, 0);
+        assertEquals(GridViewport.MIN_ZOOM, view.getZoom());
+        assertEquals(15, view.getLevel());
+        view.render();
+    }
+
+    @Test
+    void testMouse_WheelZoomsAndDragPans() {
+        GridViewport view = viewport(new BitGrid(100, 100), 50, 50);
+        MouseWheelEvent wheel = new MouseWheelEvent(view, MouseEvent.MOUSE_WHEEL, 0, 0, 10, 10, 0, false,
+                MouseWheelEvent.WHEEL_UNIT_SCROLL, 1, -1);
+        view.getMouseWheelListeners()[0].mouseWheelMoved(wheel);
+        assertEquals(1.25, view.getZoom(), 1e-9, "Rueda hacia arriba acerca");
+        assertEquals(10 - 10 / 1.25, view.getViewLeft(), 1e-9);
+
+        // Arrastrar 5 píxeles a la derecha mueve la vista a la izquierda
+        double left = view.getViewLeft();
+        view.getMouseMotionListeners()[0].mouseDragged(new MouseEvent(view, MouseEvent.MOUSE_DRAGGED, 0, 0, 20, 20, 0, false));
+        assertEquals(left, view.getViewLeft(), "Sin pulsar antes no hay desplazamiento");
+        view.getMouseListeners()[0].mousePressed(new MouseEvent(view, MouseEvent.MOUSE_PRESSED, 0, 0, 20, 20, 1, false));
+        view.getMouseMotionListeners()[0].mouseDragged(new MouseEvent(view, MouseEvent.MOUSE_DRAGGED, 0, 0, 25, 20, 0, false));
+        assertEquals(left - 5 / 1.25, view.getViewLeft(), 1e-9);
+    }
+
+    @Test
+    void testPaint_DrawsRenderedView() {
+        BitGrid grid = new BitGrid(4, 4);
+        grid.setAlive(0, 0, true);
+        GridViewport view = viewport(grid, 8, 8);
+        assertEquals(4, view.getRows());
+        assertEquals(4, view.getCols());
+        assertEquals(new Dimension(800, 800), view.getPreferredSize());
+
+        BufferedImage screen = new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = screen.createGraphics();
+        view.paint(g);
+        g.dispose();
+        assertEquals(Color.BLACK.getRGB(), screen.getRGB(0, 0));
+        assertEquals(Color.WHITE.getRGB(), screen.getRGB(1, 0));
+        assertEquals(BG.getRGB(), screen.getRGB(5, 0));
+    }
+}
@@ -0,0 +1,117 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashLifeTest {
+
+    // Sopa aleatoria en el centro de un tablero grande, lejos de los bordes
+    private static int[][] soupInTheMiddle(int size, int soup, long seed) {
+        int[][] gen = new int[size][size];
+        int[][] small = BitGridTest.randomGen(soup, soup, seed);
+        int offset = (size - soup) / 2;
+        for (int i = 0; i < soup; i++) {
+            System.arraycopy(small[i], 0, gen[offset + i], offset, soup);
+        }
+        return gen;
+    }
+
+    // Avanza con el motor directo
+    private static int[][] direct(int[][] gen, int generations) {
+        BacteriaLifeLogic logic = new BacteriaLifeLogic(gen.length);
+        logic.load(gen);
+        for (int i = 0; i < generations; i++) {
+            logic.step();
+        }
+        int[][] out = new int[gen.length][gen[0].length];
+        logic.exportGen(out);
+        return out;
+    }
+
+    @Test
+    void testJump_MatchesDirectStepper() {
+        int[][] gen = soupInTheMiddle(200, 24, 51);
+        HashLife life = HashLife.fromGen(gen);
+
+        life.jump(6); // 64 generaciones de golpe
+
+        assertEquals(64, life.getGeneration());
+        int[][] expected = direct(gen, 64);
+        assertTrue(Arrays.deepEquals(expected, life.toGen(200, 200)), "El salto de 2^6 debe coincidir con 64 pasos");
+        assertEquals(Arrays.stream(expected).flatMapToInt(Arrays::stream).sum(), life.getPopulation());
+    }
+
+    @Test
+    void testAdvance_NonPowerOfTwoAndSingleSteps() {
+        int[][] gen = soupInTheMiddle(160, 16, 52);
+        HashLife life = HashLife.fromGen(gen);
+        for (int i = 0; i < 5; i++) {
+            life.jump(0);
+        }
+        life.advance(45); // 32 + 8 + 4 + 1
+
+        assertEquals(50, life.getGeneration());
+        assertTrue(Arrays.deepEquals(direct(gen, 50), life.toGen(160, 160)));
+    }
+
+    @Test
+    void testFarJump_GliderTravelsForever() {
+        // Un glider avanza 1 celda en diagonal cada 4 generaciones
+        int[][] glider = new int[3][3];
+        glider[0][1] = glider[1][2] = glider[2][0] = glider[2][1] = glider[2][2] = 1;
+        HashLife life = HashLife.fromGen(glider);
+
+        life.jump(20); // ~10^6 generaciones
+
+        long shift = (1L << 20) / 4;
+        assertEquals(5, life.getPopulation());
+        assertTrue(life.isAlive(shift, shift + 1));
+        assertTrue(life.isAlive(shift + 2, shift + 2));
+        assertFalse(life.isAlive(0, 1), "El glider ya no está en el origen");
+
+        int[][] window = new int[3][3];
+        life.exportTo(window, shift, shift);
+        assertTrue(Arrays.deepEquals(glider, window));
+    }
+
+    @Test
+    void testBoundedCache_EvictsAndStaysCorrect() {
+        int[][] gen = soupInTheMiddle(200, 30, 53);
+        HashLife small = HashLife.fromGen(gen, 2000);
+        HashLife big = HashLife.fromGen(gen);
+
+        for (int i = 0; i < 6; i++) {
+            small.jump(3);
+            big.jump(3);
+        }
+        // La caché pequeña ha descartado nodos, la grande los conserva todos
+        assertTrue(small.getNodeCount() < big.getNodeCount(), "La caché acotada debe haber expulsado nodos");
+        assertTrue(Arrays.deepEquals(big.toGen(200, 200), small.toGen(200, 200)));
+        assertEquals(big.getPopulation(), small.getPopulation());
+    }
+
+    @Test
+    void testBoundedCache_HoldsDuringOneLargeJump() {
+        int[][] gen = soupInTheMiddle(200, 30, 54);
+        HashLife small = HashLife.fromGen(gen, 500);
+        HashLife big = HashLife.fromGen(gen);
+
+        // Un solo salto de 2^7: la caché se vacía durante el salto, no sólo al terminar
+        small.jump(7);
+        big.jump(7);
+        assertTrue(big.getPeakNodeCount() > 10 * 500, "El salto necesita muchos más nodos que la cota");
+        assertTrue(small.getPeakNodeCount() < 4 * 500, "Pico de " + small.getPeakNodeCount() + " nodos");
+        assertTrue(Arrays.deepEquals(direct(gen, 128), small.toGen(200, 200)));
+        assertEquals(big.getPopulation(), small.getPopulation());
+    }
+
+    @Test
+    void testJump_InvalidAndEmptyUniverse() {
+        HashLife life = new HashLife();
+        assertThrows(IllegalArgumentException.class, () -> life.jump(-1));
+        life.jump(10);
+        assertEquals(0, life.getPopulation());
+        assertFalse(life.isAlive(-5, 3));
+    }
+}
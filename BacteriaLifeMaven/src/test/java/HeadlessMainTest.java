@@ -0,0 +1,238 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeadlessMainTest {
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+    private int run(String... args) {
+        return HeadlessMain.run(args, new PrintStream(out, true), new PrintStream(err, true));
+    }
+
+    // Quita los campos de tiempo, que cambian en cada ejecución
+    private static String withoutTimings(String json) {
+        return json.replaceAll(",\"generationsPerSecond\":[0-9.]+", "").replaceAll(",\"elapsedMs\":[0-9.]+", "");
+    }
+
+    @Test
+    void testRun_PrintsOneJsonLine() {
+        int code = run("--size", "64", "--seed", "7", "--density", "0.4", "--generations", "500");
+
+        assertEquals(0, code);
+        String line = out.toString().trim();
+        assertTrue(line.startsWith("{\"engine\":\"dense\",\"size\":64,\"seed\":7,\"density\":0.4"), line);
+        assertTrue(line.contains("\"roundsToStability\":"));
+        assertTrue(line.contains("\"generationsPerSecond\":"));
+        assertTrue(line.endsWith("}"));
+        assertEquals(1, line.split("\n").length);
+    }
+
+    @Test
+    void testRun_SameSeedSameResultOnEveryEngine() {
+        run("--size", "100", "--seed", "3", "--generations", "120", "--engine", "dense");
+        run("--size", "100", "--seed", "3", "--generations", "120", "--engine", "parallel", "--threads", "2");
+        run("--size", "100", "--seed", "3", "--generations", "120", "--engine", "sparse");
+        String[] lines = out.toString().trim().split("\\R");
+
+        assertEquals(3, lines.length);
+        String dense = withoutTimings(lines[0]).replace("\"dense\"", "\"x\"");
+        assertEquals(dense, withoutTimings(lines[1]).replace("\"parallel\"", "\"x\""));
+        assertTrue(lines[2].contains("\"engine\":\"sparse\""));
+    }
+
+    @Test
+    void testRun_EmptyGridIsStableAtOnce() {
+        run("--size", "16", "--seed", "1", "--density", "0", "--engine", "sparse");
+        run("--size", "16", "--seed", "1", "--density", "0");
+        String[] lines = out.toString().trim().split("\\R");
+
+        for (String line : lines) {
+            assertTrue(line.contains("\"rounds\":1,\"roundsToStability\":0,\"period\":1,\"population\":0"), line);
+        }
+    }
+
+    @Test
+    void testRun_OtherRule() {
+        run("--size", "64", "--seed", "4", "--generations", "50", "--rule", "b36/s23");
+        run("--size", "64", "--seed", "4", "--generations", "50", "--engine", "parallel", "--rule", "B36/S23");
+        String[] lines = out.toString().trim().split("\\R");
+
+        assertTrue(lines[0].contains("\"rule\":\"B36/S23\""), lines[0]);
+        assertEquals(withoutTimings(lines[0]).replace("\"dense\"", "\"x\""),
+                withoutTimings(lines[1]).replace("\"parallel\"", "\"x\""));
+    }
+
+    @Test
+    void testRun_LimitReached() {
+        // Con 0 generaciones no hay tiempo de estabilizarse
+        run("--size", "32", "--seed", "5", "--generations", "0");
+        assertTrue(out.toString().contains("\"rounds\":0,\"roundsToStability\":-1,\"period\":0"), out.toString());
+    }
+
+    @Test
+    void testRun_ClusterMatchesDense() {
+        // Los dos paran al estabilizarse, en un ciclo o en el límite
+        run("--size", "48", "--seed", "6", "--generations", "400");
+        run("--size", "48", "--seed", "6", "--generations", "400", "--engine", "cluster", "--workers", "2");
+        String[] lines = out.toString().trim().split("\n");
+        assertTrue(lines[1].contains("\"workers\":2"), lines[1]);
+        assertEquals(withoutTimings(lines[0]).replace("\"dense\"", "\"cluster\""),
+                withoutTimings(lines[1]).replace(",\"workers\":2", ""));
+    }
+
+    @Test
+    void testRun_Torus() {
+        run("--size", "64", "--seed", "4", "--generations", "50", "--boundary", "torus");
+        run("--size", "64", "--seed", "4", "--generations", "50", "--engine", "parallel", "--boundary", "TORUS");
+        String[] lines = out.toString().trim().split("\n");
+        assertTrue(lines[0].contains("\"boundary\":\"torus\""), lines[0]);
+        assertEquals(withoutTimings(lines[0]), withoutTimings(lines[1]).replace("\"parallel\"", "\"dense\""));
+    }
+
+    @Test
+    void testRun_Metrics() {
+        run("--size", "64", "--seed", "7", "--generations", "30", "--metrics", "true");
+        String line = out.toString().trim();
+        assertTrue(line.matches(".*,\"metrics\":\\{\"stepP50Micros\":[0-9.]+,\"stepP99Micros\":[0-9.]+"
+                + ",\"stepMaxMicros\":[0-9.]+,\"births\":[0-9]+,\"deaths\":[0-9]+"
+                + ",\"allocatedBytesPerStep\":-?[0-9.]+},\"elapsedMs\":[0-9.]+}"), line);
+
+        // Sin la opción la línea no cambia
+        out.reset();
+        run("--size", "64", "--seed", "7", "--generations", "30", "--metrics", "false");
+        assertFalse(out.toString().contains("metrics"));
+    }
+
+    @Test
+    void testRun_Soups() {
+        run("--size", "32", "--seed", "10", "--generations", "200", "--soups", "6", "--threads", "3");
+        run("--size", "32", "--seed", "12", "--generations", "200");
+        String[] lines = out.toString().trim().split("\\R");
+
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].matches("\\{\"engine\":\"dense\",\"size\":32,\"seed\":10,.*,\"soups\":6,\"stabilized\":[0-6]"
+                + ",\"roundsToStability\":\\{\"min\":-?[0-9]+,\"p50\":-?[0-9]+,\"p90\":-?[0-9]+,\"p99\":-?[0-9]+"
+                + ",\"max\":-?[0-9]+,\"mean\":[0-9.]+},\"population\":\\{.*},\"soupsPerSecond\":[0-9.]+"
+                + ",\"elapsedMs\":[0-9.]+}"), lines[0]);
+        // La sopa 2 es la ejecución con la semilla 12: su población está entre el mínimo y el máximo
+        long population = Long.parseLong(lines[1].replaceAll(".*\"population\":([0-9]+).*", "$1"));
+        String populations = lines[0].replaceAll(".*\"population\":\\{\"min\":([0-9]+),.*\"max\":([0-9]+),.*", "$1 $2");
+        String[] range = populations.split(" ");
+        assertTrue(Long.parseLong(range[0]) <= population && population <= Long.parseLong(range[1]), populations);
+    }
+
+    @Test
+    void testRun_OffHeapMatchesSparse(@TempDir Path dir) throws IOException {
+        run("--size", "100", "--seed", "3", "--generations", "120", "--engine", "sparse");
+        run("--size", "100", "--seed", "3", "--generations", "120", "--engine", "offheap");
+        Path file = dir.resolve("grid.bin");
+        run("--size", "100", "--seed", "3", "--generations", "120", "--engine", "offheap",
+                "--map", file.toString());
+        String[] lines = out.toString().trim().split("\\R");
+
+        assertEquals(3, lines.length);
+        String sparse = withoutTimings(lines[0]).replace("\"sparse\"", "\"x\"");
+        assertEquals(sparse, withoutTimings(lines[1]).replace("\"offheap\"", "\"x\""));
+        assertEquals(sparse, withoutTimings(lines[2]).replace("\"offheap\"", "\"x\""));
+
+        // El fichero se queda con la última generación
+        long population = Long.parseLong(lines[1].replaceAll(".*\"population\":([0-9]+).*", "$1"));
+        try (OffHeapGrid grid = OffHeapGrid.map(file, 100, 100)) {
+            assertEquals(population, grid.population());
+        }
+        assertFalse(Files.exists(dir.resolve("grid.bin.next")), "La otra generación se borra");
+
+        assertEquals(1, run("--engine", "offheap", "--map", dir.resolve("missing/grid.bin").toString()));
+        assertTrue(err.toString().startsWith("Can't map "), err.toString());
+    }
+
+    @Test
+    void testRun_ResumeGivesTheSameResult(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("run.ckp");
+        // Sin parar, y parando en la ronda 60 con un checkpoint cada 20
+        run("--size", "64", "--seed", "5", "--generations", "500", "--rule", "B36/S23", "--boundary", "torus");
+        run("--size", "64", "--seed", "5", "--generations", "60", "--rule", "B36/S23", "--boundary", "torus",
+                "--checkpoint", file.toString(), "--checkpoint-every", "20");
+        assertEquals(60, Checkpoint.read(file).getRound());
+        run("--resume", file.toString(), "--generations", "500", "--engine", "parallel", "--threads", "2");
+        String[] lines = out.toString().trim().split("\\R");
+
+        assertEquals(3, lines.length);
+        assertTrue(lines[1].contains("\"rounds\":60,"), lines[1]);
+        assertEquals(withoutTimings(lines[0]), withoutTimings(lines[2]).replace("\"parallel\"", "\"dense\""));
+
+        // Sin --generations se queda el límite del checkpoint
+        out.reset();
+        run("--resume", file.toString());
+        assertTrue(out.toString().contains("\"generationLimit\":60,\"rule\":\"B36/S23\",\"boundary\":\"torus\""
+                + ",\"rounds\":60,"), out.toString());
+        // Las 60 rondas del checkpoint no se hicieron en esta ejecución, no cuentan para la velocidad
+        assertTrue(out.toString().contains("\"generationsPerSecond\":0.0"), out.toString());
+
+        assertEquals(1, run("--resume", dir.resolve("missing.ckp").toString()));
+        assertTrue(err.toString().startsWith("Can't resume from "), err.toString());
+        err.reset();
+        assertEquals(1, run("--size", "16", "--checkpoint", dir.resolve("missing/run.ckp").toString(),
+                "--checkpoint-every", "1"));
+        assertTrue(err.toString().startsWith("Can't write checkpoint "), err.toString());
+    }
+
+    @Test
+    void testRun_BadArguments() {
+        assertEquals(2, run("--size"));
+        assertEquals(2, run("--colour", "red"));
+        assertEquals(2, run("--size", "-4"));
+        assertEquals(2, run("--density", "1.5"));
+        assertEquals(2, run("--size", "abc"));
+        assertEquals(2, run("--engine", "gpu"));
+        assertEquals(2, run("--engine", "sparse", "--record", "run.blg"));
+        assertEquals(2, run("--rule", "B9/S23"));
+        assertEquals(2, run("--engine", "sparse", "--rule", "B36/S23"));
+        assertEquals(2, run("--metrics", "yes"));
+        assertEquals(2, run("--boundary", "sphere"));
+        assertEquals(2, run("--workers", "0"));
+        assertEquals(2, run("--size", "4", "--workers", "5"));
+        assertEquals(2, run("--engine", "cluster", "--record", "run.blg"));
+        assertEquals(2, run("--engine", "sparse", "--boundary", "torus"));
+        assertEquals(2, run("--engine", "sparse", "--metrics", "true"));
+        assertEquals(2, run("--soups", "0"));
+        assertEquals(2, run("--map", "grid.bin"));
+        assertEquals(2, run("--engine", "sparse", "--checkpoint", "run.ckp"));
+        assertEquals(2, run("--resume", "run.ckp", "--size", "64"));
+        assertEquals(2, run("--soups", "3", "--checkpoint", "run.ckp"));
+        assertEquals(2, run("--checkpoint-every", "0"));
+        assertEquals(2, run("--engine", "offheap", "--boundary", "torus"));
+        assertTrue(err.toString().contains("The offheap engine only has dead edges"), err.toString());
+        assertEquals(2, run("--soups", "4", "--engine", "parallel"));
+        assertEquals(2, run("--soups", "4", "--metrics", "true"));
+        assertTrue(err.toString().contains(HeadlessMain.USAGE));
+        assertEquals("", out.toString());
+    }
+
+    @Test
+    void testRun_RecordsTheRun(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("run.blg");
+        assertEquals(0, run("--size", "48", "--seed", "2", "--generations", "40", "--record", file.toString()));
+
+        // Una generación inicial más una por ronda
+        String line = out.toString();
+        int rounds = Integer.parseInt(line.replaceAll(".*\"rounds\":(\\d+).*\\s*", "$1"));
+        try (GenerationReplay replay = GenerationReplay.open(file)) {
+            assertEquals(48, replay.getRows());
+            assertEquals(rounds + 1, replay.getGenerationCount());
+        }
+
+        // Un fichero que no se puede crear
+        assertEquals(1, run("--record", dir.resolve("missing").resolve("run.blg").toString()));
+        assertTrue(err.toString().contains("Can't record"));
+    }
+}
@@ -0,0 +1,74 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongIntMapTest {
+
+    @Test
+    void testAddPutGet_WithGrowth() {
+        LongIntMap map = new LongIntMap(2);
+        for (long k = -500; k < 500; k++) {
+            map.add(k * 0x100000001L, 2);
+        }
+        map.add(7 * 0x100000001L, 3);
+        map.put(-1, 42);
+
+        assertEquals(1001, map.size());
+        assertEquals(5, map.get(7 * 0x100000001L));
+        assertEquals(42, map.get(-1));
+        assertEquals(0, map.get(123456789L), "Una clave ausente vale 0");
+        assertFalse(map.containsKey(123456789L));
+    }
+
+    @Test
+    void testIterationAndClear() {
+        LongIntMap map = new LongIntMap();
+        map.add(1, 1);
+        map.add(2, 2);
+        map.put(2, 5);
+
+        int sum = 0;
+        for (int i = 0; i < map.size(); i++) {
+            int slot = map.slotAt(i);
+            assertTrue(map.isUsed(slot));
+            sum += map.valueAt(slot) * (int) map.keyAt(slot);
+        }
+        assertEquals(11, sum);
+
+        map.clear();
+        assertEquals(0, map.size());
+        assertFalse(map.containsKey(1));
+        map.clear();
+    }
+
+    @Test
+    void testClear_ShrinksAfterABurst() {
+        LongIntMap map = new LongIntMap();
+        int initial = map.capacity();
+        for (long k = 0; k < 100_000; k++) {
+            map.add(k, 1);
+        }
+        int burst = map.capacity();
+        assertTrue(burst >= 200_000);
+
+        // Tras el pico sólo quedan unas pocas claves: la tabla vuelve a un tamaño acorde
+        map.clear();
+        for (long k = 0; k < 10; k++) {
+            map.add(k, 1);
+        }
+        map.clear();
+        assertEquals(initial, map.capacity(), "Vuelve al tamaño inicial");
+        assertEquals(0, map.size());
+
+        // Con muchas claves no encoge: se van a volver a usar
+        for (long k = 0; k < 100_000; k++) {
+            map.add(k, 1);
+        }
+        int full = map.capacity();
+        map.clear();
+        assertEquals(full, map.capacity());
+        map.add(5, 3);
+        assertEquals(3, map.get(5));
+        assertEquals(0, map.get(6));
+    }
+}
@@ -0,0 +1,110 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapGridTest {
+
+    // Trozos de 3 filas para probar el paso de un trozo a otro sin reservar 1 GB
+    private static final int ROWS_PER_CHUNK = 3;
+
+    private static OffHeapGrid small(int rows, int cols) {
+        return OffHeapGrid.allocate(rows, cols, (long) ROWS_PER_CHUNK * ((cols + 63) / 64) * Long.BYTES);
+    }
+
+    @Test
+    void testFillRandom_SameAsBitGrid() {
+        OffHeapGrid grid = small(100, 130);
+        assertEquals(ROWS_PER_CHUNK, grid.getChunkRows());
+        grid.fillRandom(9, 0.3);
+        BitGrid expected = new BitGrid(100, 130);
+        expected.fillRandom(9, 0.3);
+
+        assertTrue(expected.sameCells(grid.toBitGrid()));
+        assertEquals(expected.population(), grid.population());
+        assertEquals(expected.isAlive(99, 129), grid.isAlive(99, 129));
+        assertThrows(IllegalArgumentException.class, () -> grid.fillRandom(9, -1));
+    }
+
+    @Test
+    void testStep_SameAsBitGrid() {
+        // 150 filas: dos ventanas completas y una de 22
+        Rule highLife = Rule.parse("B36/S23");
+        OffHeapGrid current = small(150, 100);
+        OffHeapGrid next = small(150, 100);
+        current.fillRandom(4, 0.5);
+        BitGrid expected = new BitGrid(150, 100);
+        expected.fillRandom(4, 0.5);
+        BitGrid expectedNext = new BitGrid(150, 100);
+
+        for (int generation = 0; generation < 20; generation++) {
+            StepStats stats = new StepStats();
+            OffHeapGrid.step(current, next, highLife, stats);
+            StepStats expectedStats = new StepStats();
+            BitGrid.step(expected, expectedNext, highLife, expectedStats);
+            OffHeapGrid swap = current;
+            current = next;
+            next = swap;
+            BitGrid swapGrid = expected;
+            expected = expectedNext;
+            expectedNext = swapGrid;
+
+            assertTrue(expected.sameCells(current.toBitGrid()), "Generación " + generation);
+            assertEquals(expectedStats.getBirths(), stats.getBirths());
+            assertEquals(expectedStats.getDeaths(), stats.getDeaths());
+        }
+        assertEquals(expected.population(), current.population());
+    }
+
+    @Test
+    void testStep_GridSmallerThanOneWindow() {
+        OffHeapGrid blinker = OffHeapGrid.allocate(5, 5);
+        OffHeapGrid next = OffHeapGrid.allocate(5, 5);
+        blinker.setAlive(2, 1, true);
+        blinker.setAlive(2, 2, true);
+        blinker.setAlive(2, 3, true);
+        OffHeapGrid.step(blinker, next, Rule.CONWAY, new StepStats());
+        assertTrue(next.isAlive(1, 2) && next.isAlive(2, 2) && next.isAlive(3, 2));
+        assertFalse(next.isAlive(2, 1));
+        assertEquals(3, next.population());
+
+        blinker.setAlive(2, 2, false);
+        assertFalse(blinker.isAlive(2, 2));
+        assertThrows(IllegalArgumentException.class, () -> OffHeapGrid.step(blinker, OffHeapGrid.allocate(5, 6),
+                Rule.CONWAY, new StepStats()));
+        assertThrows(IllegalArgumentException.class, () -> OffHeapGrid.allocate(0, 5));
+    }
+
+    @Test
+    void testMap_KeepsTheGridInTheFile(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("grid.bin");
+        BitGrid expected = new BitGrid(40, 70);
+        expected.fillRandom(2, 0.5);
+        try (OffHeapGrid grid = OffHeapGrid.map(file, 40, 70, 4 * 2 * Long.BYTES)) {
+            grid.fillRandom(2, 0.5);
+            assertEquals(1, grid.getWords() / 2);
+            assertEquals(40, grid.getRows());
+            assertEquals(70, grid.getCols());
+        }
+        assertEquals(40 * 2 * Long.BYTES, Files.size(file), "2 palabras por fila, sin guardas");
+
+        // Al volver a abrirlo están las mismas células
+        try (OffHeapGrid grid = OffHeapGrid.map(file, 40, 70)) {
+            assertTrue(expected.sameCells(grid.toBitGrid()));
+            OffHeapGrid copy = OffHeapGrid.allocate(40, 70);
+            copy.copyFrom(grid);
+            assertTrue(expected.sameCells(copy.toBitGrid()));
+        }
+
+        // Un fichero más largo se recorta
+        try (OffHeapGrid grid = OffHeapGrid.map(file, 10, 70)) {
+            assertEquals(10, grid.toBitGrid().getRows());
+        }
+        assertEquals(10 * 2 * Long.BYTES, Files.size(file));
+        assertThrows(IllegalArgumentException.class, () -> OffHeapGrid.map(file, 10, -1));
+    }
+}
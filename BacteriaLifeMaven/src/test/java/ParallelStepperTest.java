@@ -0,0 +1,86 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelStepperTest {
+
+    @Test
+    void testStep_SameAsSequentialFromOneToNCores() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int[][] gen = BitGridTest.randomGen(300, 333, 5);
+        BitGrid src = BitGrid.fromGen(gen);
+        BitGrid expected = new BitGrid(300, 333);
+        BitGrid.step(src, expected);
+
+        // Con 1, 2, ... N hilos el resultado debe ser idéntico bit a bit
+        for (int threads = 1; threads <= Math.max(2, cores); threads++) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                ParallelStepper stepper = new ParallelStepper(pool, 0);
+                BitGrid dst = new BitGrid(300, 333);
+                stepper.step(src, dst);
+                assertTrue(Arrays.deepEquals(expected.toGen(), dst.toGen()), "Distinto con " + threads + " hilos");
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    @Test
+    void testStep_SmallGridFallsBackToSequential() {
+        ParallelStepper stepper = new ParallelStepper();
+        assertEquals(ParallelStepper.DEFAULT_THRESHOLD, stepper.getThreshold());
+        assertSame(ForkJoinPool.commonPool(), stepper.getPool());
+
+        int[][] gen = BitGridTest.randomGen(30, 30, 9);
+        BitGrid dst = new BitGrid(30, 30);
+        stepper.step(BitGrid.fromGen(gen), dst);
+        assertTrue(Arrays.deepEquals(BitGridTest.conway(gen), dst.toGen()));
+    }
+
+    @Test
+    void testLogic_ParallelModeMatchesSequential() {
+        int[][] gen = BitGridTest.randomGen(200, 200, 13);
+        BacteriaLifeLogic sequential = new BacteriaLifeLogic(200);
+        BacteriaLifeLogic parallel = new BacteriaLifeLogic(200);
+        parallel.setParallelStepper(new ParallelStepper(ForkJoinPool.commonPool(), 0));
+        assertNotNull(parallel.getParallelStepper());
+
+        int[][] a = gen;
+        int[][] b = gen;
+        for (int i = 0; i < 30; i++) {
+            a = sequential.generateNewGen(a);
+            b = parallel.generateNewGen(b);
+        }
+        assertTrue(Arrays.deepEquals(a, b), "El modo paralelo debe coincidir con el secuencial");
+    }
+
+    @Test
+    void testFillRandom_SameGridForAnyThreadCount() {
+        BitGrid expected = new BitGrid(300, 333);
+        expected.fillRandom(42, 0.35);
+
+        // Misma semilla, mismo tablero con 1, 2, 3 y 4 hilos
+        for (int threads = 1; threads <= 4; threads++) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                BitGrid grid = new BitGrid(300, 333);
+                new ParallelStepper(pool, 0).fillRandom(grid, 42, 0.35);
+                assertTrue(expected.sameCells(grid), "Distinto con " + threads + " hilos");
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        // Por debajo del umbral se rellena en el hilo actual, con el mismo resultado
+        BitGrid small = new BitGrid(20, 20);
+        new ParallelStepper().fillRandom(small, 42, 0.35);
+        BitGrid sequential = new BitGrid(20, 20);
+        sequential.fillRandom(42, 0.35);
+        assertTrue(sequential.sameCells(small));
+        assertThrows(IllegalArgumentException.class, () -> new ParallelStepper().fillRandom(small, 42, -1));
+    }
+}
@@ -0,0 +1,227 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RewindBufferTest {
+
+    private static BitGrid copyOf(BitGrid grid) {
+        BitGrid copy = new BitGrid(grid.getRows(), grid.getCols());
+        copy.copyFrom(grid);
+        return copy;
+    }
+
+    // Ejecuta la lógica guardando una copia completa de cada generación para comparar
+    private static List<BitGrid> run(BacteriaLifeLogic logic, int steps) {
+        List<BitGrid> gens = new ArrayList<>();
+        gens.add(copyOf(logic.getCurrentGrid()));
+        for (int i = 0; i < steps; i++) {
+            logic.step();
+            gens.add(copyOf(logic.getCurrentGrid()));
+        }
+        return gens;
+    }
+
+    private static void assertWindow(RewindBuffer rewind, List<BitGrid> gens) {
+        BitGrid read = new BitGrid(rewind.getRows(), rewind.getCols());
+        for (int round = rewind.getFirstRound(); round <= rewind.getLastRound(); round++) {
+            rewind.read(round, read);
+            assertTrue(read.sameCells(gens.get(round)), "Ronda " + round);
+        }
+    }
+
+    @Test
+    void testRead_EveryRoundOfTheWindow() {
+        // 100 columnas: la última palabra de la fila está a medias
+        BacteriaLifeLogic logic = new BacteriaLifeLogic(100);
+        RewindBuffer rewind = new RewindBuffer(100, 100, 100, 8, RewindBuffer.DEFAULT_MAX_BYTES);
+        logic.setRewindBuffer(rewind);
+        assertSame(rewind, logic.getRewindBuffer());
+        assertTrue(rewind.isEmpty());
+        assertEquals(-1, rewind.getFirstRound());
+        assertEquals(-1, rewind.getLastRound());
+        logic.loadRandom(51, 0.4);
+
+        List<BitGrid> gens = run(logic, 50);
+        assertEquals(51, rewind.size());
+        assertEquals(0, rewind.getFirstRound());
+        assertEquals(50, rewind.getLastRound());
+        assertWindow(rewind, gens);
+        assertEquals(8, rewind.getKeyframeInterval());
+
+        // Aunque cambien casi todas las palabras, nunca más que generaciones enteras
+        long full = 51L * (RewindBuffer.ENTRY_BYTES + 100 * 2 * Long.BYTES);
+        assertTrue(rewind.getBytes() <= full, rewind.getBytes() + " bytes");
+    }
+
+    @Test
+    void testDeltas_SmallChangesTakeLittleRoom() {
+        // Un planeador en 200x200: cada ronda cambian unas pocas palabras
+        int[][] gen = new int[200][200];
+        gen[1][2] = 1;
+        gen[2][3] = 1;
+        gen[3][1] = 1;
+        gen[3][2] = 1;
+        gen[3][3] = 1;
+        BacteriaLifeLogic logic = new BacteriaLifeLogic(100);
+        RewindBuffer rewind = new RewindBuffer(200, 200, 100, 32, RewindBuffer.DEFAULT_MAX_BYTES);
+        logic.setRewindBuffer(rewind);
+        logic.load(gen);
+
+        List<BitGrid> gens = run(logic, 40);
+        assertWindow(rewind, gens);
+        // 2 keyframes (rondas 0 y 32) y deltas de pocas palabras, frente a 41 generaciones enteras
+        long keyframe = RewindBuffer.ENTRY_BYTES + 200L * 4 * Long.BYTES;
+        assertTrue(rewind.getBytes() < 3 * keyframe, rewind.getBytes() + " bytes");
+    }
+
+    @Test
+    void testCapacity_DropsTheOldestGenerations() {
+        BacteriaLifeLogic logic = new BacteriaLifeLogic(40);
+        logic.setBoundary(Boundary.TORUS);
+        RewindBuffer rewind = new RewindBuffer(40, 40, 10, 4, RewindBuffer.DEFAULT_MAX_BYTES);
+        logic.setRewindBuffer(rewind);
+        logic.loadRandom(52, 0.5);
+
+        List<BitGrid> gens = run(logic, 30);
+        // Rondas 0..30: sólo quedan las 10 últimas, la primera convertida en keyframe
+        assertEquals(10, rewind.getCapacity());
+        assertEquals(10, rewind.size());
+        assertEquals(21, rewind.getFirstRound());
+        assertEquals(30, rewind.getLastRound());
+        assertWindow(rewind, gens);
+
+        assertFalse(rewind.contains(20));
+        assertThrows(IllegalArgumentException.class, () -> rewind.read(20, new BitGrid(40, 40)));
+    }
+
+    @Test
+    void testMemoryBudget_KeepsTheWindowSmall() {
+        BacteriaLifeLogic logic = new BacteriaLifeLogic(64);
+        // Un keyframe de 64x64 ocupa 512 bytes más la cabecera
+        long budget = 4000;
+        RewindBuffer rewind = new RewindBuffer(64, 64, 1000, 16, budget);
+        assertEquals(budget, rewind.getMaxBytes());
+        logic.setRewindBuffer(rewind);
+        logic.loadRandom(53, 0.5);
+
+        List<BitGrid> gens = run(logic, 60);
+        assertTrue(rewind.getBytes() <= budget, rewind.getBytes() + " bytes");
+        assertTrue(rewind.size() > 1 && rewind.size() < 61, rewind.size() + " generaciones");
+        assertEquals(60, rewind.getLastRound());
+        assertWindow(rewind, gens);
+
+        // Con un presupuesto menor que un keyframe se queda al menos la última
+        BacteriaLifeLogic other = new BacteriaLifeLogic(64);
+        RewindBuffer tiny = new RewindBuffer(64, 64, 1000, 16, 1);
+        other.setRewindBuffer(tiny);
+        other.loadRandom(53, 0.5);
+        gens = run(other, 5);
+        assertEquals(1, tiny.size());
+        assertWindow(tiny, gens);
+    }
+
+    @Test
+    void testRecord_GoingBackReplacesTheNewerRounds() {
+        BacteriaLifeLogic logic = new BacteriaLifeLogic(30);
+        RewindBuffer rewind = new RewindBuffer(30, 30, 100, 4, RewindBuffer.DEFAULT_MAX_BYTES);
+        logic.setRewindBuffer(rewind);
+        logic.loadRandom(54, 0.5);
+        List<BitGrid> gens = run(logic, 10);
+
+        // Volver a la ronda 6 con otra generación: se descartan 6..10
+        BitGrid other = new BacteriaLifeLogic(30).generateInitialGrid(99, 0.5);
+        rewind.record(6, other);
+        assertEquals(6, rewind.getLastRound());
+        gens = new ArrayList<>(gens.subList(0, 6));
+        gens.add(other);
+        BitGrid next = new BitGrid(30, 30);
+        BitGrid.step(other, next);
+        rewind.record(7, next);
+        gens.add(next);
+        assertWindow(rewind, gens);
+
+        // Un salto hacia delante o antes del principio empieza de nuevo
+        rewind.record(20, other);
+        assertEquals(1, rewind.size());
+        assertEquals(20, rewind.getFirstRound());
+        rewind.record(3, next);
+        assertEquals(3, rewind.getFirstRound());
+        assertEquals(3, rewind.getLastRound());
+
+        rewind.clear();
+        assertTrue(rewind.isEmpty());
+        assertEquals(0, rewind.getBytes());
+    }
+
+    @Test
+    void testResume_RecordsTheCheckpoint() {
+        BacteriaLifeLogic source = new BacteriaLifeLogic(20);
+        source.loadRandom(55, 0.5);
+        source.step();
+        source.step();
+
+        BacteriaLifeLogic logic = new BacteriaLifeLogic(20);
+        RewindBuffer rewind = new RewindBuffer(20, 20, 1, 1, RewindBuffer.DEFAULT_MAX_BYTES);
+        logic.setRewindBuffer(rewind);
+        logic.resume(source.checkpoint());
+        assertEquals(2, rewind.getFirstRound());
+        logic.step();
+        // Capacidad 1: sólo la última
+        assertEquals(3, rewind.getFirstRound());
+        assertEquals(1, rewind.size());
+        BitGrid read = new BitGrid(20, 20);
+        rewind.read(3, read);
+        assertTrue(read.sameCells(logic.getCurrentGrid()));
+    }
+
+    @Test
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new RewindBuffer(0, 10));
+        assertThrows(IllegalArgumentException.class, () -> new RewindBuffer(10, 10, 0, 4, 100));
+        assertThrows(IllegalArgumentException.class, () -> new RewindBuffer(10, 10, 10, 0, 100));
+        assertThrows(IllegalArgumentException.class, () -> new RewindBuffer(10, 10, 10, 4, 0));
+
+        RewindBuffer rewind = new RewindBuffer(10, 10);
+        assertEquals(RewindBuffer.DEFAULT_GENERATIONS, rewind.getCapacity());
+        assertThrows(IllegalArgumentException.class, () -> rewind.record(0, new BitGrid(10, 11)));
+        rewind.record(0, new BitGrid(10, 10));
+        assertThrows(IllegalArgumentException.class, () -> rewind.read(0, new BitGrid(11, 10)));
+    }
+
+    @Test
+    void testRecord_StepLogMatchesAFullComparison() {
+        // Toro y bandas en paralelo: el registro de palabras cambiadas llega por varios caminos
+        BacteriaLifeLogic logic = new BacteriaLifeLogic(100);
+        logic.setBoundary(Boundary.TORUS);
+        logic.setParallelStepper(new ParallelStepper(java.util.concurrent.ForkJoinPool.commonPool(), 0));
+        logic.setMaxRounds(1000);
+        RewindBuffer fromLog = new RewindBuffer(100, 100, 100, 16, RewindBuffer.DEFAULT_MAX_BYTES);
+        RewindBuffer compared = new RewindBuffer(100, 100, 100, 16, RewindBuffer.DEFAULT_MAX_BYTES);
+        logic.setRewindBuffer(fromLog);
+        logic.loadRandom(12, 0.4);
+        compared.record(0, logic.getCurrentGrid());
+        List<BitGrid> gens = new ArrayList<>();
+        gens.add(copyOf(logic.getCurrentGrid()));
+        // La sopa se calma y los deltas sustituyen a los fotogramas clave; la ventana acaba desplazándose
+        for (int round = 1; round <= 300; round++) {
+            logic.step();
+            compared.record(round, logic.getCurrentGrid());
+            gens.add(copyOf(logic.getCurrentGrid()));
+        }
+        assertTrue(logic.getStepStats().isLogging(), "Con buffer, el paso registra lo que cambia");
+
+        assertEquals(compared.getBytes(), fromLog.getBytes(), "Los mismos deltas, hechos de otra forma");
+        assertEquals(201, fromLog.getFirstRound());
+        assertEquals(300, fromLog.getLastRound());
+        assertTrue(fromLog.getBytes() < 100L * 100 * 2 * Long.BYTES, "Casi todo son deltas");
+        assertWindow(fromLog, gens);
+
+        // Sin buffer ni suscriptores el paso deja de registrar
+        logic.setRewindBuffer(null);
+        logic.step();
+        assertFalse(logic.getStepStats().isLogging());
+    }
+}
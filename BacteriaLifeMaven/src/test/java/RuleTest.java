@@ -0,0 +1,62 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuleTest {
+
+    @Test
+    void testParse_CanonicalForm() {
+        assertEquals("B3/S23", Rule.parse("B3/S23").toString());
+        assertEquals("B36/S23", Rule.parse("b63/s32").toString());
+        assertEquals("B3/S23", Rule.parse("S23/B3").toString());
+        assertEquals("B2/S", Rule.parse("B2/S").toString());
+        assertEquals(Rule.CONWAY, Rule.parse(" B3/S23 "));
+        assertEquals(Rule.CONWAY.hashCode(), Rule.parse("B3/S32").hashCode());
+        assertNotEquals(Rule.CONWAY, Rule.parse("B36/S23"));
+        assertNotEquals(Rule.CONWAY, "B3/S23");
+    }
+
+    @Test
+    void testParse_Invalid() {
+        for (String bad : new String[]{"", "B3", "B3/S23/X", "X3/S23", "B9/S23", "B33/S23", "B3/Sa", "3/23"}) {
+            assertThrows(IllegalArgumentException.class, () -> Rule.parse(bad), bad);
+        }
+    }
+
+    @Test
+    void testTable_MatchesOriginalRules() {
+        // Regla por defecto: nace con 3, sobrevive con 2 o 3
+        Rule rule = Rule.CONWAY;
+        for (int index = 0; index < 512; index++) {
+            int neighbours = Integer.bitCount(index & ~Rule.CENTER_BIT);
+            boolean alive = (index & Rule.CENTER_BIT) != 0;
+            int expected = (alive && (neighbours == 2 || neighbours == 3)) || (!alive && neighbours == 3) ? 1 : 0;
+            assertEquals(expected, rule.next(index), "Vecindario " + Integer.toBinaryString(index));
+        }
+        assertTrue(rule.isBorn(3) && !rule.isBorn(2));
+        assertTrue(rule.survives(2) && !rule.survives(4));
+    }
+
+    @Test
+    void testBitEngine_MatchesTableForManyRules() {
+        // Incluye B0 y S8, que tocan los extremos del contador
+        String[] rules = {"B3/S23", "B36/S23", "B2/S", "B0/S8", "B1357/S1357", "B3678/S34678", "B012345678/S"};
+        long seed = 100;
+        for (String text : rules) {
+            Rule rule = Rule.parse(text);
+            int[][] gen = BitGridTest.randomGen(21, 75, seed++);
+            BitGrid current = BitGrid.fromGen(gen);
+            BitGrid next = new BitGrid(21, 75);
+            for (int round = 0; round < 8; round++) {
+                BitGrid.step(current, next, rule, new StepStats());
+                gen = BacteriaLifeLogic.stepReference(gen, rule);
+                assertTrue(Arrays.deepEquals(gen, next.toGen()), text + ", ronda " + round);
+                BitGrid tmp = current;
+                current = next;
+                next = tmp;
+            }
+        }
+    }
+}
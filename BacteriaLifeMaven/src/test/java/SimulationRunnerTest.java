@@ -0,0 +1,204 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulationRunnerTest {
+
+    private SimulationRunner runner;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (runner != null) {
+            runner.stop();
+            assertTrue(runner.awaitTermination(2000), "El hilo de simulación debe terminar");
+        }
+    }
+
+    // Un planeador en una esquina de un tablero grande: tarda cientos de rondas en estabilizarse
+    private static int[][] glider(int size) {
+        int[][] gen = new int[size][size];
+        gen[0][1] = 1;
+        gen[1][2] = 1;
+        gen[2][0] = 1;
+        gen[2][1] = 1;
+        gen[2][2] = 1;
+        return gen;
+    }
+
+    // Espera al siguiente frame publicado
+    private static SimulationRunner.Frame next(SimulationRunner runner) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        SimulationRunner.Frame frame;
+        while ((frame = runner.poll()) == null) {
+            assertTrue(System.currentTimeMillis() < deadline, "No llegó ningún frame");
+            Thread.sleep(1);
+        }
+        return frame;
+    }
+
+    @Test
+    void testRunToEnd_LastFrameMatchesLogic() throws InterruptedException {
+        int[][] initial = BitGridTest.randomGen(30, 30, 5);
+
+        // Resultado esperado calculado en este mismo hilo
+        BacteriaLifeLogic expected = new BacteriaLifeLogic(30);
+        expected.load(initial);
+        while (expected.step() && !expected.isStable() && !expected.isCycling()) {
+            // Seguimos
+        }
+        int[][] expectedGen = expected.getCurrentGrid().toGen();
+
+        runner = new SimulationRunner(new BacteriaLifeLogic(30), initial);
+        runner.setTargetRate(0);
+        runner.start();
+        assertTrue(runner.awaitTermination(5000));
+
+        SimulationRunner.Frame last = runner.poll();
+        assertNotNull(last);
+        assertTrue(last.isFinished(), "El último frame debe marcar el final");
+        assertTrue(Arrays.deepEquals(expectedGen, last.getGen()), "El último frame debe ser el tablero final");
+        assertEquals(Math.min(expected.getRound(), expected.getMaxRounds()), last.getRound());
+        assertEquals(expected.getPopulation(), last.getPopulation());
+        assertFalse(runner.isRunning());
+    }
+
+    @Test
+    void testBitGridMode_FramesCarryGrids() throws InterruptedException {
+        int[][] initial = BitGridTest.randomGen(200, 200, 6);
+        BacteriaLifeLogic expected = new BacteriaLifeLogic(200);
+        expected.load(initial);
+        while (expected.step() && !expected.isStable() && !expected.isCycling()) {
+            // Seguimos
+        }
+
+        BitGrid grid = BitGrid.fromGen(initial);
+        runner = new SimulationRunner(new BacteriaLifeLogic(200), grid);
+        grid.setAlive(0, 0, !grid.isAlive(0, 0)); // El runner trabaja con su copia
+        runner.setTargetRate(0);
+        runner.start();
+        assertTrue(runner.awaitTermination(10000));
+
+        SimulationRunner.Frame last = runner.poll();
+        assertNotNull(last);
+        assertNull(last.getGen(), "En este modo no hay int[][]");
+        assertTrue(last.isFinished());
+        assertTrue(expected.getCurrentGrid().sameCells(last.getGrid()), "El último frame debe ser el tablero final");
+        assertEquals(expected.getPopulation(), last.getPopulation());
+    }
+
+    @Test
+    void testResume_FromCheckpoint() throws InterruptedException {
+        BacteriaLifeLogic expected = new BacteriaLifeLogic(64);
+        expected.setMaxRounds(80);
+        expected.loadRandom(4, 0.5);
+        for (int round = 0; round < 30; round++) {
+            expected.step();
+        }
+        Checkpoint checkpoint = expected.checkpoint();
+        while (expected.step() && !expected.isStable() && !expected.isCycling()) {
+            // Seguimos
+        }
+
+        runner = new SimulationRunner(new BacteriaLifeLogic(64), checkpoint);
+        runner.setTargetRate(0);
+        runner.start();
+        assertTrue(runner.awaitTermination(5000));
+        SimulationRunner.Frame last = runner.poll();
+        assertTrue(last.isFinished());
+        assertEquals(Math.min(expected.getRound(), 80), last.getRound(), "Sigue la cuenta de rondas y el límite");
+        assertTrue(expected.getCurrentGrid().sameCells(last.getGrid()));
+    }
+
+    @Test
+    void testSlowConsumer_OnlyLatestFrameIsKept() throws InterruptedException {
+        runner = new SimulationRunner(new BacteriaLifeLogic(64), glider(64));
+        runner.setTargetRate(200);
+        runner.start();
+        Thread.sleep(300);
+
+        // Nadie ha leído: todos los frames menos el último se han descartado
+        runner.pause();
+        Thread.sleep(50);
+        SimulationRunner.Frame frame = next(runner);
+        assertTrue(runner.getPublishedFrames() > 5);
+        assertEquals(runner.getPublishedFrames() - 1, runner.getDroppedFrames());
+        assertTrue(frame.getRound() > 5);
+        assertNull(runner.poll(), "Un frame solo se entrega una vez");
+        runner.release(frame);
+    }
+
+    @Test
+    void testPauseAndResume_DoNotBlock() throws InterruptedException {
+        runner = new SimulationRunner(new BacteriaLifeLogic(64), glider(64));
+        runner.setTargetRate(200);
+        runner.start();
+        int before = next(runner).getRound();
+
+        runner.pause();
+        assertTrue(runner.isPaused());
+        Thread.sleep(100);
+        runner.poll();
+        Thread.sleep(100);
+        assertNull(runner.poll(), "En pausa no se publican frames");
+        assertEquals(0, runner.getAchievedRate());
+
+        runner.resume();
+        assertFalse(runner.isPaused());
+        assertTrue(next(runner).getRound() > before, "Al reanudar la simulación avanza");
+    }
+
+    @Test
+    void testPause_ParksAfterPublishingTheRoundItStoppedAt() throws InterruptedException {
+        BacteriaLifeLogic logic = new BacteriaLifeLogic(64);
+        runner = new SimulationRunner(logic, glider(64));
+        runner.setTargetRate(1000);
+        runner.start();
+        next(runner);
+        assertFalse(runner.isParked());
+
+        // A 1000 rondas por segundo casi todas caen entre dos frames
+        runner.pause();
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!runner.isParked() && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertTrue(runner.isParked());
+        SimulationRunner.Frame frame = runner.poll();
+        assertNotNull(frame, "Al aparcar publica la ronda en la que se quedó");
+        int round = frame.getRound();
+        assertEquals(logic.getRound(), round);
+        runner.release(frame); // Ya no es nuestro, el simulador lo rellenará otra vez
+        Thread.sleep(50);
+        assertNull(runner.poll(), "Aparcado no se publica nada más");
+
+        runner.resume();
+        assertFalse(runner.isParked());
+        assertTrue(next(runner).getRound() > round);
+    }
+
+    @Test
+    void testTargetRate_Paced() throws InterruptedException {
+        runner = new SimulationRunner(new BacteriaLifeLogic(64), glider(64));
+        runner.setTargetRate(50);
+        runner.start();
+        Thread.sleep(1200);
+
+        // Margen amplio: solo comprobamos que el ritmo está limitado y se mide
+        double achieved = runner.getAchievedRate();
+        assertTrue(achieved > 0 && achieved < 100, "Ritmo medido: " + achieved);
+        assertEquals(50, runner.getTargetRate());
+    }
+
+    @Test
+    void testInvalidUse() throws InterruptedException {
+        runner = new SimulationRunner(new BacteriaLifeLogic(5), new int[5][5]);
+        assertTrue(runner.awaitTermination(10), "Sin arrancar no hay nada que esperar");
+        assertThrows(IllegalArgumentException.class, () -> runner.setTargetRate(-1));
+
+        runner.start();
+        assertThrows(IllegalStateException.class, () -> runner.start());
+    }
+}
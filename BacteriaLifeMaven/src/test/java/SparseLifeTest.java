@@ -0,0 +1,80 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SparseLifeTest {
+
+    @Test
+    void testBounded_MatchesDenseLogic() {
+        int[][] gen = BitGridTest.randomGen(60, 90, 61);
+        SparseLife sparse = SparseLife.fromGen(gen, true);
+        BacteriaLifeLogic dense = new BacteriaLifeLogic(60);
+        dense.load(gen);
+        int[][] expected = new int[60][90];
+
+        for (int i = 0; i < 80; i++) {
+            sparse.step();
+            dense.step();
+            dense.exportGen(expected);
+            assertTrue(Arrays.deepEquals(expected, sparse.toGen(60, 90)), "Distinto del modo denso en la ronda " + i);
+            assertEquals(dense.getStepStats().getBirths(), sparse.getBirths());
+            assertEquals(dense.getStepStats().getDeaths(), sparse.getDeaths());
+        }
+        assertTrue(sparse.isBounded());
+        assertEquals(80, sparse.getGeneration());
+    }
+
+    @Test
+    void testUnbounded_GliderCrossesNegativeCoordinates() {
+        // Glider que viaja hacia arriba a la izquierda, fuera de cualquier tablero
+        SparseLife life = new SparseLife();
+        life.setAlive(0, 0);
+        life.setAlive(0, 1);
+        life.setAlive(0, 2);
+        life.setAlive(1, 0);
+        life.setAlive(2, 1);
+
+        for (int i = 0; i < 4000; i++) {
+            life.step();
+        }
+
+        assertEquals(5, life.getPopulation());
+        // 4000 generaciones = 1000 celdas en diagonal
+        assertTrue(life.isAlive(-1000, -1000));
+        assertTrue(life.isAlive(-1000, -999));
+        assertFalse(life.isAlive(0, 0));
+
+        int[][] window = new int[3][3];
+        life.exportTo(window, -1000, -1000);
+        assertTrue(Arrays.deepEquals(new int[][]{{1, 1, 1}, {1, 0, 0}, {0, 1, 0}}, window));
+    }
+
+    @Test
+    void testUnbounded_SameAsHashLife() {
+        int[][] gen = BitGridTest.randomGen(20, 20, 62);
+        SparseLife sparse = SparseLife.fromGen(gen, false);
+        HashLife hash = HashLife.fromGen(gen);
+        for (int i = 0; i < 32; i++) {
+            sparse.step();
+        }
+        hash.jump(5);
+
+        int[][] a = new int[120][120];
+        int[][] b = new int[120][120];
+        sparse.exportTo(a, -50, -50);
+        hash.exportTo(b, -50, -50);
+        assertTrue(Arrays.deepEquals(b, a));
+        assertEquals(hash.getPopulation(), sparse.getPopulation());
+    }
+
+    @Test
+    void testBounded_RejectsCellsOutside() {
+        SparseLife life = SparseLife.bounded(5, 5);
+        assertThrows(IllegalArgumentException.class, () -> life.setAlive(5, 0));
+        life.setAlive(4, 4);
+        life.setAlive(4, 4);
+        assertEquals(1, life.getPopulation());
+    }
+}
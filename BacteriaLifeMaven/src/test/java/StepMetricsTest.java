@@ -0,0 +1,65 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StepMetricsTest {
+
+    @Test
+    void testBucket_LimitCoversTheValue() {
+        // Cada valor cae en un cubo cuyo límite es >= valor y como mucho un 12,5 % mayor
+        for (long nanos : new long[]{0, 1, 7, 8, 15, 16, 17, 1000, 123_456, 1L << 40, Long.MAX_VALUE}) {
+            long limit = StepMetrics.bucketLimit(StepMetrics.bucket(nanos));
+            assertTrue(limit >= nanos, "Límite " + limit + " para " + nanos);
+            assertTrue(limit - nanos <= nanos / 8, "Cubo demasiado ancho para " + nanos);
+        }
+        assertTrue(StepMetrics.bucket(Long.MAX_VALUE) < 64 * 8);
+    }
+
+    @Test
+    void testPercentiles() {
+        StepMetrics metrics = new StepMetrics();
+        assertEquals(0, metrics.getLatencyPercentile(50));
+        assertEquals(0, metrics.getGenerationsPerSecond());
+        assertEquals(0, metrics.getMeanLatency());
+
+        // 99 pasos de 1 µs y uno de 1 ms
+        for (int i = 0; i < 99; i++) {
+            metrics.stepped(i + 1, 1000, 10, 1, 1, 0);
+        }
+        metrics.stepped(100, 1_000_000, 12, 3, 1, 0);
+
+        assertEquals(100, metrics.getSteps());
+        assertEquals(1000, metrics.getLatencyPercentile(50), 1000 / 8.0);
+        assertEquals(1000, metrics.getLatencyPercentile(99), 1000 / 8.0);
+        assertEquals(1_000_000, metrics.getLatencyPercentile(100));
+        assertEquals(1_000_000, metrics.getMaxLatency());
+        assertEquals(10_990, metrics.getMeanLatency(), 1e-9);
+        assertEquals(100 * 1e9 / 1_099_000, metrics.getGenerationsPerSecond(), 1e-6);
+        assertEquals(102, metrics.getBirths());
+        assertEquals(100, metrics.getDeaths());
+        assertEquals(12, metrics.getPopulation());
+        assertThrows(IllegalArgumentException.class, () -> metrics.getLatencyPercentile(101));
+    }
+
+    @Test
+    void testAllocationAndReset() {
+        StepMetrics metrics = new StepMetrics();
+        assertEquals(-1, metrics.getAllocatedBytesPerStep(), "Sin datos todavía");
+        metrics.stepped(1, 10, 0, 0, 0, -1);
+        assertEquals(-1, metrics.getAllocatedBytesPerStep(), "La JVM no sabe cuánto reserva");
+        metrics.stepped(2, 10, 0, 0, 0, 64);
+        metrics.stepped(3, 10, 0, 0, 0, 0);
+        assertEquals(32, metrics.getAllocatedBytesPerStep());
+
+        metrics.roundLimitReached(3, 7);
+        assertTrue(metrics.isRoundLimitReached());
+        assertEquals(7, metrics.getPopulation());
+
+        metrics.reset();
+        assertEquals(0, metrics.getSteps());
+        assertEquals(0, metrics.getMaxLatency());
+        assertEquals(0, metrics.getLatencyPercentile(100));
+        assertFalse(metrics.isRoundLimitReached());
+        assertEquals(-1, metrics.getAllocatedBytesPerStep());
+    }
+}
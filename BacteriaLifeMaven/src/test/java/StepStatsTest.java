@@ -0,0 +1,96 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StepStatsTest {
+
+    // Cuenta nacimientos y muertes comparando celda a celda, como haría checkStableGen
+    private static long[] diff(int[][] before, int[][] after) {
+        long births = 0, deaths = 0;
+        for (int i = 0; i < before.length; i++) {
+            for (int j = 0; j < before[0].length; j++) {
+                if (before[i][j] == 0 && after[i][j] == 1) births++;
+                if (before[i][j] == 1 && after[i][j] == 0) deaths++;
+            }
+        }
+        return new long[]{births, deaths};
+    }
+
+    @Test
+    void testStep_CountsMatchFullComparison() {
+        int[][] gen = BitGridTest.randomGen(70, 150, 21);
+        BitGrid src = BitGrid.fromGen(gen);
+        BitGrid dst = new BitGrid(70, 150);
+        StepStats stats = new StepStats();
+
+        BitGrid.step(src, dst, stats);
+        long[] expected = diff(gen, dst.toGen());
+
+        assertEquals(expected[0], stats.getBirths());
+        assertEquals(expected[1], stats.getDeaths());
+        assertEquals(expected[0] + expected[1], stats.getChangedCells());
+        assertTrue(stats.hasChanged());
+    }
+
+    @Test
+    void testParallelStep_MergesBands() {
+        BitGrid src = BitGrid.fromGen(BitGridTest.randomGen(400, 100, 22));
+        StepStats sequential = new StepStats();
+        StepStats parallel = new StepStats();
+
+        BitGrid.step(src, new BitGrid(400, 100), sequential);
+        new ParallelStepper(ForkJoinPool.commonPool(), 0).step(src, new BitGrid(400, 100), parallel);
+
+        assertEquals(sequential.getBirths(), parallel.getBirths());
+        assertEquals(sequential.getDeaths(), parallel.getDeaths());
+        assertEquals(sequential.getHashDelta(), parallel.getHashDelta());
+    }
+
+    @Test
+    void testReset_AndStillLife() {
+        // Un bloque 2x2 es estable: ningún cambio
+        int[][] block = new int[4][4];
+        block[1][1] = block[1][2] = block[2][1] = block[2][2] = 1;
+        StepStats stats = new StepStats();
+        BitGrid.step(BitGrid.fromGen(block), new BitGrid(4, 4), stats);
+
+        assertFalse(stats.hasChanged());
+
+        BitGrid.step(BitGrid.fromGen(BitGridTest.randomGen(4, 4, 1)), new BitGrid(4, 4), stats);
+        stats.reset();
+        assertFalse(stats.hasChanged());
+        assertEquals(0, stats.getHashDelta());
+    }
+
+    @Test
+    void testLogging_KeepsTheChangedWords() {
+        BitGrid src = BitGrid.fromGen(BitGridTest.randomGen(400, 150, 23));
+        StepStats plain = new StepStats();
+        BitGrid.step(src, new BitGrid(400, 150), plain);
+        assertFalse(plain.isLogging());
+        assertEquals(0, plain.getLoggedWords(), "Sin pedirlo no se guarda nada");
+
+        // En paralelo, las bandas registran sus palabras y el padre las junta
+        StepStats logged = new StepStats();
+        logged.setLogging(true);
+        new ParallelStepper(ForkJoinPool.commonPool(), 0).step(src, new BitGrid(400, 150), logged);
+        long births = 0;
+        long deaths = 0;
+        for (int i = 0; i < logged.getLoggedWords(); i++) {
+            assertEquals(0, logged.getLoggedBirths(i) & logged.getLoggedDeaths(i));
+            assertTrue((logged.getLoggedBirths(i) | logged.getLoggedDeaths(i)) != 0, "Solo palabras con cambios");
+            births += Long.bitCount(logged.getLoggedBirths(i));
+            deaths += Long.bitCount(logged.getLoggedDeaths(i));
+        }
+        assertEquals(plain.getBirths(), births);
+        assertEquals(plain.getDeaths(), deaths);
+
+        logged.reset();
+        assertEquals(0, logged.getLoggedWords());
+        assertTrue(logged.isLogging(), "reset vacía el registro pero sigue registrando");
+        logged.setLogging(false);
+        assertFalse(logged.isLogging());
+    }
+}
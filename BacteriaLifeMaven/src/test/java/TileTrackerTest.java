@@ -0,0 +1,104 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TileTrackerTest {
+
+    @Test
+    void testLogic_TiledRunMatchesReference() {
+        // Muchas rondas: la sopa se va calmando y se saltan cada vez más tiles
+        int[][] gen = BitGridTest.randomGen(150, 300, 41);
+        BacteriaLifeLogic logic = new BacteriaLifeLogic(150);
+        logic.load(gen);
+        int[][] out = new int[150][300];
+        for (int round = 0; round < 150; round++) {
+            logic.step();
+            gen = BitGridTest.conway(gen);
+            logic.exportGen(out);
+            assertTrue(Arrays.deepEquals(gen, out), "Distinto de la referencia en la ronda " + round);
+            assertEquals(Arrays.stream(gen).flatMapToInt(Arrays::stream).sum(), logic.getPopulation());
+        }
+    }
+
+    @Test
+    void testLogic_QuietBoardOnlyComputesActiveTiles() {
+        // Un blinker en una esquina de un tablero grande y vacío
+        int[][] gen = new int[256][512];
+        gen[5][5] = gen[5][6] = gen[5][7] = 1;
+        BacteriaLifeLogic logic = new BacteriaLifeLogic(256);
+        logic.load(gen);
+
+        logic.step();
+        assertEquals(logic.getTileCount(), logic.getActiveTiles(), "Tras cargar se calcula todo");
+        logic.step();
+        // El tile del blinker (en la esquina) y sus 3 vecinos
+        assertEquals(4, logic.getActiveTiles(), "Solo la zona del blinker sigue activa");
+        assertEquals(32, logic.getTileCount());
+        assertEquals(3, logic.getPopulation());
+    }
+
+    @Test
+    void testPrepare_NeighboursOfChangedTileAreActive() {
+        BitGrid src = new BitGrid(96, 384); // 3x3 tiles
+        BitGrid dst = new BitGrid(96, 384);
+        TileTracker tiles = new TileTracker(src);
+        assertEquals(9, tiles.prepare());
+        tiles.step(src, dst, new StepStats());
+
+        // Nada cambió: ningún tile activo
+        assertEquals(0, tiles.prepare());
+
+        // Un cambio en el tile central activa los 9
+        src.setAlive(40, 130, true);
+        src.setAlive(40, 131, true);
+        src.setAlive(40, 132, true);
+        dst.copyFrom(src);
+        tiles.markAllDirty();
+        tiles.prepare();
+        tiles.step(src, dst, new StepStats());
+        assertEquals(9, tiles.prepare(), "El tile central y sus vecinos deben recalcularse");
+    }
+
+    @Test
+    void testParallel_TiledMatchesSequential() {
+        int[][] gen = BitGridTest.randomGen(400, 400, 43);
+        BacteriaLifeLogic sequential = new BacteriaLifeLogic(400);
+        BacteriaLifeLogic parallel = new BacteriaLifeLogic(400);
+        parallel.setParallelStepper(new ParallelStepper(new ForkJoinPool(4), 0));
+        sequential.load(gen);
+        parallel.load(gen);
+        for (int i = 0; i < 60; i++) {
+            sequential.step();
+            parallel.step();
+        }
+        assertTrue(sequential.getCurrentGrid().sameCells(parallel.getCurrentGrid()));
+        assertEquals(sequential.getActiveTiles(), parallel.getActiveTiles());
+        parallel.getParallelStepper().getPool().shutdown();
+    }
+
+    @Test
+    void testPrepare_WrappedCornerReachesOppositeEdges() {
+        BitGrid src = new BitGrid(128, 512); // 4x4 tiles
+        BitGrid dst = new BitGrid(128, 512);
+        TileTracker tiles = new TileTracker(src);
+        assertFalse(tiles.isWrapped());
+        tiles.prepare();
+        tiles.step(src, dst, new StepStats());
+
+        // Un blinker en la esquina: sin toro 4 tiles, con toro también la última fila y columna
+        src.setAlive(1, 0, true);
+        src.setAlive(1, 1, true);
+        src.setAlive(1, 2, true);
+        dst.copyFrom(src);
+        tiles.markAllDirty();
+        tiles.prepare();
+        tiles.step(src, dst, new StepStats());
+        assertEquals(4, tiles.prepare());
+        tiles.setWrapped(true);
+        assertTrue(tiles.isWrapped());
+        assertEquals(9, tiles.prepare(), "En un toro la esquina toca las otras tres esquinas y dos bordes");
+    }
+}
@@ -0,0 +1,119 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class VectorStepperTest {
+
+    private boolean wasEnabled;
+    private int minWords;
+
+    @BeforeEach
+    void setUp() {
+        // Surefire arranca la JVM con --add-modules jdk.incubator.vector
+        assumeTrue(VectorSupport.AVAILABLE, "Sin el módulo jdk.incubator.vector");
+        wasEnabled = VectorSupport.isEnabled();
+        minWords = VectorSupport.getMinWords();
+        // Todos los anchos por la parte vectorial, aunque por defecto los estrechos vayan escalares
+        VectorSupport.setMinWords(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        VectorSupport.setEnabled(wasEnabled);
+        VectorSupport.setMinWords(minWords);
+    }
+
+    // Un paso con el motor elegido, devolviendo el tablero y sus estadísticas
+    private static StepStats step(BitGrid src, BitGrid dst, Rule rule, boolean vector) {
+        VectorSupport.setEnabled(vector);
+        StepStats stats = new StepStats();
+        BitGrid.step(src, dst, rule, stats);
+        return stats;
+    }
+
+    @Test
+    void testSwitch() {
+        VectorSupport.setEnabled(true);
+        assertTrue(VectorSupport.isEnabled());
+        assertEquals(VectorStepper.LANES, VectorSupport.getLanes());
+        VectorSupport.setEnabled(false);
+        assertEquals(1, VectorSupport.getLanes());
+    }
+
+    @Test
+    void testMinWords_NarrowBlocksStayScalar() {
+        assertEquals(VectorSupport.DEFAULT_MIN_WORDS, minWords, "Por defecto, sin -Dbacteria.vector.minWords");
+        VectorSupport.setEnabled(true);
+        VectorSupport.setMinWords(16);
+        assertFalse(VectorSupport.isEnabledFor(8), "512 columnas: SIMD no gana, se queda escalar");
+        assertTrue(VectorSupport.isEnabledFor(16));
+        assertTrue(VectorSupport.isEnabledFor(64));
+        VectorSupport.setEnabled(false);
+        assertFalse(VectorSupport.isEnabledFor(64), "Apagado no cuenta el ancho");
+        assertThrows(IllegalArgumentException.class, () -> VectorSupport.setMinWords(0));
+        assertEquals(16, VectorSupport.getMinWords());
+    }
+
+    @Test
+    void testStep_MatchesScalarOnEveryWidth() {
+        // Anchos alrededor de los múltiplos de 64 * LANES, donde empieza y acaba la parte vectorial
+        int lanes = VectorStepper.LANES;
+        int[] cols = {1, 64, 65, 64 * lanes, 64 * lanes + 1, 64 * (lanes + 1), 64 * (lanes + 1) + 1,
+                64 * (2 * lanes + 1) + 7, 1000};
+        String[] rules = {"B3/S23", "B36/S23", "B0/S8", "B1357/S1357"};
+        long seed = 40;
+        for (int c : cols) {
+            for (String text : rules) {
+                Rule rule = Rule.parse(text);
+                BitGrid src = BitGrid.fromGen(BitGridTest.randomGen(9, c, seed++));
+                BitGrid scalar = new BitGrid(9, c);
+                BitGrid vector = new BitGrid(9, c);
+
+                StepStats expected = step(src, scalar, rule, false);
+                StepStats actual = step(src, vector, rule, true);
+
+                String where = c + " columnas, " + text;
+                assertTrue(scalar.sameCells(vector), where);
+                assertEquals(expected.getBirths(), actual.getBirths(), where);
+                assertEquals(expected.getDeaths(), actual.getDeaths(), where);
+                assertEquals(expected.getHashDelta(), actual.getHashDelta(), where);
+            }
+        }
+    }
+
+    @Test
+    void testLogic_SameRunWithAndWithoutSimd() {
+        // 300x300 pasa por las teselas fusionadas y por el paralelo
+        int[][] gen = BitGridTest.randomGen(300, 300, 8);
+        int[][][] results = new int[2][][];
+        long[] hashes = new long[2];
+        for (int run = 0; run < 2; run++) {
+            VectorSupport.setEnabled(run == 1);
+            BacteriaLifeLogic life = new BacteriaLifeLogic(300);
+            life.setMaxRounds(150);
+            life.load(gen);
+            for (int round = 0; round < 150; round++) {
+                life.step();
+            }
+            results[run] = life.getCurrentGrid().toGen();
+            hashes[run] = life.getGenHash();
+        }
+        assertTrue(Arrays.deepEquals(results[0], results[1]));
+        assertEquals(hashes[0], hashes[1]);
+        assertEquals(BitGrid.fromGen(results[1]).hash(), hashes[1], "El hash incremental debe seguir cuadrando");
+    }
+
+    @Test
+    void testSpecies() {
+        assertEquals(2, VectorStepper.species(128).length());
+        assertEquals(4, VectorStepper.species(256).length());
+        assertEquals(8, VectorStepper.species(512).length());
+        assertTrue(VectorStepper.species(0).length() >= 1);
+        assertThrows(IllegalArgumentException.class, () -> VectorStepper.species(64));
+    }
+}